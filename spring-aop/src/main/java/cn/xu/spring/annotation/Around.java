@@ -5,11 +5,14 @@ import java.lang.annotation.*;
 /**
  * created by Xu on 2024/5/23 13:13.
  */
-@Target(ElementType.TYPE)
+@Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Inherited
 @Documented
 public @interface Around {
     // 调用处理器的名称
     String value();
+
+    // 标注在类上时拦截哪些方法，例如 "find* || @annotation(Audited)"，默认拦截所有 public 方法
+    String pointcut() default "";
 }
@@ -0,0 +1,25 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 方法执行成功后从指定名称的缓存中移除 key，或者清空整个缓存
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface CacheEvict {
+    // 调用处理器（CacheManager）的名称
+    String value() default "cacheManager";
+
+    // 缓存的名称
+    String name();
+
+    // 与 @Cacheable 的 key 相同
+    String key() default "";
+
+    // 清空整个缓存，忽略 key
+    boolean allEntries() default false;
+}
@@ -0,0 +1,22 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 方法的返回值按参数缓存在指定名称的缓存中，同一个 key 同时只有一个调用执行方法，其他调用等待结果
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Cacheable {
+    // 调用处理器（CacheManager）的名称
+    String value() default "cacheManager";
+
+    // 缓存的名称
+    String name();
+
+    // 缓存的 key，"" 表示全部参数，"#0" 表示第一个参数，"#0,#2" 表示第一个和第三个参数
+    String key() default "";
+}
@@ -7,13 +7,23 @@ import java.lang.reflect.Method;
  * created by Xu on 2024/5/23 14:51.
  * 实现 after 拦截器模板
  */
-public abstract class AfterInvocationHandlerAdapter implements InvocationHandler {
+public abstract class AfterInvocationHandlerAdapter implements InvocationHandler, MethodInterceptor {
     // after 拦截可以修改返回值
     public abstract Object after(Object proxy, Object returnValue, Method method, Object[] args);
 
     @Override
     public final Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        Object ret = method.invoke(proxy, args);
+        // 通过缓存的 MethodHandle 调用原始 bean，原方法的异常直接抛出
+        Object ret = MethodInvocation.invoke(proxy, method, args);
         return after(proxy, ret, method, args);
     }
+
+    /**
+     * 作为拦截器链中的一环时调用，proceed() 继续执行内层拦截器
+     */
+    @Override
+    public final Object invoke(MethodInvocation invocation) throws Throwable {
+        Object ret = invocation.proceed();
+        return after(invocation.getTarget(), ret, invocation.getMethod(), invocation.getArguments());
+    }
 }
@@ -2,20 +2,30 @@ package cn.xu.spring.aop;
 
 import cn.xu.spring.context.*;
 import cn.xu.spring.exception.AopConfigException;
+import jakarta.annotation.Nullable;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * created by Xu on 2024/5/23 13:25.
+ * 一个 bean 只创建一个代理：bean 已经被其他注解代理过时，把拦截器加到同一条 InterceptorChain 的最外层
+ * 注解可以标注在类上或 public 方法上，拦截哪些方法在创建代理时确定，没有匹配的方法时不创建代理：
+ * 类上有注解时，拦截匹配类上注解 pointcut()（如果有）的方法和标注了注解的方法；
+ * 类上没有注解时，只拦截标注了注解的方法；
+ * 方法上有注解时处理器由方法上注解的 value() 决定，否则由类上注解的 value() 决定
  */
 public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> implements BeanPostProcessor {
-    // 保存原始Bean的引用
-    Map<String, Object> originBeans = new HashMap<>();
+    // 保存原始Bean的引用，并行启动时会被多个线程同时访问
+    Map<String, Object> originBeans = new ConcurrentHashMap<>();
 
     Class<A> annotationClass;
 
@@ -24,24 +34,95 @@ public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> imp
     }
 
     public Object postProcessBeforeInitialization(Object bean, String beanName) {
-        Class<?> beanClass = bean.getClass();
-        A annotation = beanClass.getAnnotation(annotationClass);
-        if (annotation != null) {
-            String handlerName;
-            try {
-                handlerName = (String) annotation.annotationType().getMethod("value").invoke(annotation);
-            } catch (ReflectiveOperationException e) {
-                throw new AopConfigException(String.format("@%s must have value() returned String type.", this.annotationClass.getSimpleName()), e);
-            }
-            Object proxy = createProxy(beanClass, bean, handlerName);
-            originBeans.put(beanName, bean);
-            return proxy;
-        } else {
+        InterceptorChain chain = ProxyResolver.getInstance().getInterceptor(bean) instanceof InterceptorChain c ? c : null;
+        // 已经是代理时从原始的类上查找注解
+        Class<?> beanClass = chain != null ? chain.getTargetClass() : bean.getClass();
+        InterceptorChain target = chain != null ? chain : new InterceptorChain(beanClass);
+        Map<String, Map<Method, Annotation>> advised = resolveAdvisedMethods(beanClass, target.getAdvisableMethods());
+        if (advised.isEmpty()) {
             return bean;
         }
+        advised.forEach((handlerName, methods) -> {
+            target.addFirst("@" + this.annotationClass.getSimpleName(), getInterceptor(handlerName), methods);
+        });
+        if (chain != null) {
+            return bean;
+        }
+        Object proxy = ProxyResolver.getInstance().createProxy(bean, target);
+        originBeans.put(beanName, bean);
+        return proxy;
+    }
+
+    /**
+     * 按处理器名称分组的被拦截的方法，以及每个方法上触发拦截的注解（方法上的注解优先于类上的注解）
+     */
+    Map<String, Map<Method, Annotation>> resolveAdvisedMethods(Class<?> beanClass, List<Method> methods) {
+        A classAnnotation = beanClass.getAnnotation(this.annotationClass);
+        Pointcut pointcut = classAnnotation == null ? null : Pointcut.parse(getPointcut(classAnnotation));
+        Map<String, Map<Method, Annotation>> advised = new TreeMap<>();
+        for (Method method : methods) {
+            A methodAnnotation = findMethodAnnotation(method);
+            if (classAnnotation != null) {
+                if ((methodAnnotation != null || pointcut.matches(method)) && accept(method)) {
+                    String handlerName = methodAnnotation != null ? getHandlerName(methodAnnotation, classAnnotation) : getHandlerName(classAnnotation);
+                    advised.computeIfAbsent(handlerName, key -> new HashMap<>()).put(method, methodAnnotation != null ? methodAnnotation : classAnnotation);
+                }
+            } else if (methodAnnotation != null && accept(method)) {
+                advised.computeIfAbsent(getHandlerName(methodAnnotation, null), key -> new HashMap<>()).put(method, methodAnnotation);
+            }
+        }
+        return advised;
+    }
+
+    /**
+     * 匹配的方法是否被拦截，子类可以排除某些方法，或者在创建代理时检查方法是否合法
+     */
+    protected boolean accept(Method method) {
+        return true;
+    }
+
+    /**
+     * 查找方法上的注解，子类覆写的方法没有注解时查找父类中被覆写的方法
+     */
+    @Nullable
+    A findMethodAnnotation(Method method) {
+        return Pointcut.findInOverridden(method, m -> m.getAnnotation(this.annotationClass));
     }
 
-    Object createProxy(Class<?> beanClass, Object bean, String handlerName) {
+    /**
+     * 方法上有注解时的处理器名称，默认为方法上注解的 value()
+     * 方法上注解的 value() 不是处理器名称时（例如只是指标名称），子类可以覆写为使用类上注解的处理器
+     */
+    protected String getHandlerName(A methodAnnotation, @Nullable A classAnnotation) {
+        return getHandlerName(methodAnnotation);
+    }
+
+    protected String getHandlerName(A annotation) {
+        try {
+            return (String) annotation.annotationType().getMethod("value").invoke(annotation);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new AopConfigException(String.format("@%s must have value() returned String type.", this.annotationClass.getSimpleName()), e);
+        }
+    }
+
+    /**
+     * 注解没有 pointcut() 时匹配所有方法
+     */
+    String getPointcut(A annotation) {
+        Method pointcut;
+        try {
+            pointcut = annotation.annotationType().getMethod("pointcut");
+        } catch (NoSuchMethodException e) {
+            return "";
+        }
+        try {
+            return (String) pointcut.invoke(annotation);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new AopConfigException(String.format("@%s must have pointcut() returned String type.", this.annotationClass.getSimpleName()), e);
+        }
+    }
+
+    MethodInterceptor getInterceptor(String handlerName) {
         ConfigurableApplicationContext context = (ConfigurableApplicationContext) ApplicationContextUtils.getRequiredApplicationContext();
         BeanDefinition definition = context.findBeanDefinition(handlerName);
         if (definition == null) {
@@ -51,11 +132,20 @@ public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> imp
         if (handlerBean == null) {
             handlerBean = context.createBeanAsEarlySingleton(definition);
         }
-        if (handlerBean instanceof InvocationHandler handler) {
-            return ProxyResolver.getInstance().createProxy(bean, handler);
+        return createInterceptor(handlerName, handlerBean);
+    }
+
+    /**
+     * 把处理器 bean 转换为拦截器，子类可以支持其他类型的处理器
+     */
+    protected MethodInterceptor createInterceptor(String handlerName, Object handlerBean) {
+        if (handlerBean instanceof MethodInterceptor interceptor) {
+            return interceptor;
+        } else if (handlerBean instanceof InvocationHandler handler) {
+            return InterceptorChain.adapt(handler);
         } else {
-            throw new AopConfigException(String.format("@%s proxy handler '%s' is not type of %s.", this.annotationClass.getSimpleName(), handlerName,
-                    InvocationHandler.class.getName()));
+            throw new AopConfigException(String.format("@%s proxy handler '%s' is not type of %s or %s.", this.annotationClass.getSimpleName(), handlerName,
+                    MethodInterceptor.class.getName(), InvocationHandler.class.getName()));
         }
     }
 
@@ -7,12 +7,22 @@ import java.lang.reflect.Method;
  * created by Xu on 2024/5/23 14:48.
  * 实现 before 拦截（拦截器模板）
  */
-public abstract class BeforeInvocationHandlerAdapter implements InvocationHandler {
+public abstract class BeforeInvocationHandlerAdapter implements InvocationHandler, MethodInterceptor {
     public abstract void before(Object proxy, Method method, Object[] args);
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         before(proxy, method, args);
-        return method.invoke(proxy, args);
+        // 通过缓存的 MethodHandle 调用原始 bean，原方法的异常直接抛出
+        return MethodInvocation.invoke(proxy, method, args);
+    }
+
+    /**
+     * 作为拦截器链中的一环时调用，proceed() 继续执行内层拦截器
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        before(invocation.getTarget(), invocation.getMethod(), invocation.getArguments());
+        return invocation.proceed();
     }
 }
@@ -0,0 +1,216 @@
+package cn.xu.spring.aop;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * created by Xu on 2026/10/19 0:40.
+ * 一个 bean 的全部拦截器，多个注解（@Around、@Transactional 等）共用同一个代理
+ * 添加拦截器时按方法预先计算好拦截器数组，调用时只查一次 Map，没有拦截器的方法直接通过 MethodHandle 调用原始 bean
+ * 每个拦截器只作用于创建代理时匹配的方法，并带有该方法上预先解析好的注解
+ * 后添加的拦截器在外层，与每个注解各套一层代理时的调用顺序相同
+ */
+public class InterceptorChain implements MethodInterceptor {
+
+    /**
+     * 一个拦截器，rank 为在整条链中的位置，0 为最外层，methods 为匹配的方法及触发拦截的注解
+     */
+    record Advisor(String name, int rank, MethodInterceptor interceptor, Map<Method, Annotation> methods) {
+    }
+
+    /**
+     * 一个方法上的一个拦截器
+     */
+    record Advice(int rank, MethodInterceptor interceptor, Annotation annotation) {
+    }
+
+    /**
+     * 执行 rank 内层拦截器的代理及其原始 bean
+     */
+    record InnerProxy(Object target, Object proxy) {
+    }
+
+    final Class<?> targetClass;
+
+    // 由外到内的全部拦截器
+    List<Advisor> advisors = List.of();
+
+    // 有拦截器的方法 -> 由外到内的拦截器，添加拦截器时整体替换
+    volatile Map<Method, Advice[]> chains = Map.of();
+
+    // rank -> 内层拦截器的代理，InvocationHandler 不在最内层时使用，第一次调用时创建，添加拦截器时 rank 改变，整体替换
+    volatile InnerProxy[] innerProxies = new InnerProxy[0];
+
+    public InterceptorChain(Class<?> targetClass) {
+        this.targetClass = targetClass;
+    }
+
+    public Class<?> getTargetClass() {
+        return this.targetClass;
+    }
+
+    /**
+     * 把 InvocationHandler 转换为拦截器，handler 收到的第一个参数是内层拦截器的代理，没有内层拦截器时是原始 bean
+     */
+    public static MethodInterceptor adapt(InvocationHandler handler) {
+        if (handler instanceof MethodInterceptor interceptor) {
+            return interceptor;
+        }
+        return invocation -> {
+            Object target = invocation instanceof ChainInvocation chained ? chained.getInnerTarget() : invocation.getTarget();
+            return handler.invoke(target, invocation.getMethod(), invocation.getArguments());
+        };
+    }
+
+    /**
+     * 添加最外层的拦截器，methods 为拦截的方法及对应的注解，只能包含 getAdvisableMethods() 中的方法
+     */
+    public synchronized void addFirst(String name, MethodInterceptor interceptor, Map<Method, Annotation> methods) {
+        List<Advisor> added = new ArrayList<>(this.advisors.size() + 1);
+        added.add(new Advisor(name, 0, interceptor, Map.copyOf(methods)));
+        for (Advisor advisor : this.advisors) {
+            added.add(new Advisor(advisor.name(), advisor.rank() + 1, advisor.interceptor(), advisor.methods()));
+        }
+        this.advisors = List.copyOf(added);
+        this.chains = computeChains(this.advisors);
+        this.innerProxies = new InnerProxy[this.advisors.size()];
+    }
+
+    Map<Method, Advice[]> computeChains(List<Advisor> advisors) {
+        Map<Method, List<Advice>> chains = new HashMap<>();
+        for (Advisor advisor : advisors) {
+            advisor.methods().forEach((method, annotation) -> {
+                chains.computeIfAbsent(method, key -> new ArrayList<>()).add(new Advice(advisor.rank(), advisor.interceptor(), annotation));
+            });
+        }
+        Map<Method, Advice[]> computed = new HashMap<>();
+        chains.forEach((method, chain) -> computed.put(method, chain.toArray(Advice[]::new)));
+        return computed;
+    }
+
+    /**
+     * 目标类中可以被拦截的 public 方法
+     */
+    public List<Method> getAdvisableMethods() {
+        return Arrays.stream(this.targetClass.getMethods()).filter(InterceptorChain::isAdvisable).toList();
+    }
+
+    /**
+     * equals、hashCode、toString 等 Object 的方法（包括子类覆写的）不拦截，final 和 static 方法不能被代理
+     */
+    static boolean isAdvisable(Method method) {
+        int mod = method.getModifiers();
+        if (Modifier.isFinal(mod) || Modifier.isStatic(mod)) {
+            return false;
+        }
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return false;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    public List<String> getAdvisorNames() {
+        return this.advisors.stream().map(Advisor::name).toList();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return dispatch(invocation.getTarget(), invocation.getMethod(), invocation.getArguments());
+    }
+
+    /**
+     * 由代理类的 Dispatcher 直接调用，没有拦截器的方法不创建 MethodInvocation
+     */
+    Object dispatch(Object target, Method method, Object[] args) throws Throwable {
+        Advice[] chain = this.chains.get(method);
+        if (chain == null) {
+            return MethodInvocation.invoke(target, method, args);
+        }
+        return new ChainInvocation(this, target, method, args, chain, 0).proceed();
+    }
+
+    /**
+     * 只执行 rank 大于指定值的拦截器
+     */
+    Object dispatchInner(int rank, Object target, Method method, Object[] args) throws Throwable {
+        Advice[] chain = this.chains.get(method);
+        int start = chain == null ? 0 : innerIndex(chain, rank);
+        if (chain == null || start == chain.length) {
+            return MethodInvocation.invoke(target, method, args);
+        }
+        return new ChainInvocation(this, target, method, args, chain, start).proceed();
+    }
+
+    /**
+     * 每个 rank 只创建一次代理，并发时可能重复创建，不影响结果
+     */
+    Object getInnerProxy(int rank, Object target) {
+        InnerProxy[] proxies = this.innerProxies;
+        InnerProxy inner = rank < proxies.length ? proxies[rank] : null;
+        if (inner != null && inner.target() == target) {
+            return inner.proxy();
+        }
+        Object proxy = ProxyResolver.getInstance().newProxyInstance(this.targetClass, target,
+                invocation -> dispatchInner(rank, invocation.getTarget(), invocation.getMethod(), invocation.getArguments()));
+        if (rank < proxies.length) {
+            proxies[rank] = new InnerProxy(target, proxy);
+        }
+        return proxy;
+    }
+
+    static int innerIndex(Advice[] chain, int rank) {
+        int index = 0;
+        while (index < chain.length && chain[index].rank() <= rank) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 沿拦截器链调用，最后一个拦截器 proceed() 时调用原始 bean
+     */
+    static class ChainInvocation extends MethodInvocation {
+
+        final InterceptorChain owner;
+        final Advice[] chain;
+        int index;
+
+        ChainInvocation(InterceptorChain owner, Object target, Method method, Object[] args, Advice[] chain, int index) {
+            super(target, method, args);
+            this.owner = owner;
+            this.chain = chain;
+            this.index = index;
+        }
+
+        /**
+         * 当前拦截器在这个方法上的注解
+         */
+        @Override
+        public Annotation getAnnotation() {
+            return this.index > 0 ? this.chain[this.index - 1].annotation() : null;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            if (this.index < this.chain.length) {
+                return this.chain[this.index++].interceptor().invoke(this);
+            }
+            return super.proceed();
+        }
+
+        /**
+         * 当前拦截器是最内层时返回原始 bean，否则返回执行内层拦截器的代理，InvocationHandler 在它上面调用方法不会跳过内层拦截器
+         */
+        Object getInnerTarget() {
+            if (this.index >= this.chain.length) {
+                return this.target;
+            }
+            return this.owner.getInnerProxy(this.chain[this.index - 1].rank(), this.target);
+        }
+    }
+}
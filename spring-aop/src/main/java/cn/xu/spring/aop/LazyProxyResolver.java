@@ -0,0 +1,17 @@
+package cn.xu.spring.aop;
+
+import cn.xu.spring.context.LazyProxyFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * created by Xu on 2026/10/18 21:40.
+ * 通过 ServiceLoader 注册到 context，为类类型的 @Lazy 注入点创建子类代理
+ */
+public class LazyProxyResolver implements LazyProxyFactory {
+
+    @Override
+    public <T> T createLazyProxy(Class<T> type, Supplier<?> target) {
+        return ProxyResolver.getInstance().createLazyProxy(type, target);
+    }
+}
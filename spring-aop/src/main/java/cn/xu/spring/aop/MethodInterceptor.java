@@ -0,0 +1,11 @@
+package cn.xu.spring.aop;
+
+/**
+ * created by Xu on 2026/10/19 0:10.
+ * 拦截代理的 public 方法，通过 invocation.proceed() 调用原始 bean 的方法，不经过 Method.invoke
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
@@ -0,0 +1,90 @@
+package cn.xu.spring.aop;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * created by Xu on 2026/10/19 0:10.
+ * 一次被拦截的方法调用，proceed() 通过缓存的 MethodHandle 调用原始 bean 的方法，原方法抛出的异常直接抛出，不包装为 InvocationTargetException
+ */
+public class MethodInvocation {
+
+    static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    static final Object[] NO_ARGS = new Object[0];
+
+    // 声明方法的类 -> (方法 -> (Object target, Object[] args) -> Object)
+    // 保存在 ClassValue 中，不会阻止被代理的类和它的 ClassLoader 被卸载
+    static final ClassValue<Map<Method, MethodHandle>> INVOKERS = new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    final Object target;
+    final Method method;
+    final Object[] args;
+
+    public MethodInvocation(Object target, Method method, Object[] args) {
+        this.target = target;
+        this.method = method;
+        this.args = args == null ? NO_ARGS : args;
+    }
+
+    public Object getTarget() {
+        return this.target;
+    }
+
+    public Method getMethod() {
+        return this.method;
+    }
+
+    public Object[] getArguments() {
+        return this.args;
+    }
+
+    /**
+     * 触发当前拦截器的注解（方法上的注解优先于类上的注解），在创建代理时解析，没有时返回 null
+     */
+    @Nullable
+    public Annotation getAnnotation() {
+        return null;
+    }
+
+    public Object proceed() throws Throwable {
+        return invoke(this.target, this.method, this.args);
+    }
+
+    /**
+     * 在指定对象上调用方法
+     */
+    public static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        Map<Method, MethodHandle> invokers = INVOKERS.get(method.getDeclaringClass());
+        MethodHandle invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = invokers.computeIfAbsent(method, MethodInvocation::createInvoker);
+        }
+        // 条件表达式作为 invokeExact 的参数时类型会被推断为 Object，先赋值给 Object[] 变量
+        Object[] values = args == null ? NO_ARGS : args;
+        return (Object) invoker.invokeExact(target, values);
+    }
+
+    static MethodHandle createInvoker(Method method) {
+        try {
+            // public 方法所在的类可能不是 public 的
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asFixedArity()
+                    .asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access method " + method, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package cn.xu.spring.aop;
+
+import cn.xu.spring.exception.AopConfigException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * created by Xu on 2026/10/19 1:10.
+ * 简单的切点表达式，只在创建代理时对每个方法匹配一次：
+ * 方法名可以使用 * 通配符，@annotation(Name) 匹配方法上的注解（简单类名或全限定类名，包括父类中被覆写的方法上的注解），
+ * 可以用 ! 取反，用 && 和 || 组合（&& 优先），不支持括号，例如 "find* || @annotation(Audited) && !findAll"
+ * 空表达式匹配所有方法
+ */
+public final class Pointcut {
+
+    static final Pointcut ANY = new Pointcut("", method -> true);
+
+    final String expression;
+    final Predicate<Method> matcher;
+
+    private Pointcut(String expression, Predicate<Method> matcher) {
+        this.expression = expression;
+        this.matcher = matcher;
+    }
+
+    public static Pointcut parse(String expression) {
+        String expr = expression.strip();
+        if (expr.isEmpty()) {
+            return ANY;
+        }
+        Predicate<Method> any = null;
+        for (String or : expr.split("\\|\\|")) {
+            Predicate<Method> all = null;
+            for (String and : or.split("&&")) {
+                Predicate<Method> factor = parseFactor(expression, and.strip());
+                all = all == null ? factor : all.and(factor);
+            }
+            any = any == null ? all : any.or(all);
+        }
+        return new Pointcut(expr, any);
+    }
+
+    static Predicate<Method> parseFactor(String expression, String factor) {
+        if (factor.startsWith("!")) {
+            return parseFactor(expression, factor.substring(1).strip()).negate();
+        }
+        if (factor.startsWith("@annotation(") && factor.endsWith(")")) {
+            String name = factor.substring("@annotation(".length(), factor.length() - 1).strip();
+            if (name.isEmpty()) {
+                throw new AopConfigException("Invalid pointcut expression: " + expression);
+            }
+            return method -> hasAnnotation(method, name);
+        }
+        if (factor.isEmpty() || !factor.matches("[\\w$*]+")) {
+            throw new AopConfigException("Invalid pointcut expression: " + expression);
+        }
+        // 方法名通配符转换为正则表达式
+        List<String> parts = new ArrayList<>();
+        for (String part : factor.split("\\*", -1)) {
+            parts.add(Pattern.quote(part));
+        }
+        Pattern pattern = Pattern.compile(String.join(".*", parts));
+        return method -> pattern.matcher(method.getName()).matches();
+    }
+
+    static boolean hasAnnotation(Method method, String name) {
+        return findInOverridden(method, m -> {
+            for (Annotation annotation : m.getAnnotations()) {
+                Class<? extends Annotation> type = annotation.annotationType();
+                if (type.getSimpleName().equals(name) || type.getName().equals(name)) {
+                    return annotation;
+                }
+            }
+            return null;
+        }) != null;
+    }
+
+    /**
+     * 依次在方法和父类中被覆写的方法上查找，返回第一个非 null 的结果，与 AnnotationProxyBeanPostProcessor 查找方法上的注解相同
+     */
+    static <T> T findInOverridden(Method method, Function<Method, T> finder) {
+        for (Class<?> c = method.getDeclaringClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                T found = finder.apply(c.getDeclaredMethod(method.getName(), method.getParameterTypes()));
+                if (found != null) {
+                    return found;
+                }
+            } catch (NoSuchMethodException e) {
+                // 父类中没有这个方法，继续向上查找
+            }
+        }
+        return null;
+    }
+
+    public boolean matches(Method method) {
+        return this.matcher.test(method);
+    }
+
+    @Override
+    public String toString() {
+        return "Pointcut[" + this.expression + "]";
+    }
+}
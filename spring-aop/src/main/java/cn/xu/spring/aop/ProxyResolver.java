@@ -3,64 +3,244 @@ package cn.xu.spring.aop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import jakarta.annotation.Nullable;
 
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
-import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
+import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import net.bytebuddy.matcher.ElementMatchers;
 
 
 /**
  * created by Xu on 2024/5/23 10:58.
- *
+ * 代理类是目标类的子类，每个目标类只生成一次，缓存在 ClassValue 中
+ * 原始 bean 和拦截器保存在代理实例的字段中，public 方法通过 MethodDelegation 直接调用静态的 Dispatcher.intercept，
+ * 再由 MethodInvocation 通过 MethodHandle 调用原始 bean
+ * 代理实例的创建不调用目标类的构造方法（与 Objenesis 相同，使用序列化构造方法），目标类不需要无参构造方法，
+ * 构造方法的副作用（例如 @Lazy 想要推迟的初始化）也不会因为创建代理而发生
  */
 public class ProxyResolver {
     final Logger logger = LoggerFactory.getLogger(getClass());
 
     final ByteBuddy byteBuddy = new ByteBuddy();
 
-    private static ProxyResolver INSTANCE = null;
+    // 多个线程并行创建 bean 时共用同一个实例和代理类缓存
+    private static final ProxyResolver INSTANCE = new ProxyResolver();
 
     public static ProxyResolver getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new ProxyResolver();
-        }
         return INSTANCE;
     }
 
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // sun.reflect.ReflectionFactory.newConstructorForSerialization(Class, Constructor)，只在启动时反射查找一次，编译时不依赖 sun.*
+    static final MethodHandle SERIALIZATION_CONSTRUCTOR = findSerializationConstructorFactory();
+
+    static final String TARGET_FIELD = "proxyTarget";
+    static final String INTERCEPTOR_FIELD = "proxyInterceptor";
+
+    // 目标类 -> 代理类
+    final ClassValue<ProxyClass> proxyClasses = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> targetClass) {
+            return generateProxyClass(targetClass);
+        }
+    };
+
     private ProxyResolver() {}
 
-    @SuppressWarnings("unchecked")
+    // 代理类 -> 代理类信息，不是代理类时为 null，用于识别一个对象是否为代理
+    // 与 proxyClasses 一样保存在 ClassValue 中，不会阻止代理类和它的 ClassLoader 被卸载
+    final ClassValue<ProxyClass> generatedClasses = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> type) {
+            if (!GeneratedProxy.class.isAssignableFrom(type)) {
+                return null;
+            }
+            // 代理类是目标类的直接子类，目标类的代理类已经生成
+            ProxyClass proxyClass = proxyClasses.get(type.getSuperclass());
+            return proxyClass.type() == type ? proxyClass : null;
+        }
+    };
+
+    /**
+     * 所有生成的代理类都实现这个标记接口
+     */
+    public interface GeneratedProxy {
+    }
+
+    /**
+     * 生成的代理类，allocator 只调用 Object 的构造方法，两个字段的 setter 为 (Object proxy, Object value) -> void，getter 为 (Object proxy) -> Object
+     */
+    record ProxyClass(Class<?> type, Constructor<?> allocator, MethodHandle targetSetter, MethodHandle interceptorSetter,
+                      MethodHandle interceptorGetter) {
+
+        Object newInstance(Object target, MethodInterceptor interceptor) throws Throwable {
+            Object proxy = this.allocator.newInstance();
+            // 延迟代理没有原始 bean，equals 等方法以代理自身为目标
+            this.targetSetter.invokeExact(proxy, target == null ? proxy : target);
+            this.interceptorSetter.invokeExact(proxy, (Object) interceptor);
+            return proxy;
+        }
+    }
+
+    /**
+     * 所有代理类共用的分发方法，参数由 ByteBuddy 从代理实例的字段和被调用的方法绑定
+     */
+    public static class Dispatcher {
+
+        @RuntimeType
+        public static Object intercept(@FieldValue(TARGET_FIELD) Object target, @FieldValue(INTERCEPTOR_FIELD) MethodInterceptor interceptor,
+                                       @Origin Method method, @AllArguments Object[] args) throws Throwable {
+            if (interceptor instanceof InterceptorChain chain) {
+                return chain.dispatch(target, method, args);
+            }
+            return interceptor.invoke(new MethodInvocation(target, method, args));
+        }
+    }
+
+    /**
+     * 兼容 InvocationHandler：handler 收到的第一个参数是原始 bean
+     */
     public <T> T createProxy(T bean, InvocationHandler handler) {
+        // 处理器同时实现了 MethodInterceptor 时直接使用，调用原始 bean 不经过 Method.invoke
+        if (handler instanceof MethodInterceptor interceptor) {
+            return createProxy(bean, interceptor);
+        }
+        return createProxy(bean, (MethodInterceptor) invocation -> handler.invoke(invocation.getTarget(), invocation.getMethod(), invocation.getArguments()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(T bean, MethodInterceptor interceptor) {
         Class<?> targetClass = bean.getClass();
         logger.atDebug().log("create proxy for bean {} @{}", targetClass.getName(), Integer.toHexString(bean.hashCode()));
-        // 动态创建代理类
+        return (T) newProxyInstance(targetClass, bean, interceptor);
+    }
+
+    /**
+     * 创建延迟代理：每次调用 public 方法时才通过 target 取得真正的对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T createLazyProxy(Class<T> targetClass, Supplier<?> target) {
+        logger.atDebug().log("create lazy proxy for class {}", targetClass.getName());
+        return (T) newProxyInstance(targetClass, null, invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            // 打印日志等调用 toString、equals、hashCode 时不获取真正的对象
+            switch (method.getName() + "/" + method.getParameterCount()) {
+                case "equals/1":
+                    return invocation.getTarget() == args[0];
+                case "hashCode/0":
+                    return System.identityHashCode(invocation.getTarget());
+                case "toString/0":
+                    return "LazyProxy[" + targetClass.getName() + "]";
+                default:
+            }
+            return MethodInvocation.invoke(target.get(), method, args);
+        });
+    }
+
+    /**
+     * 返回代理的拦截器，对象不是由 ProxyResolver 创建的代理时返回 null
+     */
+    @Nullable
+    public MethodInterceptor getInterceptor(Object proxy) {
+        ProxyClass proxyClass = this.generatedClasses.get(proxy.getClass());
+        if (proxyClass == null) {
+            return null;
+        }
+        try {
+            return (MethodInterceptor) (Object) proxyClass.interceptorGetter().invokeExact(proxy);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    Object newProxyInstance(Class<?> targetClass, Object target, MethodInterceptor interceptor) {
+        try {
+            return this.proxyClasses.get(targetClass).newInstance(target, interceptor);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 目标类本身是代理类时（多层代理），新字段与父类的同名字段互不影响，@FieldValue 优先绑定子类自己的字段
+     */
+    ProxyClass generateProxyClass(Class<?> targetClass) {
+        logger.atDebug().log("generate proxy class for {}", targetClass.getName());
         Class<?> proxyClass = this.byteBuddy
-                // 这个代理类是 targetClass 的子类，子类使用默认的构造方法
-                .subclass(targetClass, ConstructorStrategy.Default.DEFAULT_CONSTRUCTOR)
+                // 这个代理类是 targetClass 的子类，不定义构造方法，实例由 allocator 创建
+                .subclass(targetClass, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+                .implement(GeneratedProxy.class)
+                .defineField(TARGET_FIELD, Object.class, Visibility.PRIVATE)
+                .defineField(INTERCEPTOR_FIELD, MethodInterceptor.class, Visibility.PRIVATE)
                 // 处理 target 所有 public 的方法的调用
                 .method(ElementMatchers.isPublic())
-                // 拦截器，将所有对子类的 public 方法调用转发到原本的 bean 中执行
-                .intercept(InvocationHandlerAdapter.of(
-                        new InvocationHandler() {
-                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                                // 将方法的调用转发到原本的bean上
-                                return handler.invoke(bean, method, args);
-                            }
-                        }
-                )).make()
+                .intercept(MethodDelegation.to(Dispatcher.class))
+                .make()
                 .load(targetClass.getClassLoader())
                 .getLoaded();
-        Object proxy;
         try {
-            proxy = proxyClass.getConstructor().newInstance();
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Field targetField = proxyClass.getDeclaredField(TARGET_FIELD);
+            Field interceptorField = proxyClass.getDeclaredField(INTERCEPTOR_FIELD);
+            Constructor<?> allocator = newAllocator(proxyClass);
+            targetField.setAccessible(true);
+            interceptorField.setAccessible(true);
+            ProxyClass generated = new ProxyClass(proxyClass,
+                    allocator,
+                    lookup.unreflectSetter(targetField).asType(SETTER_TYPE),
+                    lookup.unreflectSetter(interceptorField).asType(SETTER_TYPE),
+                    lookup.unreflectGetter(interceptorField).asType(GETTER_TYPE));
+            return generated;
+        } catch (ReflectiveOperationException e) {
             throw new RuntimeException(e);
         }
-        return (T) proxy;
+    }
+
+    static MethodHandle findSerializationConstructorFactory() {
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            Object factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            return MethodHandles.publicLookup()
+                    .findVirtual(factoryClass, "newConstructorForSerialization", MethodType.methodType(Constructor.class, Class.class, Constructor.class))
+                    .bindTo(factory);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 只调用 Object 构造方法的 proxyClass 构造方法
+     */
+    static Constructor<?> newAllocator(Class<?> proxyClass) throws ReflectiveOperationException {
+        Constructor<?> objectConstructor = Object.class.getDeclaredConstructor();
+        try {
+            return (Constructor<?>) SERIALIZATION_CONSTRUCTOR.invoke(proxyClass, objectConstructor);
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,47 @@
+package cn.xu.spring.async;
+
+import cn.xu.spring.annotation.Async;
+import cn.xu.spring.annotation.EventListener;
+import cn.xu.spring.aop.AnnotationProxyBeanPostProcessor;
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.exception.AopConfigException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * created by Xu on 2026/10/19 2:10.
+ * 为 @Async 创建代理，@Async 的 value() 是 Executor bean 的名称
+ * @EventListener 方法由事件分发异步执行，不拦截
+ */
+public class AsyncBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Async> {
+
+    // 执行器名称 -> 拦截器，同一个执行器的指标只注册一次
+    final Map<String, AsyncExecutionInterceptor> interceptors = new ConcurrentHashMap<>();
+
+    @Override
+    protected boolean accept(Method method) {
+        if (method.isAnnotationPresent(EventListener.class)) {
+            return false;
+        }
+        Class<?> type = method.getReturnType();
+        if (type != void.class && type != CompletableFuture.class && type != CompletionStage.class && type != Future.class) {
+            throw new AopConfigException(String.format("@Async method %s.%s must return void or CompletableFuture.",
+                    method.getDeclaringClass().getName(), method.getName()));
+        }
+        return true;
+    }
+
+    @Override
+    protected MethodInterceptor createInterceptor(String handlerName, Object handlerBean) {
+        if (handlerBean instanceof Executor executor) {
+            return this.interceptors.computeIfAbsent(handlerName, name -> new AsyncExecutionInterceptor(name, executor));
+        }
+        throw new AopConfigException(String.format("@Async executor '%s' is not type of %s.", handlerName, Executor.class.getName()));
+    }
+}
@@ -0,0 +1,28 @@
+package cn.xu.spring.async;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Value;
+
+/**
+ * created by Xu on 2026/10/19 2:10.
+ * 异步方法配置，通过 @Import(AsyncConfiguration.class) 启用 @Async，默认执行器的名称为 asyncExecutor
+ */
+@Configuration
+public class AsyncConfiguration {
+
+    @Bean(destroyMethod = "close")
+    AsyncTaskExecutor asyncExecutor(
+            @Value("${xu-spring.async.threads:0}") int threads,
+            @Value("${xu-spring.async.queue-capacity:1024}") int queueCapacity,
+            @Value("${xu-spring.async.virtual-threads:false}") boolean virtualThreads
+    ) {
+        return virtualThreads ? AsyncTaskExecutor.virtual("asyncExecutor", threads, queueCapacity)
+                : AsyncTaskExecutor.platform("asyncExecutor", threads, queueCapacity);
+    }
+
+    @Bean
+    AsyncBeanPostProcessor asyncBeanPostProcessor() {
+        return new AsyncBeanPostProcessor();
+    }
+}
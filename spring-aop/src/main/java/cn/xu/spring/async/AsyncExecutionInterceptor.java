@@ -0,0 +1,102 @@
+package cn.xu.spring.async;
+
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
+import cn.xu.spring.metrics.Counter;
+import cn.xu.spring.metrics.Histogram;
+import cn.xu.spring.metrics.MetricId;
+import cn.xu.spring.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * created by Xu on 2026/10/19 2:10.
+ * 把方法调用提交到执行器后立即返回：void 方法返回 null，其他方法返回 CompletableFuture，方法返回的 Future 完成时它才完成
+ * 每个执行器一个拦截器，记录 async.queue.depth（已提交未开始的调用数）、async.execution.time（纳秒）、async.failures 和 async.rejected
+ */
+public class AsyncExecutionInterceptor implements MethodInterceptor {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final String executorName;
+    final Executor executor;
+
+    final LongAdder pending = new LongAdder();
+    final Histogram executionTime;
+    final Counter failures;
+    final Counter rejected;
+
+    public AsyncExecutionInterceptor(String executorName, Executor executor) {
+        this.executorName = executorName;
+        this.executor = executor;
+        MetricRegistry registry = MetricRegistry.getInstance();
+        // 同名执行器的旧指标（例如上一个 context 留下的）替换为当前执行器
+        registry.remove(MetricId.of("async.queue.depth", "executor", executorName));
+        registry.gauge("async.queue.depth", this.pending::sum, "executor", executorName);
+        this.executionTime = registry.histogram("async.execution.time", "executor", executorName);
+        this.failures = registry.counter("async.failures", "executor", executorName);
+        this.rejected = registry.counter("async.rejected", "executor", executorName);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        this.pending.increment();
+        try {
+            this.executor.execute(() -> execute(invocation, result));
+        } catch (RejectedExecutionException e) {
+            this.pending.decrement();
+            this.rejected.increment();
+            throw e;
+        }
+        return invocation.getMethod().getReturnType() == void.class ? null : result;
+    }
+
+    void execute(MethodInvocation invocation, CompletableFuture<Object> result) {
+        this.pending.decrement();
+        long start = System.nanoTime();
+        Object ret;
+        try {
+            ret = invocation.proceed();
+        } catch (Throwable e) {
+            // 先记录指标再完成 Future，调用方拿到结果时指标已经更新
+            this.executionTime.record(System.nanoTime() - start);
+            fail(invocation, result, e);
+            return;
+        }
+        this.executionTime.record(System.nanoTime() - start);
+        if (ret instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, e) -> {
+                if (e != null) {
+                    fail(invocation, result, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } else if (ret instanceof Future<?> future) {
+            try {
+                result.complete(future.get());
+            } catch (ExecutionException e) {
+                fail(invocation, result, e.getCause() != null ? e.getCause() : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(invocation, result, e);
+            }
+        } else {
+            result.complete(ret);
+        }
+    }
+
+    void fail(MethodInvocation invocation, CompletableFuture<Object> result, Throwable cause) {
+        this.failures.increment();
+        if (invocation.getMethod().getReturnType() == void.class) {
+            // 没有调用方等待结果，只能记录日志
+            logger.warn("async method " + invocation.getMethod().getDeclaringClass().getName() + "." + invocation.getMethod().getName()
+                    + " failed on executor '" + this.executorName + "'.", cause);
+        }
+        result.completeExceptionally(cause);
+    }
+}
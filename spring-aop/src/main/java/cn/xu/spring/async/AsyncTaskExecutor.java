@@ -0,0 +1,78 @@
+package cn.xu.spring.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * created by Xu on 2026/10/19 2:10.
+ * 可以作为 @Async 执行器 bean 的线程池：有界队列的平台线程池，或者每个任务一个虚拟线程
+ * 队列满时拒绝任务，RejectedExecutionException 抛给调用方，不会让请求线程执行后台任务
+ */
+public class AsyncTaskExecutor implements Executor, AutoCloseable {
+
+    static final Logger logger = LoggerFactory.getLogger(AsyncTaskExecutor.class);
+
+    final String name;
+    final ExecutorService executor;
+
+    AsyncTaskExecutor(String name, ExecutorService executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * 固定数量的平台线程，threads 为 0 时使用 CPU 核数
+     */
+    public static AsyncTaskExecutor platform(String name, int threads, int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "async-" + name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new AsyncTaskExecutor(name, executor);
+    }
+
+    /**
+     * 每个任务一个虚拟线程，编译目标为 Java 17，通过反射调用 Java 21+ 的 Executors.newVirtualThreadPerTaskExecutor()，
+     * 不支持时退回平台线程池
+     */
+    public static AsyncTaskExecutor virtual(String name, int fallbackThreads, int fallbackQueueCapacity) {
+        try {
+            return new AsyncTaskExecutor(name, (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            logger.warn("virtual threads require Java 21+, current is Java {}. Fallback to platform threads.", Runtime.version().feature());
+            return platform(name, fallbackThreads, fallbackQueueCapacity);
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        this.executor.execute(command);
+    }
+
+    /**
+     * 不再接受新任务，等待已提交的任务执行完成
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("async executor '{}' did not finish in 10 seconds.", this.name);
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
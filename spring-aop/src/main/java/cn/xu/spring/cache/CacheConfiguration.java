@@ -0,0 +1,31 @@
+package cn.xu.spring.cache;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Value;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 缓存配置，通过 @Import(CacheConfiguration.class) 启用 @Cacheable 和 @CacheEvict
+ */
+@Configuration
+public class CacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    CacheManager cacheManager(
+            @Value("${xu-spring.cache.maximum-size:10000}") long maximumSize,
+            @Value("${xu-spring.cache.expire-after-write:0}") long expireAfterWriteMillis
+    ) {
+        return new CacheManager(maximumSize, expireAfterWriteMillis);
+    }
+
+    @Bean
+    CacheableBeanPostProcessor cacheableBeanPostProcessor() {
+        return new CacheableBeanPostProcessor();
+    }
+
+    @Bean
+    CacheEvictBeanPostProcessor cacheEvictBeanPostProcessor() {
+        return new CacheEvictBeanPostProcessor();
+    }
+}
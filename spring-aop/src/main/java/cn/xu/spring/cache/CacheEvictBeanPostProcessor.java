@@ -0,0 +1,11 @@
+package cn.xu.spring.cache;
+
+import cn.xu.spring.annotation.CacheEvict;
+import cn.xu.spring.aop.AnnotationProxyBeanPostProcessor;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 为 @CacheEvict 创建代理
+ */
+public class CacheEvictBeanPostProcessor extends AnnotationProxyBeanPostProcessor<CacheEvict> {
+}
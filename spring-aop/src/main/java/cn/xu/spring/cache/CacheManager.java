@@ -0,0 +1,222 @@
+package cn.xu.spring.cache;
+
+import cn.xu.spring.annotation.CacheEvict;
+import cn.xu.spring.annotation.Cacheable;
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
+import cn.xu.spring.exception.AopConfigException;
+import cn.xu.spring.metrics.Counter;
+import cn.xu.spring.metrics.MetricId;
+import cn.xu.spring.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * @Cacheable 和 @CacheEvict 的处理器，按名称管理 TinyLfuCache
+ * 注解在创建代理时已经解析，每个方法的 key 表达式只解析一次
+ * 每个缓存的命中、未命中、加载、淘汰次数注册为 cache.* 计数器，大小注册为 cache.size，关闭时移除
+ */
+public class CacheManager implements MethodInterceptor, AutoCloseable {
+
+    // 参数为 null 或没有参数时的 key
+    static final Object NULL_KEY = new Object();
+
+    // 全部参数
+    static final int[] ALL_ARGS = new int[0];
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final long defaultMaximumSize;
+    final long defaultExpireAfterWriteMillis;
+
+    final Map<String, TinyLfuCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    // 方法 -> key 使用的参数位置，同一个方法可能同时有 @Cacheable 和 @CacheEvict
+    final Map<Method, int[]> cacheableKeys = new ConcurrentHashMap<>();
+    final Map<Method, int[]> evictKeys = new ConcurrentHashMap<>();
+
+    final List<MetricId> metricIds = new ArrayList<>();
+
+    public CacheManager(long defaultMaximumSize, long defaultExpireAfterWriteMillis) {
+        this.defaultMaximumSize = defaultMaximumSize;
+        this.defaultExpireAfterWriteMillis = defaultExpireAfterWriteMillis;
+    }
+
+    /**
+     * 创建指定容量和过期时间的缓存，已存在时返回原来的缓存
+     */
+    public TinyLfuCache<Object, Object> createCache(String name, long maximumSize, long expireAfterWriteMillis) {
+        TinyLfuCache<Object, Object> cache = this.caches.get(name);
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.caches.get(name);
+                if (cache == null) {
+                    logger.atDebug().log("create cache '{}': maximumSize = {}, expireAfterWrite = {} ms", name, maximumSize, expireAfterWriteMillis);
+                    cache = new TinyLfuCache<>(name, maximumSize, expireAfterWriteMillis, createStatsCounter(name));
+                    registerSize(cache);
+                    this.caches.put(name, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 返回指定名称的缓存，不存在时按默认的容量和过期时间创建
+     */
+    public TinyLfuCache<Object, Object> getCache(String name) {
+        TinyLfuCache<Object, Object> cache = this.caches.get(name);
+        return cache != null ? cache : createCache(name, this.defaultMaximumSize, this.defaultExpireAfterWriteMillis);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Annotation annotation = invocation.getAnnotation();
+        if (annotation instanceof Cacheable cacheable) {
+            Object key = createKey(invocation, cacheable.key(), this.cacheableKeys);
+            return getCache(cacheable.name()).get(key, k -> invocation.proceed());
+        }
+        if (annotation instanceof CacheEvict cacheEvict) {
+            Object ret = invocation.proceed();
+            TinyLfuCache<Object, Object> cache = getCache(cacheEvict.name());
+            if (cacheEvict.allEntries()) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(createKey(invocation, cacheEvict.key(), this.evictKeys));
+            }
+            return ret;
+        }
+        return invocation.proceed();
+    }
+
+    Object createKey(MethodInvocation invocation, String expression, Map<Method, int[]> keyIndexes) {
+        Method method = invocation.getMethod();
+        int[] indexes = keyIndexes.get(method);
+        if (indexes == null) {
+            indexes = keyIndexes.computeIfAbsent(method, m -> parseKey(m, expression));
+        }
+        Object[] args = invocation.getArguments();
+        if (indexes == ALL_ARGS) {
+            if (args.length == 0) {
+                return NULL_KEY;
+            }
+            return args.length == 1 ? nullToKey(args[0]) : Arrays.asList(args.clone());
+        }
+        if (indexes.length == 1) {
+            return nullToKey(args[indexes[0]]);
+        }
+        Object[] values = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = args[indexes[i]];
+        }
+        return Arrays.asList(values);
+    }
+
+    static Object nullToKey(Object arg) {
+        return arg == null ? NULL_KEY : arg;
+    }
+
+    /**
+     * 解析 "#0,#2" 形式的 key 表达式
+     */
+    static int[] parseKey(Method method, String expression) {
+        String expr = expression.strip();
+        if (expr.isEmpty()) {
+            return ALL_ARGS;
+        }
+        String[] parts = expr.split(",");
+        int[] indexes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].strip();
+            int index;
+            try {
+                index = part.startsWith("#") ? Integer.parseInt(part.substring(1)) : -1;
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+            if (index < 0 || index >= method.getParameterCount()) {
+                throw new AopConfigException(String.format("Invalid cache key '%s' on method %s.%s", expression,
+                        method.getDeclaringClass().getName(), method.getName()));
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * 累计次数注册为 Counter，Prometheus 可以对它们使用 rate()
+     */
+    TinyLfuCache.StatsCounter createStatsCounter(String name) {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        return new MetricStatsCounter(
+                registerCounter(registry, "cache.gets", "cache", name, "result", "hit"),
+                registerCounter(registry, "cache.gets", "cache", name, "result", "miss"),
+                registerCounter(registry, "cache.loads", "cache", name),
+                registerCounter(registry, "cache.evictions", "cache", name));
+    }
+
+    Counter registerCounter(MetricRegistry registry, String metricName, String... tags) {
+        MetricId id = MetricId.of(metricName, tags);
+        // 同名缓存的旧指标（例如上一个 context 留下的）替换为当前缓存，次数从 0 开始
+        registry.remove(id);
+        this.metricIds.add(id);
+        return registry.counter(metricName, tags);
+    }
+
+    void registerSize(TinyLfuCache<Object, Object> cache) {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        MetricId size = MetricId.of("cache.size", "cache", cache.getName());
+        registry.remove(size);
+        registry.gauge(size.name(), cache::size, "cache", cache.getName());
+        this.metricIds.add(size);
+    }
+
+    /**
+     * 把缓存的统计直接记到指标的 Counter 上
+     */
+    record MetricStatsCounter(Counter hits, Counter misses, Counter loads, Counter evictions) implements TinyLfuCache.StatsCounter {
+
+        @Override
+        public void recordHit() {
+            this.hits.increment();
+        }
+
+        @Override
+        public void recordMiss() {
+            this.misses.increment();
+        }
+
+        @Override
+        public void recordLoad() {
+            this.loads.increment();
+        }
+
+        @Override
+        public void recordEviction() {
+            this.evictions.increment();
+        }
+
+        @Override
+        public TinyLfuCache.CacheStats snapshot() {
+            return new TinyLfuCache.CacheStats(this.hits.getCount(), this.misses.getCount(), this.loads.getCount(), this.evictions.getCount());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        this.metricIds.forEach(registry::remove);
+        this.metricIds.clear();
+        this.caches.values().forEach(TinyLfuCache::invalidateAll);
+        this.caches.clear();
+    }
+}
@@ -0,0 +1,11 @@
+package cn.xu.spring.cache;
+
+import cn.xu.spring.annotation.Cacheable;
+import cn.xu.spring.aop.AnnotationProxyBeanPostProcessor;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 为 @Cacheable 创建代理
+ */
+public class CacheableBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Cacheable> {
+}
@@ -0,0 +1,86 @@
+package cn.xu.spring.cache;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * TinyLFU 的访问频率估计：Count-Min Sketch，每个计数器 4 bit（最大 15），一个 long 保存 16 个计数器
+ * 每个 key 在同一个 long 的 4 个计数器中计数，取最小值作为频率
+ * 计数次数达到 10 倍容量时所有计数器减半，使频率随时间衰减
+ * 不是线程安全的，由 TinyLfuCache 在淘汰锁内调用
+ */
+final class FrequencySketch {
+
+    static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    static final long RESET_MASK = 0x7777777777777777L;
+    static final long ONE_MASK = 0x1111111111111111L;
+
+    final long[] table;
+    final int tableMask;
+    final int sampleSize;
+    int size;
+
+    FrequencySketch(long maximumSize) {
+        // 容量很大时计数器表不超过 32MB
+        int capacity = (int) Math.min(Math.max(maximumSize, 8), 1 << 22);
+        this.table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        this.tableMask = this.table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++this.size == this.sampleSize) {
+            reset();
+        }
+    }
+
+    boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((this.table[index] & mask) != mask) {
+            this.table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 所有计数器减半，奇数计数器被截断的部分从 size 中扣除
+     */
+    void reset() {
+        int odd = 0;
+        for (int i = 0; i < this.table.length; i++) {
+            odd += Long.bitCount(this.table[i] & ONE_MASK);
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.size = (this.size >>> 1) - (odd >>> 2);
+    }
+
+    int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & this.tableMask;
+    }
+
+    static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
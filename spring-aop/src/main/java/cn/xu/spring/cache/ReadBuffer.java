@@ -0,0 +1,57 @@
+package cn.xu.spring.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * created by Xu on 2026/10/19 2:50.
+ * TinyLfuCache 记录访问的有界环形缓冲区，写入不加锁：
+ * 写入方用 CAS 抢占写位置，缓冲区满或抢占失败时直接丢弃，只影响淘汰顺序的精确度
+ * 读取方只有一个，由 TinyLfuCache 在淘汰锁内调用 drainTo()
+ */
+final class ReadBuffer<E> {
+
+    static final int SIZE = 128;
+    static final int MASK = SIZE - 1;
+
+    final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(SIZE);
+    final AtomicLong writeCounter = new AtomicLong();
+    // 只在淘汰锁内修改
+    volatile long readCounter;
+
+    /**
+     * 记录一个元素，缓冲区满或其他线程同时写入时返回 false
+     */
+    boolean offer(E e) {
+        long head = this.readCounter;
+        long tail = this.writeCounter.get();
+        if (tail - head >= SIZE) {
+            return false;
+        }
+        if (!this.writeCounter.compareAndSet(tail, tail + 1)) {
+            return false;
+        }
+        this.buffer.lazySet((int) (tail & MASK), e);
+        return true;
+    }
+
+    /**
+     * 依次取出已写入的元素，抢占了位置但还没写入的元素留到下一次
+     */
+    void drainTo(Consumer<E> consumer) {
+        long head = this.readCounter;
+        long tail = this.writeCounter.get();
+        while (head < tail) {
+            int index = (int) (head & MASK);
+            E e = this.buffer.get(index);
+            if (e == null) {
+                break;
+            }
+            this.buffer.lazySet(index, null);
+            consumer.accept(e);
+            head++;
+        }
+        this.readCounter = head;
+    }
+}
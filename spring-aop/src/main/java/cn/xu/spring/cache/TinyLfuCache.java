@@ -0,0 +1,428 @@
+package cn.xu.spring.cache;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * created by Xu on 2026/10/19 1:40.
+ * 有容量上限和过期时间的本地缓存，淘汰策略为 W-TinyLFU：
+ * 新数据先进入容量为 1% 的 LRU 窗口，离开窗口后进入主区域的试用段，在试用段被再次访问后进入保护段（主区域的 80%）
+ * 超出容量时比较刚离开窗口的候选者和试用段最久未访问的数据的访问频率（FrequencySketch），淘汰频率低的一个
+ * 读取不加锁：命中时只用 CAS 把访问记录放入有界环形缓冲区（ReadBuffer），缓冲区满或写入冲突时丢弃，由持有淘汰锁的线程批量调整顺序
+ * 写入、删除和淘汰在淘汰锁内执行，同一个 key 同时只有一个调用执行加载
+ */
+public class TinyLfuCache<K, V> {
+
+    /**
+     * 加载缓存值，异常抛给所有等待这个 key 的调用
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws Throwable;
+    }
+
+    public record CacheStats(long hitCount, long missCount, long loadCount, long evictionCount) {
+    }
+
+    /**
+     * 记录命中、未命中、加载和淘汰次数，CacheManager 用它把次数直接记到指标的 Counter 上
+     */
+    public interface StatsCounter {
+
+        void recordHit();
+
+        void recordMiss();
+
+        void recordLoad();
+
+        void recordEviction();
+
+        CacheStats snapshot();
+    }
+
+    /**
+     * 正在加载的 key，thread 为执行 loader 的线程
+     */
+    record Loading<V>(Thread thread, CompletableFuture<V> future) {
+    }
+
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+    static final int REMOVED = 3;
+
+    final String name;
+    final long maximumSize;
+    // 0 表示不过期
+    final long expireAfterWriteNanos;
+
+    final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    // 正在加载的 key
+    final ConcurrentHashMap<K, Loading<V>> loading = new ConcurrentHashMap<>();
+
+    final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+    final ReentrantLock evictionLock = new ReentrantLock();
+
+    // 以下字段由 evictionLock 保护
+    final FrequencySketch sketch;
+    final AccessQueue<K, V> window = new AccessQueue<>();
+    final AccessQueue<K, V> probation = new AccessQueue<>();
+    final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+    final long windowMaximum;
+    final long protectedMaximum;
+
+    final StatsCounter statsCounter;
+
+    public TinyLfuCache(String name, long maximumSize, long expireAfterWriteMillis) {
+        this(name, maximumSize, expireAfterWriteMillis, new ConcurrentStatsCounter());
+    }
+
+    public TinyLfuCache(String name, long maximumSize, long expireAfterWriteMillis, StatsCounter statsCounter) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache maximum size must be positive: " + name);
+        }
+        this.name = name;
+        this.statsCounter = statsCounter;
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(expireAfterWriteMillis, 0));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - this.windowMaximum) * 80 / 100;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * 返回缓存的值，不存在或已过期时返回 null
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = lookup(key);
+        if (node == null) {
+            this.statsCounter.recordMiss();
+            return null;
+        }
+        this.statsCounter.recordHit();
+        return node.value;
+    }
+
+    /**
+     * 返回缓存的值，不存在时由 loader 加载并放入缓存，值可以为 null
+     * 同一个 key 同时只有一个调用执行 loader，其他调用等待并得到相同的结果或异常
+     * loader 在同一个线程中加载同一个 key 时会永远等待自己，抛出 IllegalStateException
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) throws Throwable {
+        Node<K, V> node = lookup(key);
+        if (node != null) {
+            this.statsCounter.recordHit();
+            return node.value;
+        }
+        this.statsCounter.recordMiss();
+        Loading<V> loading = new Loading<>(Thread.currentThread(), new CompletableFuture<>());
+        Loading<V> existing = this.loading.putIfAbsent(key, loading);
+        if (existing != null) {
+            if (existing.thread() == Thread.currentThread()) {
+                throw new IllegalStateException(String.format("Recursive load of key '%s' in cache '%s'.", key, this.name));
+            }
+            return await(existing.future());
+        }
+        CompletableFuture<V> future = loading.future();
+        try {
+            // 上一个加载者可能在 lookup 之后刚刚完成
+            node = lookup(key);
+            V value;
+            if (node != null) {
+                value = node.value;
+            } else {
+                this.statsCounter.recordLoad();
+                value = loader.load(key);
+                put(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            // 先放入缓存再移除，之后的调用直接命中
+            this.loading.remove(key, loading);
+        }
+    }
+
+    V await(CompletableFuture<V> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    Node<K, V> lookup(K key) {
+        Node<K, V> node = this.data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (isExpired(node, System.nanoTime())) {
+            remove(key, node);
+            return null;
+        }
+        afterRead(node);
+        return node;
+    }
+
+    boolean isExpired(Node<K, V> node, long now) {
+        return this.expireAfterWriteNanos > 0 && now - node.writeTime >= this.expireAfterWriteNanos;
+    }
+
+    /**
+     * 记录访问，缓冲区满或写入冲突时丢弃，只影响淘汰顺序的精确度
+     * 缓冲区满或写入冲突时才尝试整理，避免每次命中都竞争淘汰锁，写入时也会整理
+     */
+    void afterRead(Node<K, V> node) {
+        if (!this.readBuffer.offer(node) && this.evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                this.evictionLock.unlock();
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        this.evictionLock.lock();
+        try {
+            drainReadBuffer();
+            long now = System.nanoTime();
+            Node<K, V> node = this.data.get(key);
+            if (node != null) {
+                node.value = value;
+                node.writeTime = now;
+                onAccess(node);
+                return;
+            }
+            node = new Node<>(key, value, now);
+            this.data.put(key, node);
+            this.sketch.increment(key);
+            node.queue = WINDOW;
+            this.window.addLast(node);
+            evict();
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> node = this.data.get(key);
+        if (node != null) {
+            remove(key, node);
+        }
+    }
+
+    public void invalidateAll() {
+        this.evictionLock.lock();
+        try {
+            for (Node<K, V> node : this.data.values()) {
+                unlink(node);
+            }
+            this.data.clear();
+            this.readBuffer.drainTo(node -> {
+            });
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    void remove(K key, Node<K, V> node) {
+        this.evictionLock.lock();
+        try {
+            if (this.data.remove(key, node)) {
+                unlink(node);
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    public long size() {
+        return this.data.size();
+    }
+
+    public CacheStats stats() {
+        return this.statsCounter.snapshot();
+    }
+
+    void drainReadBuffer() {
+        this.readBuffer.drainTo(node -> {
+            if (node.queue != REMOVED) {
+                this.sketch.increment(node.key);
+                onAccess(node);
+            }
+        });
+    }
+
+    /**
+     * 窗口和保护段内移到队尾，试用段的数据晋升到保护段，保护段超出容量时最久未访问的数据降级到试用段
+     */
+    void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> this.window.moveToBack(node);
+            case PROTECTED -> this.protectedQueue.moveToBack(node);
+            case PROBATION -> {
+                this.probation.remove(node);
+                node.queue = PROTECTED;
+                this.protectedQueue.addLast(node);
+                while (this.protectedQueue.size > this.protectedMaximum) {
+                    Node<K, V> demoted = this.protectedQueue.pollFirst();
+                    demoted.queue = PROBATION;
+                    this.probation.addLast(demoted);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    void evict() {
+        // 超出窗口容量的数据进入试用段的队尾，成为候选者
+        while (this.window.size > this.windowMaximum) {
+            Node<K, V> node = this.window.pollFirst();
+            node.queue = PROBATION;
+            this.probation.addLast(node);
+        }
+        while (this.window.size + this.probation.size + this.protectedQueue.size > this.maximumSize) {
+            Node<K, V> victim = this.probation.first != null ? this.probation.first : this.protectedQueue.first;
+            Node<K, V> candidate = this.probation.last;
+            Node<K, V> evicted = victim;
+            if (candidate != null && candidate != victim && victim.queue == PROBATION
+                    && this.sketch.frequency(candidate.key) <= this.sketch.frequency(victim.key)) {
+                // 候选者的访问频率不高于被淘汰者时不允许进入主区域
+                evicted = candidate;
+            }
+            this.data.remove(evicted.key, evicted);
+            unlink(evicted);
+            this.statsCounter.recordEviction();
+        }
+    }
+
+    void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> this.window.remove(node);
+            case PROBATION -> this.probation.remove(node);
+            case PROTECTED -> this.protectedQueue.remove(node);
+            default -> {
+            }
+        }
+        node.queue = REMOVED;
+    }
+
+    /**
+     * 默认的统计，只在 stats() 中读取
+     */
+    static final class ConcurrentStatsCounter implements StatsCounter {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder loads = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        @Override
+        public void recordHit() {
+            this.hits.increment();
+        }
+
+        @Override
+        public void recordMiss() {
+            this.misses.increment();
+        }
+
+        @Override
+        public void recordLoad() {
+            this.loads.increment();
+        }
+
+        @Override
+        public void recordEviction() {
+            this.evictions.increment();
+        }
+
+        @Override
+        public CacheStats snapshot() {
+            return new CacheStats(this.hits.sum(), this.misses.sum(), this.loads.sum(), this.evictions.sum());
+        }
+    }
+
+    static final class Node<K, V> {
+
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        // 由 evictionLock 保护
+        volatile int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的双向链表，first 为最久未访问
+     */
+    static final class AccessQueue<K, V> {
+
+        Node<K, V> first;
+        Node<K, V> last;
+        long size;
+
+        void addLast(Node<K, V> node) {
+            node.prev = this.last;
+            node.next = null;
+            if (this.last == null) {
+                this.first = node;
+            } else {
+                this.last.next = node;
+            }
+            this.last = node;
+            this.size++;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = this.first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                this.first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                this.last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            this.size--;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (this.last != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
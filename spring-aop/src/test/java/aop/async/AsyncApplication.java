@@ -0,0 +1,19 @@
+package aop.async;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Import;
+import cn.xu.spring.async.AsyncConfiguration;
+import cn.xu.spring.async.AsyncTaskExecutor;
+
+@Configuration
+@ComponentScan
+@Import(AsyncConfiguration.class)
+public class AsyncApplication {
+
+    @Bean(destroyMethod = "close")
+    AsyncTaskExecutor auditExecutor() {
+        return AsyncTaskExecutor.platform("audit", 1, 10);
+    }
+}
@@ -0,0 +1,70 @@
+package aop.async;
+
+import cn.xu.spring.annotation.Async;
+import cn.xu.spring.async.AsyncBeanPostProcessor;
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.exception.AopConfigException;
+import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncProxyTest {
+
+    @Test
+    public void testAsync() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(AsyncApplication.class, createPropertyResolver())) {
+            MailService service = ctx.getBean(MailService.class);
+            assertNotSame(MailService.class, service.getClass());
+
+            // void 方法在指定的执行器中执行:
+            service.audit("hello");
+            assertTrue(service.getAudited().await(5, TimeUnit.SECONDS));
+            assertEquals("async-audit-1:hello", service.getAudits().get(0));
+
+            // 返回 CompletableFuture 的方法在默认执行器中执行:
+            String upper = service.upper("bob").get(5, TimeUnit.SECONDS);
+            assertTrue(upper.startsWith("async-asyncExecutor-"), upper);
+            assertTrue(upper.endsWith(":BOB"), upper);
+
+            // 异常通过 Future 返回:
+            ExecutionException e = assertThrows(ExecutionException.class, () -> service.fail("x").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+            // 没有 @Async 的方法在调用线程中执行:
+            assertEquals(Thread.currentThread().getName() + ":s", service.sync("s"));
+
+            // 指标:
+            MetricRegistry registry = MetricRegistry.getInstance();
+            assertTrue(registry.histogram("async.execution.time", "executor", "asyncExecutor").snapshot().count() >= 2);
+            assertTrue(registry.counter("async.failures", "executor", "asyncExecutor").getCount() >= 1);
+            assertEquals(0, registry.gauge("async.queue.depth", () -> -1, "executor", "auditExecutor").getValue());
+        }
+    }
+
+    @Test
+    public void testInvalidReturnType() {
+        AsyncBeanPostProcessor processor = new AsyncBeanPostProcessor();
+        assertThrows(AopConfigException.class, () -> processor.postProcessBeforeInitialization(new InvalidService(), "invalidService"));
+    }
+
+    public static class InvalidService {
+
+        @Async
+        public String hello() {
+            return "hello";
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        ps.put("xu-spring.async.threads", "2");
+        var pr = new PropertyResolver(ps);
+        return pr;
+    }
+}
@@ -0,0 +1,46 @@
+package aop.async;
+
+import cn.xu.spring.annotation.Async;
+import cn.xu.spring.annotation.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@Component
+public class MailService {
+
+    final List<String> audits = new CopyOnWriteArrayList<>();
+
+    final CountDownLatch audited = new CountDownLatch(1);
+
+    @Async("auditExecutor")
+    public void audit(String message) {
+        audits.add(Thread.currentThread().getName() + ":" + message);
+        audited.countDown();
+    }
+
+    @Async
+    public CompletableFuture<String> upper(String s) {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName() + ":" + s.toUpperCase());
+    }
+
+    @Async
+    public CompletableFuture<String> fail(String s) {
+        throw new IllegalArgumentException("bad mail: " + s);
+    }
+
+    public String sync(String s) {
+        return Thread.currentThread().getName() + ":" + s;
+    }
+
+    // 字段在原始 bean 上，通过方法访问:
+    public List<String> getAudits() {
+        return audits;
+    }
+
+    public CountDownLatch getAudited() {
+        return audited;
+    }
+}
@@ -0,0 +1,13 @@
+package aop.cache;
+
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Import;
+import cn.xu.spring.cache.CacheConfiguration;
+
+@Configuration
+@ComponentScan
+@Import(CacheConfiguration.class)
+public class CacheApplication {
+
+}
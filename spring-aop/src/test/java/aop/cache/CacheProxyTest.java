@@ -0,0 +1,87 @@
+package aop.cache;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheProxyTest {
+
+    @Test
+    public void testCacheable() {
+        try (var ctx = new AnnotationConfigApplicationContext(CacheApplication.class, createPropertyResolver())) {
+            UserService service = ctx.getBean(UserService.class);
+            assertNotSame(UserService.class, service.getClass());
+
+            // key 只使用第一个参数:
+            assertEquals("Bob", service.getUser(1, "r1"));
+            assertEquals("Bob", service.getUser(1, "r2"));
+            assertEquals("Alice", service.getUser(2, "r3"));
+            assertEquals(2, service.getLoads());
+
+            // 更新后移除缓存:
+            service.updateUser(1, "Tom");
+            assertEquals("Tom", service.getUser(1, "r4"));
+            assertEquals("Alice", service.getUser(2, "r5"));
+            assertEquals(3, service.getLoads());
+
+            service.clear();
+            assertEquals("Alice", service.getUser(2, "r6"));
+            assertEquals(4, service.getLoads());
+            assertEquals("plain", service.plain());
+
+            // 指标:
+            MetricRegistry registry = MetricRegistry.getInstance();
+            // 累计次数是 Counter:
+            assertEquals(2, registry.counter("cache.gets", "cache", "users", "result", "hit").getCount());
+            assertEquals(4, registry.counter("cache.gets", "cache", "users", "result", "miss").getCount());
+            assertEquals(4, registry.counter("cache.loads", "cache", "users").getCount());
+            assertEquals(0, registry.counter("cache.evictions", "cache", "users").getCount());
+            assertEquals(1, gauge(registry, "cache.size", "cache", "users"));
+        }
+        // 关闭后移除指标:
+        assertTrue(MetricRegistry.getInstance().getMetrics().stream().noneMatch(m -> m.getId().name().startsWith("cache.")));
+    }
+
+    @Test
+    public void testLoadCoalescing() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(CacheApplication.class, createPropertyResolver())) {
+            UserService service = ctx.getBean(UserService.class);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    futures.add(executor.submit(() -> service.slowLoad("bob")));
+                }
+                // 等待所有调用开始:
+                Thread.sleep(200);
+                service.release();
+                for (Future<String> future : futures) {
+                    assertEquals("BOB", future.get(5, TimeUnit.SECONDS));
+                }
+                // 同一个 key 只加载一次:
+                assertEquals(1, service.getLoads());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    double gauge(MetricRegistry registry, String name, String... tags) {
+        return registry.gauge(name, () -> -1, tags).getValue();
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        ps.put("xu-spring.cache.maximum-size", "100");
+        var pr = new PropertyResolver(ps);
+        return pr;
+    }
+}
@@ -0,0 +1,106 @@
+package aop.cache;
+
+import cn.xu.spring.cache.TinyLfuCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testFrequentEntriesSurvive() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>("test", 100, 0);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "v" + i);
+        }
+        // 前 10 个 key 经常访问:
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals("v" + i, cache.getIfPresent(i));
+            }
+        }
+        // 大量只访问一次的数据:
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals(100, cache.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + i, cache.getIfPresent(i));
+        }
+        assertEquals(1000, cache.stats().evictionCount());
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10, 50);
+        cache.put("a", "A");
+        assertEquals("A", cache.getIfPresent("a"));
+        Thread.sleep(100);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLoaderException() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10, 0);
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            throw new IllegalStateException("load failed");
+        }));
+        // 失败不缓存:
+        assertDoesNotThrow(() -> assertEquals("A", cache.get("a", key -> "A")));
+        var stats = cache.stats();
+        assertEquals(2, stats.loadCount());
+        assertEquals(2, stats.missCount());
+    }
+
+    @Test
+    public void testRecursiveLoad() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10, 0);
+        // loader 在同一个线程中加载同一个 key 时抛出异常而不是永远等待:
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> cache.get("a", key -> cache.get(key, k -> "A")));
+        assertTrue(e.getMessage().contains("Recursive load"));
+        // 加载其他 key 不受影响:
+        assertDoesNotThrow(() -> assertEquals("AB", cache.get("a", key -> "A" + cache.get("b", k -> "B"))));
+        assertEquals("B", cache.getIfPresent("b"));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>("test", 100, 0);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "v" + i);
+        }
+        // 多个线程同时命中前 10 个 key，访问记录超出缓冲区时丢弃:
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 1000; round++) {
+                        assertEquals("v" + (round % 10), cache.getIfPresent(round % 10));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(8000, cache.stats().hitCount());
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals(100, cache.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + i, cache.getIfPresent(i));
+        }
+    }
+}
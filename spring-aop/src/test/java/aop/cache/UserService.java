@@ -0,0 +1,56 @@
+package aop.cache;
+
+import cn.xu.spring.annotation.CacheEvict;
+import cn.xu.spring.annotation.Cacheable;
+import cn.xu.spring.annotation.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class UserService {
+
+    final Map<Integer, String> users = new ConcurrentHashMap<>(Map.of(1, "Bob", 2, "Alice"));
+
+    final AtomicInteger loads = new AtomicInteger();
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    // 字段在原始 bean 上，通过方法访问:
+    public int getLoads() {
+        return loads.get();
+    }
+
+    public void release() {
+        release.countDown();
+    }
+
+    @Cacheable(name = "users", key = "#0")
+    public String getUser(int id, String requestId) {
+        loads.incrementAndGet();
+        return users.get(id);
+    }
+
+    @Cacheable(name = "slow")
+    public String slowLoad(String name) throws InterruptedException {
+        loads.incrementAndGet();
+        release.await(5, TimeUnit.SECONDS);
+        return name.toUpperCase();
+    }
+
+    @CacheEvict(name = "users", key = "#0")
+    public void updateUser(int id, String name) {
+        users.put(id, name);
+    }
+
+    @CacheEvict(name = "users", allEntries = true)
+    public void clear() {
+    }
+
+    public String plain() {
+        return "plain";
+    }
+}
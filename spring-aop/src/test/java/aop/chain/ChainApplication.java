@@ -0,0 +1,18 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Order;
+import cn.xu.spring.aop.AroundProxyBeanPostProcessor;
+
+@Configuration
+@ComponentScan
+public class ChainApplication {
+
+    @Order(1)
+    @Bean
+    AroundProxyBeanPostProcessor createAroundProxyBeanPostProcessor() {
+        return new AroundProxyBeanPostProcessor();
+    }
+}
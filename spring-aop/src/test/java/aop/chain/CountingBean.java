@@ -0,0 +1,16 @@
+package aop.chain;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountingBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public CountingBean() {
+        CREATED.incrementAndGet();
+    }
+
+    public String hello(String name) {
+        return "Hello, " + name + ".";
+    }
+}
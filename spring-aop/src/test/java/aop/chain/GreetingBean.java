@@ -0,0 +1,19 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Around;
+import cn.xu.spring.annotation.Component;
+
+@Component
+@Around("politeInvocationHandler")
+@Trace("traceInterceptor")
+public class GreetingBean {
+
+    public String hello(String name) {
+        return "Hello, " + name + ".";
+    }
+
+    @Override
+    public String toString() {
+        return "GreetingBean";
+    }
+}
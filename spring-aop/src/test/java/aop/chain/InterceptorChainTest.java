@@ -0,0 +1,80 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Around;
+import cn.xu.spring.aop.InterceptorChain;
+import cn.xu.spring.aop.ProxyResolver;
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterceptorChainTest {
+
+    @Test
+    public void testSingleProxy() {
+        try (var ctx = new AnnotationConfigApplicationContext(ChainApplication.class, createPropertyResolver())) {
+            GreetingBean proxy = ctx.getBean(GreetingBean.class);
+
+            // 两个注解只生成一层代理:
+            assertSame(GreetingBean.class, proxy.getClass().getSuperclass());
+            InterceptorChain chain = (InterceptorChain) ProxyResolver.getInstance().getInterceptor(proxy);
+            // 后处理的 @Trace 在外层:
+            assertEquals(List.of("@Trace", "@Around"), chain.getAdvisorNames());
+
+            // @Trace 包在 @Around 外面:
+            assertEquals("[Hello, Bob!]", proxy.hello("Bob"));
+            TraceInterceptor trace = ctx.getBean(TraceInterceptor.class);
+            assertEquals(List.of("hello"), trace.traces);
+
+            // Object 的方法不拦截:
+            assertEquals("GreetingBean", proxy.toString());
+            assertEquals(List.of("hello"), trace.traces);
+        }
+    }
+
+    @Test
+    public void testInvocationHandlerOutside() {
+        CountingBean.CREATED.set(0);
+        CountingBean bean = new CountingBean();
+        TraceInterceptor trace = new TraceInterceptor();
+        // InvocationHandler 收到的对象:
+        Set<Object> receivers = Collections.newSetFromMap(new IdentityHashMap<>());
+        InvocationHandler polite = (target, method, args) -> {
+            receivers.add(target);
+            return ((String) method.invoke(target, args)).replace('.', '!');
+        };
+        InterceptorChain chain = new InterceptorChain(CountingBean.class);
+        // @Trace 在内层，@Around 在外层:
+        chain.addFirst("@Trace", trace, advise(chain, GreetingBean.class.getAnnotation(Trace.class)));
+        chain.addFirst("@Around", InterceptorChain.adapt(polite), advise(chain, GreetingBean.class.getAnnotation(Around.class)));
+        CountingBean proxy = ProxyResolver.getInstance().createProxy(bean, chain);
+
+        for (int i = 0; i < 1001; i++) {
+            assertEquals("[Hello, Bob!]", proxy.hello("Bob"));
+        }
+        // InvocationHandler 通过内层代理调用，不会跳过 @Trace:
+        assertEquals(1001, trace.traces.size());
+        // 内层代理只创建一次，也不会调用目标类的构造方法:
+        assertEquals(1, receivers.size());
+        assertNotSame(bean, receivers.iterator().next());
+        assertEquals(1, CountingBean.CREATED.get());
+    }
+
+    Map<Method, Annotation> advise(InterceptorChain chain, Annotation annotation) {
+        Map<Method, Annotation> methods = new HashMap<>();
+        chain.getAdvisableMethods().forEach(m -> methods.put(m, annotation));
+        return methods;
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        var pr = new PropertyResolver(ps);
+        return pr;
+    }
+}
@@ -0,0 +1,16 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+
+@Component
+public class PoliteInvocationHandler implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String ret = (String) method.invoke(proxy, args);
+        return ret.replace('.', '!');
+    }
+}
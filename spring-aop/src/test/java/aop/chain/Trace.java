@@ -0,0 +1,13 @@
+package aop.chain;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Trace {
+
+    String value();
+
+}
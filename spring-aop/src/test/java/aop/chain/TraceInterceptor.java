@@ -0,0 +1,20 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class TraceInterceptor implements MethodInterceptor {
+
+    public List<String> traces = new ArrayList<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        traces.add(invocation.getMethod().getName());
+        return "[" + invocation.proceed() + "]";
+    }
+}
@@ -0,0 +1,11 @@
+package aop.chain;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Order;
+import cn.xu.spring.aop.AnnotationProxyBeanPostProcessor;
+
+@Order(2)
+@Component
+public class TraceProxyBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Trace> {
+
+}
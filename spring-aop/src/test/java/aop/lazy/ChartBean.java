@@ -0,0 +1,26 @@
+package aop.lazy;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+import cn.xu.spring.annotation.Value;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 没有无参构造方法:
+@Lazy
+@Component
+public class ChartBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    final String title;
+
+    public ChartBean(@Value("${report.title}") String title) {
+        CREATED.incrementAndGet();
+        this.title = title;
+    }
+
+    public String chart() {
+        return "Chart of " + this.title;
+    }
+}
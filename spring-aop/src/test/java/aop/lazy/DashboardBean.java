@@ -0,0 +1,23 @@
+package aop.lazy;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+
+@Component
+public class DashboardBean {
+
+    final ReportBean constructorReport;
+
+    @Autowired
+    @Lazy
+    ReportBean fieldReport;
+
+    @Autowired
+    @Lazy
+    ChartBean chart;
+
+    public DashboardBean(@Autowired @Lazy ReportBean constructorReport) {
+        this.constructorReport = constructorReport;
+    }
+}
@@ -0,0 +1,10 @@
+package aop.lazy;
+
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+
+@Configuration
+@ComponentScan
+public class LazyApplication {
+
+}
@@ -0,0 +1,40 @@
+package aop.lazy;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyProxyTest {
+
+    @Test
+    public void testLazyClassProxy() {
+        ReportBean.CREATED.set(0);
+        ChartBean.CREATED.set(0);
+        var ps = new Properties();
+        ps.put("report.title", "Daily Report");
+        try (var ctx = new AnnotationConfigApplicationContext(LazyApplication.class, new PropertyResolver(ps))) {
+            DashboardBean dashboard = ctx.getBean(DashboardBean.class);
+            // 注入的是 ReportBean 的子类代理，真正的 bean 还没有创建:
+            assertNotSame(ReportBean.class, dashboard.constructorReport.getClass());
+            assertNotSame(ReportBean.class, dashboard.fieldReport.getClass());
+            assertTrue(dashboard.fieldReport.toString().startsWith("LazyProxy"));
+            // 创建代理不调用目标类的构造方法:
+            assertEquals(0, ReportBean.CREATED.get());
+            assertEquals(0, ChartBean.CREATED.get());
+
+            assertEquals("Daily Report for Bob", dashboard.constructorReport.report("Bob"));
+            assertEquals("Daily Report for Alice", dashboard.fieldReport.report("Alice"));
+            assertEquals(1, ReportBean.CREATED.get());
+            assertSame(ReportBean.class, ctx.getBean(ReportBean.class).getClass());
+
+            // 没有无参构造方法的类也可以创建延迟代理:
+            assertNotSame(ChartBean.class, dashboard.chart.getClass());
+            assertEquals("Chart of Daily Report", dashboard.chart.chart());
+            assertEquals(1, ChartBean.CREATED.get());
+        }
+    }
+}
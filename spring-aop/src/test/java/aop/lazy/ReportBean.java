@@ -0,0 +1,25 @@
+package aop.lazy;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+import cn.xu.spring.annotation.Value;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class ReportBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Value("${report.title}")
+    String title;
+
+    public ReportBean() {
+        CREATED.incrementAndGet();
+    }
+
+    public String report(String name) {
+        return this.title + " for " + name;
+    }
+}
@@ -6,4 +6,9 @@ import cn.xu.spring.aop.AnnotationProxyBeanPostProcessor;
 @Component
 public class MetricProxyBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Metric> {
 
+    // 方法上 @Metric 的 value() 是指标名称，处理器由类上的 @Metric 决定:
+    @Override
+    protected String getHandlerName(Metric methodAnnotation, Metric classAnnotation) {
+        return getHandlerName(classAnnotation != null ? classAnnotation : methodAnnotation);
+    }
 }
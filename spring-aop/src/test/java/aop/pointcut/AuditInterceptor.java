@@ -0,0 +1,20 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class AuditInterceptor implements MethodInterceptor {
+
+    public List<String> records = new ArrayList<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        records.add(invocation.getMethod().getName());
+        return invocation.proceed();
+    }
+}
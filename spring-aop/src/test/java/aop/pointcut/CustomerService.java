@@ -0,0 +1,33 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Around;
+import cn.xu.spring.annotation.Component;
+
+@Component
+@Around(value = "recordingInterceptor", pointcut = "find* && !findAll || @annotation(Audited)")
+public class CustomerService {
+
+    public String findName(int id) {
+        return "Bob";
+    }
+
+    public String findAll() {
+        return "Bob,Alice";
+    }
+
+    @Audited
+    public void delete(int id) {
+    }
+
+    public void save(String name) {
+    }
+
+    @Around(value = "recordingInterceptor", pointcut = "method")
+    public void update(String name) {
+    }
+
+    // 方法上的注解使用自己的处理器:
+    @Around("auditInterceptor")
+    public void archive(int id) {
+    }
+}
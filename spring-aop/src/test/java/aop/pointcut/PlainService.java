@@ -0,0 +1,11 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class PlainService {
+
+    public String hello() {
+        return "hello";
+    }
+}
@@ -0,0 +1,16 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.aop.AroundProxyBeanPostProcessor;
+
+@Configuration
+@ComponentScan
+public class PointcutApplication {
+
+    @Bean
+    AroundProxyBeanPostProcessor createAroundProxyBeanPostProcessor() {
+        return new AroundProxyBeanPostProcessor();
+    }
+}
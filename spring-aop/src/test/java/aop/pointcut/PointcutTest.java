@@ -0,0 +1,78 @@
+package aop.pointcut;
+
+import cn.xu.spring.aop.Pointcut;
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.exception.AopConfigException;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PointcutTest {
+
+    @Test
+    public void testPointcut() {
+        try (var ctx = new AnnotationConfigApplicationContext(PointcutApplication.class, createPropertyResolver())) {
+            RecordingInterceptor interceptor = ctx.getBean(RecordingInterceptor.class);
+            CustomerService customer = ctx.getBean(CustomerService.class);
+            assertNotSame(CustomerService.class, customer.getClass());
+
+            assertEquals("Bob", customer.findName(1));
+            assertEquals("Bob,Alice", customer.findAll());
+            customer.delete(1);
+            customer.save("Bob");
+            customer.update("Bob");
+            customer.archive(1);
+            // findAll 和 save 不匹配切点，update 使用方法上的注解:
+            assertEquals(List.of("findName:find* && !findAll || @annotation(Audited)", "delete:find* && !findAll || @annotation(Audited)", "update:method"),
+                    interceptor.records);
+            // archive 由方法上注解指定的处理器拦截:
+            assertEquals(List.of("archive"), ctx.getBean(AuditInterceptor.class).records);
+
+            // 只有方法上有注解:
+            interceptor.records.clear();
+            ReportService report = ctx.getBean(ReportService.class);
+            assertNotSame(ReportService.class, report.getClass());
+            assertEquals("daily", report.daily());
+            assertEquals("weekly", report.weekly());
+            assertEquals(List.of("daily:"), interceptor.records);
+
+            // 没有注解时不创建代理:
+            assertSame(PlainService.class, ctx.getBean(PlainService.class).getClass());
+        }
+    }
+
+    @Test
+    public void testExpression() throws Exception {
+        var findName = CustomerService.class.getMethod("findName", int.class);
+        var delete = CustomerService.class.getMethod("delete", int.class);
+        assertTrue(Pointcut.parse("").matches(findName));
+        assertTrue(Pointcut.parse("find*").matches(findName));
+        assertTrue(Pointcut.parse("*Name").matches(findName));
+        assertFalse(Pointcut.parse("!find*").matches(findName));
+        assertFalse(Pointcut.parse("find* && !findName").matches(findName));
+        assertTrue(Pointcut.parse("save || @annotation(aop.pointcut.Audited)").matches(delete));
+        assertFalse(Pointcut.parse("@annotation(Audited)").matches(findName));
+        assertThrows(AopConfigException.class, () -> Pointcut.parse("find(*)"));
+
+        // 子类覆写的方法继承父类方法上的注解:
+        var overridden = ArchivedCustomerService.class.getMethod("delete", int.class);
+        assertTrue(Pointcut.parse("@annotation(Audited)").matches(overridden));
+    }
+
+    public static class ArchivedCustomerService extends CustomerService {
+
+        @Override
+        public void delete(int id) {
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        var pr = new PropertyResolver(ps);
+        return pr;
+    }
+}
@@ -0,0 +1,23 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Around;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class RecordingInterceptor implements MethodInterceptor {
+
+    public List<String> records = new ArrayList<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        // 注解在创建代理时已经解析:
+        Around around = (Around) invocation.getAnnotation();
+        records.add(invocation.getMethod().getName() + ":" + around.pointcut());
+        return invocation.proceed();
+    }
+}
@@ -0,0 +1,17 @@
+package aop.pointcut;
+
+import cn.xu.spring.annotation.Around;
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class ReportService {
+
+    @Around("recordingInterceptor")
+    public String daily() {
+        return "daily";
+    }
+
+    public String weekly() {
+        return "weekly";
+    }
+}
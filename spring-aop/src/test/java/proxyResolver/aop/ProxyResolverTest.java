@@ -1,8 +1,14 @@
 package proxyResolver.aop;
 
+import cn.xu.spring.aop.MethodInterceptor;
 import cn.xu.spring.aop.ProxyResolver;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProxyResolverTest {
@@ -30,4 +36,84 @@ public class ProxyResolverTest {
         // 不带@Polite:
         assertEquals("Morning, Bob.", proxy.morning());
     }
+
+    @Test
+    public void testProxyClassReused() {
+        OriginBean bob = new OriginBean();
+        bob.name = "Bob";
+        OriginBean alice = new OriginBean();
+        alice.name = "Alice";
+
+        OriginBean bobProxy = ProxyResolver.getInstance().createProxy(bob, new PoliteInvocationHandler());
+        // MethodInterceptor 直接调用原始 bean:
+        OriginBean aliceProxy = ProxyResolver.getInstance().createProxy(alice, (MethodInterceptor) invocation -> {
+            Object ret = invocation.proceed();
+            return invocation.getMethod().getAnnotation(Polite.class) != null ? ((String) ret).replace('.', '!') : ret;
+        });
+
+        // 同一个目标类只生成一个代理类:
+        assertSame(bobProxy.getClass(), aliceProxy.getClass());
+        // 每个代理转发到各自的原始 bean:
+        assertEquals("Hello, Bob!", bobProxy.hello());
+        assertEquals("Hello, Alice!", aliceProxy.hello());
+        assertEquals("Morning, Alice.", aliceProxy.morning());
+
+        // 代理的代理也能正常转发:
+        OriginBean nested = ProxyResolver.getInstance().createProxy(aliceProxy, (MethodInterceptor) invocation -> "[" + invocation.proceed() + "]");
+        assertEquals("[Hello, Alice!]", nested.hello());
+    }
+
+    @Test
+    public void testProxyClassUnloaded() throws Exception {
+        WeakReference<ClassLoader> loader = createProxyInIsolatedLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        // 代理类和调用缓存不会阻止目标类的 ClassLoader 被回收:
+        assertNull(loader.get());
+    }
+
+    WeakReference<ClassLoader> createProxyInIsolatedLoader() throws Exception {
+        ClassLoader loader = new IsolatedClassLoader(getClass().getClassLoader());
+        Class<?> beanClass = loader.loadClass(OriginBean.class.getName());
+        assertNotSame(OriginBean.class, beanClass);
+        Object bean = beanClass.getDeclaredConstructor().newInstance();
+        beanClass.getField("name").set(bean, "Bob");
+        MethodInterceptor interceptor = invocation -> "[" + invocation.proceed() + "]";
+        Object proxy = ProxyResolver.getInstance().createProxy(bean, interceptor);
+        assertEquals("[Hello, Bob.]", proxy.getClass().getMethod("hello").invoke(proxy));
+        assertSame(interceptor, ProxyResolver.getInstance().getInterceptor(proxy));
+        assertNull(ProxyResolver.getInstance().getInterceptor(bean));
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * 自己加载 OriginBean，其他类委托给父 ClassLoader
+     */
+    static class IsolatedClassLoader extends ClassLoader {
+
+        IsolatedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(OriginBean.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] data = input.readAllBytes();
+                        c = defineClass(name, data, 0, data.length);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return c;
+            }
+        }
+    }
 }
@@ -0,0 +1,266 @@
+package cn.xu.spring.boot;
+
+import cn.xu.spring.context.ApplicationContext;
+import cn.xu.spring.context.ApplicationContextUtils;
+import cn.xu.spring.metrics.*;
+import cn.xu.spring.web.utils.JsonUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * created by Xu on 2026/10/18 19:05.
+ * 内置的监控端点，由 XuSpringApplication 在 xu-spring.management.enabled=true 时注册：
+ * /_xu/metrics 默认输出 Prometheus 文本格式，?format=json 或 Accept: application/json 时输出 JSON
+ * /_xu/health 检查全部 DataSource 的连接，任一不可用时返回 503
+ * 输出都直接写到响应流，不在内存里拼接完整的字符串
+ */
+public class ManagementServlet extends HttpServlet {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    final MetricRegistry registry;
+
+    public ManagementServlet(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void init() throws ServletException {
+        JvmMetrics.bindTo(this.registry);
+        for (HikariDataSource ds : getHikariDataSources()) {
+            bindHikari(ds);
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String path = req.getPathInfo();
+        if ("/metrics".equals(path)) {
+            String accept = req.getHeader("Accept");
+            if ("json".equals(req.getParameter("format")) || (accept != null && accept.contains("application/json"))) {
+                writeJson(resp);
+            } else {
+                writePrometheus(resp);
+            }
+        } else if ("/health".equals(path)) {
+            writeHealth(resp);
+        } else {
+            resp.sendError(404, "Not Found");
+        }
+    }
+
+    /**
+     * HikariCP 连接池状态，连接池尚未启动时为 0
+     */
+    void bindHikari(HikariDataSource ds) {
+        String pool = ds.getPoolName();
+        this.registry.gauge("hikaricp.connections.active", () -> poolValue(ds, HikariPoolMXBean::getActiveConnections), "pool", pool);
+        this.registry.gauge("hikaricp.connections.idle", () -> poolValue(ds, HikariPoolMXBean::getIdleConnections), "pool", pool);
+        this.registry.gauge("hikaricp.connections.total", () -> poolValue(ds, HikariPoolMXBean::getTotalConnections), "pool", pool);
+        this.registry.gauge("hikaricp.connections.pending", () -> poolValue(ds, HikariPoolMXBean::getThreadsAwaitingConnection), "pool", pool);
+        this.registry.gauge("hikaricp.connections.max", ds::getMaximumPoolSize, "pool", pool);
+    }
+
+    static int poolValue(HikariDataSource ds, ToIntFunction<HikariPoolMXBean> getter) {
+        HikariPoolMXBean bean = ds.getHikariPoolMXBean();
+        return bean == null ? 0 : getter.applyAsInt(bean);
+    }
+
+    void writePrometheus(HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        PrintWriter pw = resp.getWriter();
+        String lastName = null;
+        // summary 只能包含分位数、_sum 和 _count，最大值在同名的直方图输出完之后作为单独的 gauge 输出
+        List<MetricId> maxIds = new ArrayList<>();
+        List<Long> maxValues = new ArrayList<>();
+        for (Metric metric : this.registry.getMetrics()) {
+            MetricId id = metric.getId();
+            String name = id.name().replace('.', '_');
+            if (!name.equals(lastName)) {
+                writeMax(pw, lastName, maxIds, maxValues);
+            }
+            if (metric instanceof Counter counter) {
+                typeLine(pw, name, "counter", lastName);
+                sample(pw, name, "_total", id, null, counter.getCount());
+            } else if (metric instanceof Gauge gauge) {
+                typeLine(pw, name, "gauge", lastName);
+                sample(pw, name, "", id, null, gauge.getValue());
+            } else if (metric instanceof Histogram histogram) {
+                typeLine(pw, name, "summary", lastName);
+                Histogram.Snapshot snapshot = histogram.snapshot();
+                for (double q : QUANTILES) {
+                    sample(pw, name, "", id, q, snapshot.percentile(q));
+                }
+                sample(pw, name, "_count", id, null, snapshot.count());
+                sample(pw, name, "_sum", id, null, snapshot.sum());
+                maxIds.add(id);
+                maxValues.add(snapshot.max());
+            }
+            lastName = name;
+        }
+        writeMax(pw, lastName, maxIds, maxValues);
+        pw.flush();
+    }
+
+    static void writeMax(PrintWriter pw, String name, List<MetricId> ids, List<Long> values) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        typeLine(pw, name + "_max", "gauge", null);
+        for (int i = 0; i < ids.size(); i++) {
+            sample(pw, name, "_max", ids.get(i), null, values.get(i));
+        }
+        ids.clear();
+        values.clear();
+    }
+
+    static void typeLine(PrintWriter pw, String name, String type, String lastName) {
+        if (!name.equals(lastName)) {
+            pw.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    static void sample(PrintWriter pw, String name, String suffix, MetricId id, Double quantile, double value) {
+        pw.append(name).append(suffix);
+        List<String> tags = id.tags();
+        if (!tags.isEmpty() || quantile != null) {
+            pw.append('{');
+            for (int i = 0; i < tags.size(); i += 2) {
+                if (i > 0) {
+                    pw.append(',');
+                }
+                pw.append(tags.get(i).replace('.', '_').replace('-', '_')).append("=\"");
+                escape(pw, tags.get(i + 1));
+                pw.append('"');
+            }
+            if (quantile != null) {
+                pw.append(tags.isEmpty() ? "" : ",").append("quantile=\"").append(String.valueOf(quantile)).append('"');
+            }
+            pw.append('}');
+        }
+        pw.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            pw.print((long) value);
+        } else {
+            pw.print(value);
+        }
+        pw.append('\n');
+    }
+
+    static void escape(PrintWriter pw, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '\\' -> pw.append("\\\\");
+                case '"' -> pw.append("\\\"");
+                case '\n' -> pw.append("\\n");
+                default -> pw.append(ch);
+            }
+        }
+    }
+
+    void writeJson(HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        try (JsonGenerator gen = JsonUtils.OBJECT_MAPPER.getFactory().createGenerator(resp.getOutputStream())) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("metrics");
+            for (Metric metric : this.registry.getMetrics()) {
+                MetricId id = metric.getId();
+                gen.writeStartObject();
+                gen.writeStringField("name", id.name());
+                gen.writeObjectFieldStart("tags");
+                for (int i = 0; i < id.tags().size(); i += 2) {
+                    gen.writeStringField(id.tags().get(i), id.tags().get(i + 1));
+                }
+                gen.writeEndObject();
+                if (metric instanceof Counter counter) {
+                    gen.writeStringField("type", "counter");
+                    gen.writeNumberField("count", counter.getCount());
+                } else if (metric instanceof Gauge gauge) {
+                    gen.writeStringField("type", "gauge");
+                    gen.writeNumberField("value", gauge.getValue());
+                } else if (metric instanceof Histogram histogram) {
+                    Histogram.Snapshot snapshot = histogram.snapshot();
+                    gen.writeStringField("type", "histogram");
+                    gen.writeNumberField("count", snapshot.count());
+                    gen.writeNumberField("sum", snapshot.sum());
+                    gen.writeNumberField("max", snapshot.max());
+                    gen.writeNumberField("mean", snapshot.mean());
+                    gen.writeNumberField("p50", snapshot.percentile(0.5));
+                    gen.writeNumberField("p99", snapshot.percentile(0.99));
+                    gen.writeNumberField("p999", snapshot.percentile(0.999));
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    void writeHealth(HttpServletResponse resp) throws IOException {
+        List<DataSource> dataSources = getBeans(DataSource.class);
+        boolean[] up = new boolean[dataSources.size()];
+        boolean allUp = true;
+        for (int i = 0; i < up.length; i++) {
+            up[i] = isValid(dataSources.get(i));
+            allUp = allUp && up[i];
+        }
+        resp.setStatus(allUp ? 200 : 503);
+        resp.setContentType("application/json");
+        try (JsonGenerator gen = JsonUtils.OBJECT_MAPPER.getFactory().createGenerator(resp.getOutputStream())) {
+            gen.writeStartObject();
+            gen.writeStringField("status", allUp ? "UP" : "DOWN");
+            gen.writeObjectFieldStart("components");
+            for (int i = 0; i < up.length; i++) {
+                DataSource ds = dataSources.get(i);
+                gen.writeObjectFieldStart(ds instanceof HikariDataSource hikari ? hikari.getPoolName() : "dataSource" + i);
+                gen.writeStringField("status", up[i] ? "UP" : "DOWN");
+                if (ds instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+                    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    gen.writeNumberField("active", pool.getActiveConnections());
+                    gen.writeNumberField("idle", pool.getIdleConnections());
+                    gen.writeNumberField("pending", pool.getThreadsAwaitingConnection());
+                    gen.writeNumberField("max", hikari.getMaximumPoolSize());
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+    boolean isValid(DataSource ds) {
+        try (Connection conn = ds.getConnection()) {
+            return conn.isValid(1);
+        } catch (Exception e) {
+            logger.warn("health check failed for {}: {}", ds, e.getMessage());
+            return false;
+        }
+    }
+
+    List<HikariDataSource> getHikariDataSources() {
+        return getBeans(DataSource.class).stream().filter(ds -> ds instanceof HikariDataSource).map(ds -> (HikariDataSource) ds).toList();
+    }
+
+    <T> List<T> getBeans(Class<T> type) {
+        ApplicationContext context = ApplicationContextUtils.getApplicationContext();
+        return context == null ? List.of() : context.getBeans(type);
+    }
+}
@@ -1,22 +1,31 @@
 package cn.xu.spring.boot;
 
 import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.MetricRegistry;
+import cn.xu.spring.metrics.StartupTimeline;
 import cn.xu.spring.web.ContextLoaderInitializer;
 import cn.xu.spring.web.utils.WebUtils;
 import org.apache.catalina.Context;
+import org.apache.catalina.Lifecycle;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.Server;
 import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.connector.Connector;
 import org.apache.catalina.startup.Tomcat;
 import org.apache.catalina.webresources.DirResourceSet;
 import org.apache.catalina.webresources.StandardRoot;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.lang.management.ManagementFactory;
+import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * created by Xu on 2024/5/30 20:53.
@@ -45,7 +54,15 @@ public class XuSpringApplication {
         logger.info("Starting {} using Java {} with PID {} (started by {} in {})", configClass.getSimpleName(), javaVersion, pid, user, pwd);
 
         PropertyResolver propertyResolver = WebUtils.createPropertyResolver();
-        Server server = startTomcat(webDir, baseDir, configClass, propertyResolver);
+        // 这次启动的时间线，传给 context 记录其中的步骤
+        StartupTimeline timeline = new StartupTimeline();
+        timeline.setJfrEnabled(propertyResolver.getProperty("${xu-spring.startup.jfr:false}", boolean.class));
+        Server server;
+        // Tomcat 在当前线程中启动 webapp，context 的各个步骤嵌套在这一步中
+        try (var step = timeline.start(StartupTimeline.Phase.TOMCAT, "tomcat")) {
+            server = startTomcat(webDir, baseDir, configClass, propertyResolver, timeline);
+        }
+        reportStartup(timeline, propertyResolver);
 
         // 启动结束信息
         final long endTime = System.currentTimeMillis();
@@ -56,24 +73,116 @@ public class XuSpringApplication {
         server.await();
     }
 
+    /**
+     * 输出启动耗时报告，配置了 xu-spring.startup.json-file 时同时写出 JSON
+     */
+    protected void reportStartup(StartupTimeline timeline, PropertyResolver propertyResolver) {
+        if (propertyResolver.getProperty("${xu-spring.startup.report:true}", boolean.class)) {
+            logger.info(timeline.report(propertyResolver.getProperty("${xu-spring.startup.report-top:10}", int.class)));
+        }
+        String jsonFile = propertyResolver.getProperty("xu-spring.startup.json-file");
+        if (jsonFile != null) {
+            try {
+                timeline.writeJson(Paths.get(jsonFile));
+                logger.info("startup timeline written to {}", jsonFile);
+            } catch (IOException e) {
+                logger.warn("write startup timeline to " + jsonFile + " failed.", e);
+            }
+        }
+    }
+
     /**
      * 启动嵌入式Tomcat
      */
-    protected Server startTomcat(String webDir, String baseDir, Class<?> configClass, PropertyResolver propertyResolver) throws LifecycleException {
+    protected Server startTomcat(String webDir, String baseDir, Class<?> configClass, PropertyResolver propertyResolver, StartupTimeline timeline)
+            throws LifecycleException {
         int port = propertyResolver.getProperty("${server.port:8080}", int.class);
         logger.info("starting Tomcat at port {}...", port);
         Tomcat tomcat = new Tomcat();
         tomcat.setPort(port);
         // 失败时抛出异常
         tomcat.getConnector().setThrowOnFailure(true);
+        configureConnector(tomcat, propertyResolver);
         Context context = tomcat.addWebapp("", new File(webDir).getAbsolutePath());
         // 资源路径
         WebResourceRoot resources = new StandardRoot(context);
         resources.addPreResources(new DirResourceSet(resources, "/WEB-INF/classes", new File(baseDir).getAbsolutePath(), "/"));
         context.setResources(resources);
-        context.addServletContainerInitializer(new ContextLoaderInitializer(configClass, propertyResolver), Set.of());
+        context.addServletContainerInitializer(new ContextLoaderInitializer(configClass, propertyResolver, timeline), Set.of());
+        registerManagementServlet(context, propertyResolver);
         tomcat.start();
         logger.info("Tomcat started at port {}...", port);
         return tomcat.getServer();
     }
+
+    /**
+     * 注册监控端点，映射为 base-path/*，优先于 DispatcherServlet 的 "/"
+     */
+    protected void registerManagementServlet(Context context, PropertyResolver propertyResolver) {
+        if (!propertyResolver.getProperty("${xu-spring.management.enabled:false}", boolean.class)) {
+            return;
+        }
+        String basePath = propertyResolver.getProperty("${xu-spring.management.base-path:/_xu}");
+        Tomcat.addServlet(context, "managementServlet", new ManagementServlet(MetricRegistry.getInstance()));
+        context.addServletMappingDecoded(basePath + "/*", "managementServlet");
+        logger.info("management endpoints registered at {}/metrics and {}/health", basePath, basePath);
+    }
+
+    /**
+     * 配置连接器的线程模型和连接参数，未配置的项保持Tomcat的默认值
+     */
+    protected void configureConnector(Tomcat tomcat, PropertyResolver propertyResolver) {
+        Connector connector = tomcat.getConnector();
+        if (!(connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol)) {
+            logger.warn("skip connector configuration for unsupported protocol handler: {}", connector.getProtocolHandler().getClass().getName());
+            return;
+        }
+        Integer maxThreads = propertyResolver.getProperty("server.tomcat.max-threads", Integer.class);
+        if (maxThreads != null) {
+            protocol.setMaxThreads(maxThreads);
+        }
+        Integer acceptCount = propertyResolver.getProperty("server.tomcat.accept-count", Integer.class);
+        if (acceptCount != null) {
+            protocol.setAcceptCount(acceptCount);
+        }
+        Integer maxConnections = propertyResolver.getProperty("server.tomcat.max-connections", Integer.class);
+        if (maxConnections != null) {
+            protocol.setMaxConnections(maxConnections);
+        }
+        Integer keepAliveTimeout = propertyResolver.getProperty("server.tomcat.keep-alive-timeout", Integer.class);
+        if (keepAliveTimeout != null) {
+            protocol.setKeepAliveTimeout(keepAliveTimeout);
+        }
+        Integer maxKeepAliveRequests = propertyResolver.getProperty("server.tomcat.max-keep-alive-requests", Integer.class);
+        if (maxKeepAliveRequests != null && protocol instanceof AbstractHttp11Protocol<?> http11) {
+            http11.setMaxKeepAliveRequests(maxKeepAliveRequests);
+        }
+
+        // 虚拟线程模式：每个请求一个虚拟线程，阻塞的JDBC调用不再占用平台线程，此时 max-threads 不再限制并发
+        if (propertyResolver.getProperty("${server.threads.virtual:false}", boolean.class)) {
+            ExecutorService executor = createVirtualThreadExecutor();
+            if (executor != null) {
+                protocol.setExecutor(executor);
+                // 外部设置的executor不会被Tomcat关闭
+                tomcat.getServer().addLifecycleListener(event -> {
+                    if (Lifecycle.AFTER_STOP_EVENT.equals(event.getType())) {
+                        executor.shutdown();
+                    }
+                });
+                logger.info("Tomcat connector uses virtual threads.");
+            }
+        }
+    }
+
+    /**
+     * 编译目标为Java 17，通过反射调用Java 21+的 Executors.newVirtualThreadPerTaskExecutor()，不支持时返回null
+     */
+    ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("virtual threads require Java 21+, current is Java {}. Fallback to platform threads.", Runtime.version().feature());
+            return null;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package cn.xu.spring.web;
 import cn.xu.spring.context.AnnotationConfigApplicationContext;
 import cn.xu.spring.io.PropertyResolver;
 import cn.xu.spring.context.ApplicationContext;
+import cn.xu.spring.metrics.StartupTimeline;
 import cn.xu.spring.web.utils.WebUtils;
 import jakarta.servlet.ServletContainerInitializer;
 import jakarta.servlet.ServletContext;
@@ -23,9 +24,16 @@ public class ContextLoaderInitializer implements ServletContainerInitializer {
 
     final PropertyResolver propertyResolver;
 
+    final StartupTimeline startupTimeline;
+
     public ContextLoaderInitializer(Class<?> configClass, PropertyResolver propertyResolver) {
+        this(configClass, propertyResolver, new StartupTimeline());
+    }
+
+    public ContextLoaderInitializer(Class<?> configClass, PropertyResolver propertyResolver, StartupTimeline startupTimeline) {
         this.configClass = configClass;
         this.propertyResolver = propertyResolver;
+        this.startupTimeline = startupTimeline;
     }
 
     @Override
@@ -39,7 +47,7 @@ public class ContextLoaderInitializer implements ServletContainerInitializer {
 
         // 得到 ServletContext
         WebMvcConfiguration.setServletContext(ctx);
-        ApplicationContext context = new AnnotationConfigApplicationContext(this.configClass, this.propertyResolver);
+        ApplicationContext context = new AnnotationConfigApplicationContext(this.configClass, this.propertyResolver, this.startupTimeline);
         logger.info("Application context created: {} ", context);
 
         // 注册过滤器
@@ -0,0 +1,26 @@
+package cn.xu.spring.boot;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+
+@Configuration
+public class HealthConfiguration {
+
+    // 无法获取连接的数据源:
+    @Bean
+    DataSource brokenDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                throw new SQLException("connection refused");
+            }
+            if (method.getName().equals("toString")) {
+                return "brokenDataSource";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package cn.xu.spring.boot;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.MetricRegistry;
+import cn.xu.spring.web.utils.JsonUtils;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ManagementServletTest {
+
+    @Test
+    void prometheus() throws ServletException, IOException {
+        MetricRegistry registry = new MetricRegistry();
+        registry.counter("http.requests", "method", "GET").increment(3);
+        registry.gauge("pool.size", () -> 8);
+        registry.histogram("http.latency", "route", "/a").record(100);
+        registry.histogram("http.latency", "route", "/b").record(300);
+        registry.histogram("http.latency", "route", "/b").record(500);
+
+        String text = get(registry, "/metrics", null).getContentAsString();
+        assertTrue(text.contains("# TYPE http_requests counter\nhttp_requests_total{method=\"GET\"} 3\n"), text);
+        assertTrue(text.contains("# TYPE pool_size gauge\npool_size 8\n"), text);
+        // summary 只包含分位数、_count 和 _sum:
+        String summary = text.substring(text.indexOf("# TYPE http_latency summary\n"), text.indexOf("# TYPE http_latency_max gauge\n"));
+        assertTrue(summary.contains("http_latency_count{route=\"/b\"} 2\n"), summary);
+        assertTrue(summary.contains("http_latency_sum{route=\"/b\"} 800\n"), summary);
+        assertFalse(summary.contains("_max"), summary);
+        // 最大值是单独的 gauge，所有标签的样本连续输出:
+        assertTrue(text.contains("# TYPE http_latency_max gauge\nhttp_latency_max{route=\"/a\"} 100\nhttp_latency_max{route=\"/b\"} 500\n"), text);
+        // 每个 TYPE 只声明一次:
+        assertEquals(text.indexOf("# TYPE http_latency summary"), text.lastIndexOf("# TYPE http_latency summary"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void json() throws ServletException, IOException {
+        MetricRegistry registry = new MetricRegistry();
+        registry.histogram("db.query", "sql", "select").record(42);
+        var resp = get(registry, "/metrics", "json");
+        assertEquals("application/json", resp.getContentType());
+        Map<String, Object> json = JsonUtils.readJson(resp.getContentAsString(), Map.class);
+        Map<String, Object> metric = ((List<Map<String, Object>>) json.get("metrics")).get(0);
+        assertEquals("db.query", metric.get("name"));
+        assertEquals("histogram", metric.get("type"));
+        assertEquals(1, metric.get("count"));
+        assertEquals(42, metric.get("max"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void health() throws ServletException, IOException {
+        // 没有数据源时为 UP:
+        var resp = get(new MetricRegistry(), "/health", null);
+        assertEquals(200, resp.getStatus());
+        assertEquals("UP", JsonUtils.readJson(resp.getContentAsString(), Map.class).get("status"));
+
+        try (var ctx = new AnnotationConfigApplicationContext(HealthConfiguration.class, new PropertyResolver(new Properties()))) {
+            var resp2 = get(new MetricRegistry(), "/health", null);
+            assertEquals(503, resp2.getStatus());
+            Map<String, Object> json = JsonUtils.readJson(resp2.getContentAsString(), Map.class);
+            assertEquals("DOWN", json.get("status"));
+            assertEquals(Map.of("dataSource0", Map.of("status", "DOWN")), json.get("components"));
+        }
+    }
+
+    @Test
+    void notFound() throws ServletException, IOException {
+        assertEquals(404, get(new MetricRegistry(), "/unknown", null).getStatus());
+    }
+
+    MockHttpServletResponse get(MetricRegistry registry, String path, String format) throws ServletException, IOException {
+        var servlet = new ManagementServlet(registry);
+        var req = new MockHttpServletRequest("GET", "/_xu" + path);
+        req.setServletPath("/_xu");
+        req.setPathInfo(path);
+        if (format != null) {
+            req.setParameter("format", format);
+        }
+        var resp = new MockHttpServletResponse();
+        servlet.service(req, resp);
+        return resp;
+    }
+}
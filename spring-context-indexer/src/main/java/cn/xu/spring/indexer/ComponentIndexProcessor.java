@@ -0,0 +1,211 @@
+package cn.xu.spring.indexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * created by Xu on 2026/10/18 20:40.
+ * 编译期生成组件索引 META-INF/xu-spring.components，启动时 AnnotationConfigApplicationContext 直接读取索引，
+ * 不再遍历包目录，也不会加载非组件的类。每个组件一行：
+ * 类名|beanName|stereotype 注解|@Bean 名称（逗号分隔，仅 @Configuration 类）
+ * 处理器只按注解的全限定名匹配，本身不依赖 spring-context，加到 annotationProcessorPaths 即可
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/xu-spring.components";
+
+    static final String COMPONENT = "cn.xu.spring.annotation.Component";
+    static final String CONFIGURATION = "cn.xu.spring.annotation.Configuration";
+    static final String BEAN = "cn.xu.spring.annotation.Bean";
+
+    // 类名 -> 索引行，按类名排序使输出稳定
+    final Map<String, String> entries = new TreeMap<>();
+
+    Elements elements;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        readExistingIndex();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        // 不占用任何注解，其他处理器照常执行
+        return false;
+    }
+
+    /**
+     * 收集类及其嵌套类，与目录扫描一样跳过接口、注解、枚举和 record
+     */
+    void collect(Element element) {
+        if (!(element instanceof TypeElement type)) {
+            return;
+        }
+        if (type.getKind() == ElementKind.CLASS) {
+            String className = this.elements.getBinaryName(type).toString();
+            AnnotationMirror stereotype = findStereotype(type);
+            if (stereotype != null) {
+                this.entries.put(className, toEntry(className, type, stereotype));
+            } else {
+                // 增量编译时，去掉了 @Component 的类也要从旧索引中移除
+                this.entries.remove(className);
+            }
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    String toEntry(String className, TypeElement type, AnnotationMirror stereotype) {
+        StringBuilder sb = new StringBuilder(className).append('|');
+        String beanName = getValue(stereotype);
+        if (beanName.isEmpty()) {
+            String simpleName = type.getSimpleName().toString();
+            beanName = Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+        }
+        sb.append(beanName).append('|');
+        sb.append(((TypeElement) stereotype.getAnnotationType().asElement()).getQualifiedName()).append('|');
+        if (isAnnotated(type, CONFIGURATION)) {
+            StringJoiner beans = new StringJoiner(",");
+            for (Element enclosed : type.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.METHOD) {
+                    AnnotationMirror bean = findMirror(enclosed, BEAN);
+                    if (bean != null) {
+                        String name = getValue(bean);
+                        beans.add(name.isEmpty() ? enclosed.getSimpleName().toString() : name);
+                    }
+                }
+            }
+            sb.append(beans);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 直接标注的 @Component 优先，否则取以 @Component 为元注解的注解（如 @Configuration），与 ClassUtils.getBeanName 一致
+     */
+    AnnotationMirror findStereotype(TypeElement type) {
+        AnnotationMirror stereotype = null;
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(COMPONENT)) {
+                return mirror;
+            }
+            if (isMetaAnnotated(annotationType, COMPONENT, new HashSet<>())) {
+                stereotype = mirror;
+            }
+        }
+        return stereotype;
+    }
+
+    boolean isAnnotated(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)
+                    || isMetaAnnotated(annotationType, annotationName, new HashSet<>())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isMetaAnnotated(TypeElement annotationType, String annotationName, Set<String> visited) {
+        String name = annotationType.getQualifiedName().toString();
+        // java.lang.annotation 下的 @Target、@Retention 等互相标注，需要跳过
+        if (name.startsWith("java.lang.annotation.") || !visited.add(name)) {
+            return false;
+        }
+        for (AnnotationMirror mirror : annotationType.getAnnotationMirrors()) {
+            TypeElement meta = (TypeElement) mirror.getAnnotationType().asElement();
+            if (meta.getQualifiedName().contentEquals(annotationName) || isMetaAnnotated(meta, annotationName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    AnnotationMirror findMirror(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取注解的 value()，没有该属性时返回空字符串
+     */
+    String getValue(AnnotationMirror mirror) {
+        for (var entry : this.elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value") && entry.getValue().getValue() instanceof String s) {
+                return s;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 增量编译只会处理改动过的源文件，先读入上次生成的索引再合并
+     */
+    void readExistingIndex() {
+        try {
+            FileObject resource = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank() && !line.startsWith("#")) {
+                        this.entries.put(line.substring(0, line.indexOf('|')), line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 第一次编译时索引不存在
+        }
+    }
+
+    void writeIndex() {
+        // 已被删除的类不再保留
+        this.entries.keySet().removeIf(className -> this.elements.getTypeElement(className.replace('$', '.')) == null);
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# className|beanName|stereotype|beans\n");
+                for (String entry : this.entries.values()) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + INDEX_LOCATION + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package componentIndex;
+
+import cn.xu.spring.indexer.ComponentIndexProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentIndexProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void generateIndex() throws IOException {
+        List<String> lines = compile(
+                source("demo.UserService", """
+                        package demo;
+                        @cn.xu.spring.annotation.Component
+                        public class UserService {
+                            @cn.xu.spring.annotation.Component("nestedBean")
+                            public static class Nested {}
+                        }
+                        """),
+                source("demo.Service", """
+                        package demo;
+                        @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                        @cn.xu.spring.annotation.Component
+                        public @interface Service {
+                            String value() default "";
+                        }
+                        """),
+                source("demo.MailService", """
+                        package demo;
+                        @Service("mail")
+                        public class MailService {}
+                        """),
+                source("demo.AppConfig", """
+                        package demo;
+                        import cn.xu.spring.annotation.*;
+                        @Configuration
+                        public class AppConfig {
+                            @Bean
+                            public String greeting() { return "hi"; }
+                            @Bean("answer")
+                            public Integer number() { return 42; }
+                            public Long notBean() { return 0L; }
+                        }
+                        """),
+                source("demo.Helper", """
+                        package demo;
+                        public class Helper {}
+                        """),
+                source("demo.Marker", """
+                        package demo;
+                        @cn.xu.spring.annotation.Component
+                        public interface Marker {}
+                        """));
+
+        assertEquals(List.of(
+                "# className|beanName|stereotype|beans",
+                "demo.AppConfig|appConfig|cn.xu.spring.annotation.Configuration|greeting,answer",
+                "demo.MailService|mail|demo.Service|",
+                "demo.UserService|userService|cn.xu.spring.annotation.Component|",
+                "demo.UserService$Nested|nestedBean|cn.xu.spring.annotation.Component|"), lines);
+    }
+
+    @Test
+    void noComponents() throws IOException {
+        compile(source("demo.Helper", """
+                package demo;
+                public class Helper {}
+                """));
+        assertFalse(Files.exists(this.output.resolve(ComponentIndexProcessor.INDEX_LOCATION)));
+    }
+
+    List<String> compile(JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = List.of("-d", this.output.toString(), "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, List.of(sources));
+        task.setProcessors(List.of(new ComponentIndexProcessor()));
+        assertTrue(task.call());
+        Path index = this.output.resolve(ComponentIndexProcessor.INDEX_LOCATION);
+        return Files.exists(index) ? Files.readAllLines(index, StandardCharsets.UTF_8) : List.of();
+    }
+
+    static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/18 23:40.
+ * 标注在 @EventListener 方法上时，事件由有界的事件线程池异步投递，发布方不等待监听方法执行
+ * 标注在其他 public 方法（或类）上并启用 AsyncBeanPostProcessor 时，方法在 value() 指定的 Executor bean 中执行，
+ * 方法的返回类型必须是 void 或 CompletableFuture（Future、CompletionStage）
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Async {
+    // 执行方法的 Executor bean 的名称，@EventListener 方法忽略此项
+    String value() default "asyncExecutor";
+}
@@ -0,0 +1,19 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/18 23:40.
+ * 标注在 bean 的方法上接收事件，方法只能有一个参数，参数类型即事件类型，发布的事件是它或它的子类时调用
+ * 同时标注 @Async 时在事件线程池中执行；batchSize 大于 1 时参数须为 List<事件类型>，
+ * 攒够 batchSize 个事件或第一个事件等待 batchDelayMillis 毫秒后一次性交给方法
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventListener {
+
+    int batchSize() default 1;
+
+    long batchDelayMillis() default 100;
+}
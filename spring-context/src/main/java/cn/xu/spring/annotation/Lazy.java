@@ -0,0 +1,16 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/18 21:40.
+ * 标注在类或 @Bean 方法上时，bean 在第一次被获取时才创建、注入和初始化
+ * 标注在 @Autowired 的字段、setter 或参数上时，注入一个代理，第一次调用方法时才获取真正的 bean
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+
+    boolean value() default true;
+}
@@ -0,0 +1,24 @@
+package cn.xu.spring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * created by Xu on 2026/10/18 22:10.
+ * bean 的作用域，标注在类或 @Bean 方法上，默认单例
+ * prototype: 每次获取/注入都创建新实例
+ * thread: 每个线程一个实例
+ * request: 每个 HTTP 请求一个实例，请求结束时销毁
+ * thread 和 request 作用域的 bean 注入到其他 bean 时注入的是代理，调用时才取当前线程/请求的实例
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    String SINGLETON = "singleton";
+    String PROTOTYPE = "prototype";
+    String THREAD = "thread";
+    String REQUEST = "request";
+
+    String value() default SINGLETON;
+}
@@ -4,6 +4,8 @@ import cn.xu.spring.annotation.*;
 import cn.xu.spring.exception.*;
 import cn.xu.spring.io.PropertyResolver;
 import cn.xu.spring.io.ResourceResolver;
+import cn.xu.spring.metrics.StartupTimeline;
+import cn.xu.spring.metrics.StartupTimeline.Phase;
 import cn.xu.spring.utils.ClassUtils;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PostConstruct;
@@ -12,8 +14,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -27,27 +38,76 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
 
     protected final Map<String, BeanDefinition> beans;
 
-    private Set<String> creatingBeanNames;
+    // 类型索引：bean 类型的每个父类和接口 -> 排好序的 BeanDefinition 以及按类型查找唯一 bean 的结果
+    protected final Map<Class<?>, TypeEntry> typeIndex;
+
+    // 正在创建（或已创建）的 bean -> 创建它的线程，用于检测循环依赖，并行启动时其他线程据此等待创建完成
+    private final Map<String, Creation> creatingBeanNames = new ConcurrentHashMap<>();
+    // 并行启动时，正在等待其他线程创建 bean 的线程 -> 等待的创建过程
+    private final Map<Thread, Creation> waitingCreations = new ConcurrentHashMap<>();
+
+    // 是否按依赖关系并行创建和初始化 bean
+    private final boolean parallelStartup;
+
+    // 已经完成创建、注入和初始化的 @Lazy bean
+    private final Map<String, Object> lazyInstances = new ConcurrentHashMap<>();
+
+    // 非单例 bean 的实例化计划，第一次创建实例时编译
+    private final Map<String, InstantiationPlan> plans = new ConcurrentHashMap<>();
+
+    // thread 作用域：当前线程的实例，所有线程的 ThreadScope 记录在 threadScopes 中，关闭时统一销毁
+    private final ThreadLocal<ThreadScope> threadScope = new ThreadLocal<>();
+    private final Set<ThreadScope> threadScopes = ConcurrentHashMap.newKeySet();
+
+    // 当前线程正在创建的非单例 bean，用于检测 prototype 之间的循环依赖
+    private final ThreadLocal<Set<String>> creatingScopedNames = ThreadLocal.withInitial(HashSet::new);
+
+    // 为类类型的 @Lazy 注入点创建代理，由 spring-aop 通过 ServiceLoader 提供
+    private static volatile LazyProxyFactory lazyProxyFactory;
 
     private List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
+    // @EventListener 的登记和事件分发
+    private final ApplicationEventMulticaster eventMulticaster;
+
+    // 记录扫描、创建 BeanDefinition 以及每个 bean 各阶段的耗时，只属于这个 context
+    protected final StartupTimeline startupTimeline;
+
     public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) {
+        this(configClass, propertyResolver, new StartupTimeline());
+    }
+
+    /**
+     * 使用调用方的时间线，例如 XuSpringApplication 把 Tomcat 启动和 context 的步骤记录在同一个时间线中
+     */
+    public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver, StartupTimeline startupTimeline) {
         ApplicationContextUtils.setApplicationContext(this);
         this.propertyResolver = propertyResolver;
+        this.startupTimeline = startupTimeline;
+        if (propertyResolver.getProperty("${xu-spring.startup.jfr:false}", boolean.class)) {
+            this.startupTimeline.setJfrEnabled(true);
+        }
 
         // 获取所有Bean的Class类型
-        final Set<String> beanClassNames = scanForClassNames(configClass);
+        final Set<String> beanClassNames;
+        try (var step = this.startupTimeline.start(Phase.SCAN, configClass.getName())) {
+            beanClassNames = scanForClassNames(configClass);
+        }
 
         // 创建BeanDefinition
-        this.beans = createBeanDefinitions(beanClassNames);
+        try (var step = this.startupTimeline.start(Phase.DEFINITION, configClass.getName())) {
+            this.beans = createBeanDefinitions(beanClassNames);
+        }
+        // BeanDefinition 创建完成后不再变化，一次性建立类型索引
+        this.typeIndex = buildTypeIndex(this.beans.values());
 
-        // 创建BeanName检测循环依赖:
-        this.creatingBeanNames = new HashSet<>();
+        this.parallelStartup = propertyResolver.getProperty("${xu-spring.context.parallel-startup:false}", boolean.class);
+        this.eventMulticaster = new ApplicationEventMulticaster(propertyResolver);
 
         // 创建 @configuration 类型的bean
         this.beans.values().stream()
             // 过滤出 @configuration 类型的bean
-            .filter(this::isConfigurationDefinition).sorted().map(bd -> {
+            .filter(bd -> isConfigurationDefinition(bd) && isEager(bd)).sorted().map(bd -> {
                 createBeanAsEarlySingleton(bd);
                 return bd.getName();
             }).collect(Collectors.toList());
@@ -60,20 +120,81 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             }).collect(Collectors.toList());
         this.beanPostProcessors.addAll(processors);
 
-        // 创建其他bean
-        createNormalBeans();
+        if (this.parallelStartup) {
+            int parallelism = propertyResolver.getProperty("xu-spring.context.parallel-threads", int.class, Runtime.getRuntime().availableProcessors());
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                Map<String, List<BeanDefinition>> dependencies = resolveDependencies();
+                // 并行创建其他bean
+                createNormalBeansInParallel(pool, dependencies);
+                // 字段和setter注入允许循环引用，仍然逐个注入
+                getEagerDefinitions().forEach(beanDefinition -> injectBean(beanDefinition));
+                // 依赖的bean先初始化
+                runInParallel(pool, getEagerDefinitions(), dependencies, this::initBean);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            // 创建其他bean
+            createNormalBeans();
+
+            // 通过字段和setter注入
+            getEagerDefinitions().forEach(beanDefinition -> injectBean(beanDefinition));
 
-        // 通过字段和setter注入
-        this.beans.values().forEach(beanDefinition -> injectBean(beanDefinition));
+            // 调用初始化方法
+            getEagerDefinitions().forEach(beanDefinition -> initBean(beanDefinition));
+        }
 
-        // 调用初始化方法
-        this.beans.values().forEach(beanDefinition -> initBean(beanDefinition));
+        // 全部 bean 初始化完成后才开始接收事件
+        registerEventListeners();
 
         if (logger.isDebugEnabled()) {
             this.beans.values().stream().sorted().forEach(bd -> logger.debug("bean initialized: {}", bd));
+            logger.debug(this.startupTimeline.report(propertyResolver.getProperty("${xu-spring.startup.report-top:10}", int.class)));
+        }
+    }
+
+    public StartupTimeline getStartupTimeline() {
+        return this.startupTimeline;
+    }
+
+    /**
+     * 登记 @EventListener 方法，启动时创建的 bean 直接绑定最终实例（可能是代理），其他 bean 在每次事件时通过 getInstance 获取
+     */
+    void registerEventListeners() {
+        for (BeanDefinition def : this.beans.values().stream().sorted().toList()) {
+            if (isEager(def)) {
+                Object instance = def.getRequiredInstance();
+                this.eventMulticaster.addListeners(def, () -> instance);
+            } else {
+                this.eventMulticaster.addListeners(def, () -> getInstance(def));
+            }
         }
     }
 
+    @Override
+    public void publishEvent(Object event) {
+        this.eventMulticaster.publishEvent(event);
+    }
+
+    /**
+     * 没有对应的 bean 时，ApplicationEventPublisher 和 ApplicationContext 类型的依赖注入 context 本身
+     */
+    boolean isContextDependency(Class<?> type) {
+        return type == ApplicationEventPublisher.class || type == ApplicationContext.class;
+    }
+
+    /**
+     * 启动时创建的 bean，@Lazy 的 bean 和非单例的 bean 在获取时由 getInstance 完成全部步骤
+     */
+    List<BeanDefinition> getEagerDefinitions() {
+        return this.beans.values().stream().filter(this::isEager).collect(Collectors.toList());
+    }
+
+    boolean isEager(BeanDefinition def) {
+        return !def.isLazy() && def.isSingleton();
+    }
+
     /**
      * 调用 init 方法，这里实际上是调用 beanDefinition 中存储的初始化方法
      */
@@ -81,17 +202,21 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         // 获取bean实例，即被处理前的原始实例：
         final Object beanInstance = getProxiedInstance(beanDefinition);
 
-        callMethod(beanInstance, beanDefinition.getInitMethod(), beanDefinition.getInitMethodName());
+        try (var step = this.startupTimeline.start(Phase.INIT, beanDefinition.getName())) {
+            callMethod(beanInstance, beanDefinition.getInitMethod(), beanDefinition.getInitMethodName());
+        }
 
         // 调用 BeanPostProcessor.postProcessAfterInitialization()
-        beanPostProcessors.forEach(bp -> {
-            Object processedInstance = bp.postProcessAfterInitialization(beanDefinition.getInstance(), beanDefinition.getName());
-            if (processedInstance != beanDefinition.getInstance()) {
-                logger.atDebug().log("BeanPostProcessor {} return different bean from {} to {}.", bp.getClass().getSimpleName(),
-                        beanDefinition.getInstance().getClass().getName(), processedInstance.getClass().getName());
-                beanDefinition.setInstance(processedInstance);
-            }
-        });
+        try (var step = this.startupTimeline.start(Phase.POST_PROCESS, beanDefinition.getName())) {
+            beanPostProcessors.forEach(bp -> {
+                Object processedInstance = bp.postProcessAfterInitialization(beanDefinition.getInstance(), beanDefinition.getName());
+                if (processedInstance != beanDefinition.getInstance()) {
+                    logger.atDebug().log("BeanPostProcessor {} return different bean from {} to {}.", bp.getClass().getSimpleName(),
+                            beanDefinition.getInstance().getClass().getName(), processedInstance.getClass().getName());
+                    beanDefinition.setInstance(processedInstance);
+                }
+            });
+        }
     }
 
     /**
@@ -100,17 +225,14 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     void injectBean(BeanDefinition beanDefinition) {
         // 注入到被代理的原始实例中
         Object instance = getProxiedInstance(beanDefinition);
-        try {
+        try (var step = this.startupTimeline.start(Phase.INJECT, beanDefinition.getName())) {
             injectProperties(beanDefinition, beanDefinition.getBeanClass(), instance);
-        } catch (ReflectiveOperationException e) {
-            throw new BeanCreationException(e);
         }
-
     }
 
     void createNormalBeans() {
         List<BeanDefinition> unInstance = this.beans.values().stream().
-                filter(bd -> bd.getInstance() == null).sorted().collect(Collectors.toList());
+                filter(bd -> bd.getInstance() == null && isEager(bd)).sorted().collect(Collectors.toList());
         unInstance.forEach(bd -> {
             // 如果Bean未被创建(可能在其他Bean的构造方法注入前被创建):
             if(bd.getInstance() == null) {
@@ -119,6 +241,106 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         });
     }
 
+    void createNormalBeansInParallel(ForkJoinPool pool, Map<String, List<BeanDefinition>> dependencies) {
+        List<BeanDefinition> unInstance = this.beans.values().stream().filter(bd -> bd.getInstance() == null && isEager(bd)).collect(Collectors.toList());
+        runInParallel(pool, unInstance, dependencies, bd -> {
+            // 可能已经被 BeanPostProcessor 等其他途径创建:
+            if (bd.getInstance() == null) {
+                createBeanAsEarlySingleton(bd);
+            }
+        });
+    }
+
+    /**
+     * 构造方法/工厂方法的依赖：@Bean 所在的 @Configuration 以及 @Autowired 参数，
+     * 由这些依赖组成的图必须是无环的，字段和 setter 注入、@Lazy 参数以及注入代理的 thread/request 作用域 bean 不在其中
+     */
+    Map<String, List<BeanDefinition>> resolveDependencies() {
+        Map<String, List<BeanDefinition>> dependencies = new HashMap<>();
+        for (BeanDefinition def : this.beans.values()) {
+            List<BeanDefinition> deps = new ArrayList<>();
+            Executable createFn;
+            if (def.getFactoryName() == null) {
+                createFn = def.getConstructor();
+            } else {
+                createFn = def.getFactoryMethod();
+                deps.add(findBeanDefinition(def.getFactoryName()));
+            }
+            Parameter[] parameters = createFn.getParameters();
+            for (Parameter parameter : parameters) {
+                Autowired autowired = parameter.getAnnotation(Autowired.class);
+                if (autowired != null && !isLazy(parameter)) {
+                    BeanDefinition dependsOnDef = autowired.name().isEmpty() ? findBeanDefinition(parameter.getType())
+                            : findBeanDefinition(autowired.name(), parameter.getType());
+                    if (dependsOnDef != null && !isScopedProxyRequired(dependsOnDef)) {
+                        deps.add(dependsOnDef);
+                    }
+                }
+            }
+            dependencies.put(def.getName(), deps);
+        }
+        return dependencies;
+    }
+
+    /**
+     * 按依赖的拓扑顺序把每个 bean 提交到线程池，依赖全部完成后才执行，互不依赖的 bean 并发执行
+     * 同一层级中按 @Order 的顺序提交；任何一个失败时，按 @Order 顺序抛出第一个失败的异常
+     */
+    void runInParallel(ForkJoinPool pool, Collection<BeanDefinition> definitions, Map<String, List<BeanDefinition>> dependencies,
+                       Consumer<BeanDefinition> action) {
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        for (BeanDefinition def : sortByDependencies(definitions, dependencies)) {
+            CompletableFuture<?>[] before = dependencies.get(def.getName()).stream().map(dep -> futures.get(dep.getName()))
+                    .filter(Objects::nonNull).toArray(CompletableFuture[]::new);
+            futures.put(def.getName(), CompletableFuture.allOf(before).thenRunAsync(() -> action.accept(def), pool));
+        }
+        for (BeanDefinition def : definitions.stream().sorted().toList()) {
+            try {
+                futures.get(def.getName()).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : new BeanCreationException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * 拓扑排序，发现环时抛出和串行创建相同的循环依赖异常
+     */
+    List<BeanDefinition> sortByDependencies(Collection<BeanDefinition> definitions, Map<String, List<BeanDefinition>> dependencies) {
+        Map<String, BeanDefinition> pending = new HashMap<>();
+        definitions.forEach(def -> pending.put(def.getName(), def));
+        Map<String, Integer> inDegrees = new HashMap<>();
+        Map<String, List<BeanDefinition>> dependents = new HashMap<>();
+        for (BeanDefinition def : definitions) {
+            int inDegree = 0;
+            for (BeanDefinition dep : dependencies.get(def.getName())) {
+                if (pending.containsKey(dep.getName())) {
+                    inDegree++;
+                    dependents.computeIfAbsent(dep.getName(), k -> new ArrayList<>()).add(def);
+                }
+            }
+            inDegrees.put(def.getName(), inDegree);
+        }
+        PriorityQueue<BeanDefinition> ready = new PriorityQueue<>();
+        definitions.stream().filter(def -> inDegrees.get(def.getName()) == 0).forEach(ready::add);
+        List<BeanDefinition> sorted = new ArrayList<>(definitions.size());
+        while (!ready.isEmpty()) {
+            BeanDefinition def = ready.poll();
+            sorted.add(def);
+            pending.remove(def.getName());
+            for (BeanDefinition dependent : dependents.getOrDefault(def.getName(), List.of())) {
+                if (inDegrees.merge(dependent.getName(), -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            BeanDefinition def = pending.values().stream().sorted().findFirst().get();
+            throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
+        }
+        return sorted;
+    }
+
     /**
      * 根据扫描的 beanClassNames 创建 BeanDefinition
      * @param beanClassNames
@@ -151,7 +373,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
 
                 String beanName = ClassUtils.getBeanName(clazz);
                 BeanDefinition beanDefinition = new BeanDefinition(beanName, clazz, getSuitableConstructor(clazz),
-                        getOrder(clazz), clazz.isAnnotationPresent(Primary.class),
+                        getOrder(clazz), clazz.isAnnotationPresent(Primary.class), isLazy(clazz, clazz), getScope(clazz, clazz, beanName),
                         null, null,
                         ClassUtils.findAnnotationMethod(clazz, PostConstruct.class),
                         ClassUtils.findAnnotationMethod(clazz, PreDestroy.class));
@@ -220,8 +442,9 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                     throw new BeanDefinitionException("@Bean method " + clazz.getName() + "." + method.getName() + " must not return void.");
                 }
                 // 创建 beanDefinition
-                var def = new BeanDefinition(ClassUtils.getBeanName(method), classType, factoryBeanName, method,
-                        getOrder(method), method.isAnnotationPresent(Primary.class),
+                String beanName = ClassUtils.getBeanName(method);
+                var def = new BeanDefinition(beanName, classType, factoryBeanName, method,
+                        getOrder(method), method.isAnnotationPresent(Primary.class), isLazy(method, classType), getScope(method, classType, beanName),
                         bean.initMethod().isEmpty() ? null : bean.initMethod(),
                         bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
                         null, null);
@@ -232,6 +455,47 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     }
 
 
+    /**
+     * BeanPostProcessor 必须在其他 bean 之前创建，忽略其上的 @Lazy
+     */
+    boolean isLazy(AnnotatedElement element, Class<?> beanClass) {
+        Lazy lazy = element.getAnnotation(Lazy.class);
+        return lazy != null && lazy.value() && !BeanPostProcessor.class.isAssignableFrom(beanClass);
+    }
+
+    /**
+     * 读取 @Scope，BeanPostProcessor 和 @Configuration 必须是单例
+     */
+    String getScope(AnnotatedElement element, Class<?> beanClass, String beanName) {
+        Scope scope = element.getAnnotation(Scope.class);
+        if (scope == null || Scope.SINGLETON.equals(scope.value())) {
+            return Scope.SINGLETON;
+        }
+        String value = scope.value();
+        if (!Scope.PROTOTYPE.equals(value) && !Scope.THREAD.equals(value) && !Scope.REQUEST.equals(value)) {
+            throw new BeanDefinitionException(String.format("Unknown scope '%s' of bean '%s': %s.", value, beanName, beanClass.getName()));
+        }
+        if (BeanPostProcessor.class.isAssignableFrom(beanClass) || ClassUtils.findAnnotation(beanClass, Configuration.class) != null) {
+            throw new BeanDefinitionException(String.format("BeanPostProcessor or @Configuration bean '%s' must be singleton: %s.", beanName, beanClass.getName()));
+        }
+        return value;
+    }
+
+    /**
+     * thread 和 request 作用域的 bean 注入到其他 bean 时注入代理，调用时才取当前线程/请求的实例
+     */
+    boolean isScopedProxyRequired(BeanDefinition def) {
+        return Scope.THREAD.equals(def.getScope()) || Scope.REQUEST.equals(def.getScope());
+    }
+
+    /**
+     * @Lazy 标注的注入点注入代理
+     */
+    boolean isLazy(AnnotatedElement element) {
+        Lazy lazy = element.getAnnotation(Lazy.class);
+        return lazy != null && lazy.value();
+    }
+
     void addBeanDefinitions(HashMap<String, BeanDefinition> defs, BeanDefinition news) {
         if (defs.put(news.getName(), news) != null) {
             throw new BeanDefinitionException("Duplicate bean name: "  + news.getName());
@@ -267,17 +531,38 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 new String[] { configClass.getPackage().getName() } : scan.value();
         logger.atInfo().log("component scan in packages: {}", Arrays.toString(scanPackages));
 
+        // 存在编译期生成的组件索引时直接读取索引，不再遍历目录
+        ComponentIndex index = null;
+        if (this.propertyResolver.getProperty("${xu-spring.context.component-index:true}", boolean.class)) {
+            index = ComponentIndex.load(getContextClassLoader());
+            if (index != null) {
+                logger.atInfo().log("use component index with {} components.", index.getEntries().size());
+            }
+        }
+
+        // 没有索引时先解析 class 文件，只加载可能是组件的类
+        ComponentCandidateFilter filter = index == null && this.propertyResolver.getProperty("${xu-spring.context.bytecode-filter:true}", boolean.class)
+                ? new ComponentCandidateFilter(getContextClassLoader()) : null;
+
         Set<String> classNameSet = new HashSet<>();
         for (String pkg : scanPackages) {
             logger.atDebug().log("scan package: {}", pkg);
-            ResourceResolver rr = new ResourceResolver(pkg);
-            List<String> classList = rr.scan(resource -> {
-                String name = resource.name();
-                if (name.endsWith(".class")) {
-                    return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
-                }
-                return null;
-            });
+            List<String> classList;
+            if (index != null) {
+                classList = index.getClassNames(pkg);
+            } else {
+                ResourceResolver rr = new ResourceResolver(pkg);
+                classList = rr.scan(resource -> {
+                    String name = resource.name();
+                    if (name.endsWith(".class")) {
+                        String className = name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+                        if (filter == null || filter.isCandidate(className)) {
+                            return className;
+                        }
+                    }
+                    return null;
+                });
+            }
             if (logger.isDebugEnabled()) {
                 classList.forEach((className) -> {
                     logger.debug("class found by component scan: {}", className);
@@ -301,6 +586,14 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return classNameSet;
     }
 
+    ClassLoader getContextClassLoader() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            cl = getClass().getClassLoader();
+        }
+        return cl;
+    }
+
     /**
      * 根据 name 查找 BeanDefinition
      */
@@ -323,12 +616,11 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     }
 
     /**
-     * 根据 Type 查找若干个 BeanDefinition
+     * 根据 Type 查找若干个 BeanDefinition，返回排好序的不可变列表
      */
     public List<BeanDefinition> findBeanDefinitions(Class<?> type) {
-        return this.beans.values().stream()
-                .filter(def -> type.isAssignableFrom(def.getBeanClass()))
-                .sorted().collect(Collectors.toList());
+        TypeEntry entry = this.typeIndex.get(type);
+        return entry == null ? List.of() : entry.definitions();
     }
 
     /**
@@ -336,139 +628,253 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
      * 1、返回被 @Primary 标注的（要求唯一）
      * 2、如果存在多个该注释抛出异常
      * 3、未进行注释同样抛出异常
+     * 结果在建立索引时已经确定
      */
     public BeanDefinition findBeanDefinition(Class<?> type) {
-        List<BeanDefinition> beanDefinitions = findBeanDefinitions(type);
-        if (beanDefinitions.isEmpty()) {
+        TypeEntry entry = this.typeIndex.get(type);
+        if (entry == null) {
             return null;
         }
-        if (beanDefinitions.size() == 1) {
-            return beanDefinitions.get(0);
+        if (entry.error() != null) {
+            throw new NoUniqueBeanDefinitionException(entry.error());
+        }
+        return entry.unique();
+    }
+
+    /**
+     * 把每个 BeanDefinition 登记到其类型的所有父类和接口下，并预先计算 @Primary 的结果
+     */
+    Map<Class<?>, TypeEntry> buildTypeIndex(Collection<BeanDefinition> definitions) {
+        Map<Class<?>, List<BeanDefinition>> index = new HashMap<>();
+        for (BeanDefinition def : definitions) {
+            for (Class<?> type : getAssignableTypes(def.getBeanClass())) {
+                index.computeIfAbsent(type, t -> new ArrayList<>()).add(def);
+            }
+        }
+        Map<Class<?>, TypeEntry> typeIndex = new HashMap<>(index.size() * 2);
+        index.forEach((type, defs) -> {
+            Collections.sort(defs);
+            typeIndex.put(type, createTypeEntry(type, List.copyOf(defs)));
+        });
+        return typeIndex;
+    }
+
+    TypeEntry createTypeEntry(Class<?> type, List<BeanDefinition> defs) {
+        if (defs.size() == 1) {
+            return new TypeEntry(defs, defs.get(0), null);
         }
-        List<BeanDefinition> primaryDefs = beanDefinitions.stream().filter(def -> def.isPrimary()).collect(Collectors.toList());
+        List<BeanDefinition> primaryDefs = defs.stream().filter(def -> def.isPrimary()).collect(Collectors.toList());
         if (primaryDefs.size() == 1) {
-            return primaryDefs.get(0);
+            return new TypeEntry(defs, primaryDefs.get(0), null);
         }
         if (primaryDefs.isEmpty()) {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, but no @Primary specified.", type.getName()));
+            return new TypeEntry(defs, null, String.format("Multiple bean with type '%s' found, but no @Primary specified.", type.getName()));
         } else {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", type.getName()));
+            return new TypeEntry(defs, null, String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", type.getName()));
+        }
+    }
+
+    /**
+     * 类型本身、所有父类和接口（含父接口），以及 Object
+     */
+    static Set<Class<?>> getAssignableTypes(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (!types.add(type)) {
+                continue;
+            }
+            if (type.getSuperclass() != null) {
+                queue.add(type.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(type.getInterfaces()));
         }
+        types.add(Object.class);
+        return types;
+    }
+
+    /**
+     * 类型索引的一项，unique 为按类型查找唯一 bean 的结果，无法确定时 error 记录异常信息
+     */
+    protected record TypeEntry(List<BeanDefinition> definitions, BeanDefinition unique, String error) {
     }
 
 
+    /**
+     * 创建 bean 的线程以及创建结果
+     */
+    record Creation(Thread thread, CompletableFuture<Object> future) {
+    }
+
     boolean isConfigurationDefinition(BeanDefinition def) {
         return ClassUtils.findAnnotation(def.getBeanClass(), Configuration.class) != null;
     }
 
     /**
      * bean 的创建，需要处理循环依赖的问题
+     * 并行启动时如果其他线程正在创建同一个 bean，则等待其完成，等待链回到当前线程时说明存在循环依赖
      */
     public Object createBeanAsEarlySingleton(BeanDefinition definition) {
         logger.atDebug().log("Try create bean '{}' as early singleton: {}", definition.getName(), definition.getBeanClass().getName());
-        if (!creatingBeanNames.add(definition.getName())) {
-            throw new UnsatisfiedDependencyException(
-                    String.format("Circular dependency detected when create bean '%s'", definition.getName()));
+        Creation creation = new Creation(Thread.currentThread(), new CompletableFuture<>());
+        Creation exist = creatingBeanNames.putIfAbsent(definition.getName(), creation);
+        if (exist != null) {
+            if (!this.parallelStartup) {
+                throw new UnsatisfiedDependencyException(
+                        String.format("Circular dependency detected when create bean '%s'", definition.getName()));
+            }
+            return awaitCreation(definition, exist);
+        }
+        try {
+            Object instance = doCreateBean(definition);
+            creation.future().complete(instance);
+            return instance;
+        } catch (RuntimeException e) {
+            creation.future().completeExceptionally(e);
+            throw e;
         }
+    }
 
-        // 得到创建bean的方法，构造方法/工厂方法
-        Executable createFn = null;
-        if (definition.getFactoryName() == null) {
-            createFn = definition.getConstructor();
-        } else {
-            createFn = definition.getFactoryMethod();
-        }
-
-        // 处理创建bean的参数
-        final Parameter[] parameters = createFn.getParameters();
-        final Annotation[][] annotations = createFn.getParameterAnnotations();
-        Object[] args = new Object[parameters.length];
-        for (int i = 0; i < parameters.length; i ++) {
-            final Parameter parameter = parameters[i];
-            final Annotation[] paramAnnos = annotations[i];
-            // 这里只处理被 @Autowired、@Value 注解的参数
-            final Value value = ClassUtils.getAnnotation(paramAnnos, Value.class);
-            final Autowired autowired = ClassUtils.getAnnotation(paramAnnos, Autowired.class);
-
-            // @Configuration类型的Bean是工厂，不允许使用@Autowired创建
-            final boolean isConfiguration = isConfigurationDefinition(definition);
-            if (isConfiguration && autowired != null) {
-                throw new BeanCreationException(String.format("Cannot specify @Autowired when create @Configuration bean '%s': %s.",
-                        definition.getName(), definition.getBeanClass().getName()));
-            }
-
-            // BeanPostProcessor 不允许由@Autowired创建，不能依赖其他bean
-            final boolean isBeanPostProcessor = isBeanPostProcessorDefinition(definition);
-            if (isBeanPostProcessor && autowired!= null) {
-                throw new BeanCreationException(String.format("Cannot specify @Autowired when create BeanPostProcessor '%s': %s.",
-                        definition.getName(), definition.getBeanClass().getName()));
-            }
-
-            // 对注解 @Value、@Autowired 的要求
-            if (value == null && autowired == null) {
-                String.format("Must specify @Autowired or @Value when create bean '%s': %s.", definition.getName(), definition.getBeanClass().getName());
-            }
-            if (value != null && autowired != null) {
-                throw new BeanCreationException(
-                        String.format("Cannot specify both @Autowired and @Value when create bean '%s': %s.",
-                                definition.getName(), definition.getBeanClass().getName()));
-            }
-
-            final Class<?> type = parameter.getType();
-            if (value != null) { // @Value
-                args[i] = this.propertyResolver.getRequiredProperty(value.value(), type);
-            } else { // @Autowired
-                String name = autowired.name();
-                boolean required = autowired.value();
-                BeanDefinition dependsOnDef = name.isEmpty() ? findBeanDefinition(type) : findBeanDefinition(name, type);
-                if (required && dependsOnDef == null) {
-                    throw new BeanCreationException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.",
-                            type.getName(), definition.getName(), definition.getBeanClass().getName()));
-                }
-                if (dependsOnDef != null) {
-                    Object autowiredBeanInstance = dependsOnDef.getInstance();
-                    if (autowiredBeanInstance == null && !isConfiguration && !isBeanPostProcessor) {
-                        // 还没有被初始化，则 createBeanAsEarlySingleton 创建
-                        autowiredBeanInstance = createBeanAsEarlySingleton(dependsOnDef);
-                    }
-                    args[i] = autowiredBeanInstance;
-                } else {
-                    args[i] = null;
+    Object awaitCreation(BeanDefinition definition, Creation exist) {
+        Thread current = Thread.currentThread();
+        // 先登记再检查，两个线程互相等待时至少一方能发现
+        this.waitingCreations.put(current, exist);
+        try {
+            if (exist.future().isDone()) {
+                return exist.future().join();
+            }
+            Thread owner = exist.thread();
+            for (int i = 0; owner != null && i <= this.waitingCreations.size(); i++) {
+                if (owner == current) {
+                    throw new UnsatisfiedDependencyException(
+                            String.format("Circular dependency detected when create bean '%s'", definition.getName()));
                 }
+                Creation waiting = this.waitingCreations.get(owner);
+                owner = waiting == null ? null : waiting.thread();
             }
+            return exist.future().join();
+        } catch (CompletionException e) {
+            throw new BeanCreationException(String.format("Exception when create bean '%s': %s", definition.getName(), definition.getBeanClass().getName()),
+                    e.getCause());
+        } finally {
+            this.waitingCreations.remove(current);
         }
+    }
 
-        // 创建bean对象
-        Object instance = null;
-        // 构造方法
-        if (definition.getFactoryName() == null) {
-            try {
-                instance = definition.getConstructor().newInstance(args);
-            } catch (Exception e) {
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", definition.getName(), definition.getBeanClass().getName()), e);
-            }
-        } else {
-            // 用@Bean的方式创建：
-            Object configInstance = getBean(definition.getFactoryName());
-            try {
-                instance = definition.getFactoryMethod().invoke(configInstance, args);
-            } catch (Exception e) {
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", definition.getName(), definition.getBeanClass().getName()), e);
+    Object doCreateBean(BeanDefinition definition) {
+
+        try (var step = this.startupTimeline.start(Phase.CONSTRUCT, definition.getName())) {
+            // 得到创建bean的方法，构造方法/工厂方法
+            Executable createFn = null;
+            if (definition.getFactoryName() == null) {
+                createFn = definition.getConstructor();
+            } else {
+                createFn = definition.getFactoryMethod();
             }
-        }
 
-        definition.setInstance(instance);
+            // 处理创建bean的参数
+            final Parameter[] parameters = createFn.getParameters();
+            final Annotation[][] annotations = createFn.getParameterAnnotations();
+            Object[] args = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i ++) {
+                final Parameter parameter = parameters[i];
+                final Annotation[] paramAnnos = annotations[i];
+                // 这里只处理被 @Autowired、@Value 注解的参数
+                final Value value = ClassUtils.getAnnotation(paramAnnos, Value.class);
+                final Autowired autowired = ClassUtils.getAnnotation(paramAnnos, Autowired.class);
+
+                // @Configuration类型的Bean是工厂，不允许使用@Autowired创建
+                final boolean isConfiguration = isConfigurationDefinition(definition);
+                if (isConfiguration && autowired != null) {
+                    throw new BeanCreationException(String.format("Cannot specify @Autowired when create @Configuration bean '%s': %s.",
+                            definition.getName(), definition.getBeanClass().getName()));
+                }
+
+                // BeanPostProcessor 不允许由@Autowired创建，不能依赖其他bean
+                final boolean isBeanPostProcessor = isBeanPostProcessorDefinition(definition);
+                if (isBeanPostProcessor && autowired!= null) {
+                    throw new BeanCreationException(String.format("Cannot specify @Autowired when create BeanPostProcessor '%s': %s.",
+                            definition.getName(), definition.getBeanClass().getName()));
+                }
+
+                // 对注解 @Value、@Autowired 的要求
+                if (value == null && autowired == null) {
+                    String.format("Must specify @Autowired or @Value when create bean '%s': %s.", definition.getName(), definition.getBeanClass().getName());
+                }
+                if (value != null && autowired != null) {
+                    throw new BeanCreationException(
+                            String.format("Cannot specify both @Autowired and @Value when create bean '%s': %s.",
+                                    definition.getName(), definition.getBeanClass().getName()));
+                }
+
+                final Class<?> type = parameter.getType();
+                if (value != null) { // @Value
+                    args[i] = this.propertyResolver.getRequiredProperty(value.value(), type);
+                } else { // @Autowired
+                    String name = autowired.name();
+                    boolean required = autowired.value();
+                    BeanDefinition dependsOnDef = name.isEmpty() ? findBeanDefinition(type) : findBeanDefinition(name, type);
+                    if (dependsOnDef == null && isContextDependency(type)) {
+                        args[i] = this;
+                        continue;
+                    }
+                    if (required && dependsOnDef == null) {
+                        throw new BeanCreationException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.",
+                                type.getName(), definition.getName(), definition.getBeanClass().getName()));
+                    }
+                    if (dependsOnDef != null && (isLazy(parameter) || isScopedProxyRequired(dependsOnDef))) {
+                        args[i] = createLazyProxy(type, dependsOnDef);
+                    } else if (dependsOnDef != null && !isEager(dependsOnDef)) {
+                        args[i] = getInstance(dependsOnDef);
+                    } else if (dependsOnDef != null) {
+                        Object autowiredBeanInstance = dependsOnDef.getInstance();
+                        if (autowiredBeanInstance == null && !isConfiguration && !isBeanPostProcessor) {
+                            // 还没有被初始化，则 createBeanAsEarlySingleton 创建
+                            autowiredBeanInstance = createBeanAsEarlySingleton(dependsOnDef);
+                        }
+                        args[i] = autowiredBeanInstance;
+                    } else {
+                        args[i] = null;
+                    }
+                }
+            }
 
-        // BeanPostProcessor 处理 bean
-        for (BeanPostProcessor processor : beanPostProcessors) {
-            Object processed = processor.postProcessBeforeInitialization(definition.getInstance(), definition.getName());
-            if (processed == null) {
-                throw new BeanCreationException(String.format("PostBeanProcessor returns null when process bean '%s' by %s", definition.getName(), processor));
+            // 创建bean对象
+            Object instance = null;
+            // 构造方法
+            if (definition.getFactoryName() == null) {
+                try {
+                    instance = definition.getConstructor().newInstance(args);
+                } catch (Exception e) {
+                    throw new BeanCreationException(String.format("Exception when create bean '%s': %s", definition.getName(), definition.getBeanClass().getName()), e);
+                }
+            } else {
+                // 用@Bean的方式创建：
+                Object configInstance = getBean(definition.getFactoryName());
+                try {
+                    instance = definition.getFactoryMethod().invoke(configInstance, args);
+                } catch (Exception e) {
+                    throw new BeanCreationException(String.format("Exception when create bean '%s': %s", definition.getName(), definition.getBeanClass().getName()), e);
+                }
             }
-            // 如果 BeanPostProcessor 使用代理对象替换了原始的bean，那么需要更新引用
-            if (definition.getInstance() != processed) {
-                logger.atDebug().log("Bean '{}' was replaced by post processor {}.", definition.getName(), processor.getClass().getName());
-                definition.setInstance(processed);
+
+            definition.setInstance(instance);
+        }
+
+        try (var step = this.startupTimeline.start(Phase.POST_PROCESS, definition.getName())) {
+            // BeanPostProcessor 处理 bean
+            for (BeanPostProcessor processor : beanPostProcessors) {
+                Object processed = processor.postProcessBeforeInitialization(definition.getInstance(), definition.getName());
+                if (processed == null) {
+                    throw new BeanCreationException(String.format("PostBeanProcessor returns null when process bean '%s' by %s", definition.getName(), processor));
+                }
+                // 如果 BeanPostProcessor 使用代理对象替换了原始的bean，那么需要更新引用
+                if (definition.getInstance() != processed) {
+                    logger.atDebug().log("Bean '{}' was replaced by post processor {}.", definition.getName(), processor.getClass().getName());
+                    definition.setInstance(processed);
+                }
             }
         }
 
@@ -476,85 +882,277 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     }
 
     /**
-     * 注入属性
+     * 注入属性，注入点来自按类缓存的 InjectionMetadata，不再逐个反射扫描字段和方法
      */
-    void injectProperties(BeanDefinition def, Class<?> clazz, Object bean) throws ReflectiveOperationException {
-        for(Field field : clazz.getDeclaredFields()) {
-            tryInjectProperties(def, clazz, bean, field);
+    void injectProperties(BeanDefinition def, Class<?> clazz, Object bean) {
+        for (InjectionMetadata.InjectionPoint point : InjectionMetadata.forClass(clazz)) {
+            Object value = resolveInjection(def, point).get();
+            if (value != null) {
+                logger.atDebug().log("{} injection: {}.{} = {}", point.field() ? "Field" : "Method", def.getBeanClass().getName(), point.name(), value);
+                try {
+                    point.inject(bean, value);
+                } catch (BeansException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new BeanCreationException(String.format("Exception when inject %s.%s for bean '%s': %s",
+                            point.declaringClass().getSimpleName(), point.name(), def.getName(), def.getBeanClass().getName()), e);
+                }
+            }
         }
-        for (Method method : clazz.getDeclaredMethods()) {
-            tryInjectProperties(def, clazz, bean, method);
+    }
+
+    /**
+     * 注入点的值：@Value 在这里解析一次，@Autowired 见 compileAutowired
+     */
+    Supplier<?> resolveInjection(BeanDefinition def, InjectionMetadata.InjectionPoint point) {
+        if (point.value() != null) {
+            Object property = this.propertyResolver.getRequiredProperty(point.value().value(), point.type());
+            return () -> property;
         }
-        Class<?> superclass = clazz.getSuperclass();
-        if (superclass != null) {
-            injectProperties(def, superclass, bean);
+        return compileAutowired(def, point.autowired(), point.type(), point.lazy());
+    }
+
+    /**
+     * 返回 bean 实例，@Lazy 的 bean 在第一次获取时才创建、注入并初始化，其他线程等待其完成
+     * 同一线程在此过程中再次获取（如字段循环引用）时返回尚未初始化完成的早期实例
+     */
+    Object getInstance(BeanDefinition def) {
+        if (!def.isSingleton()) {
+            return getScopedInstance(def);
+        }
+        if (!def.isLazy()) {
+            if (def.getInstance() == null) {
+                // 启动时 @Lazy bean 的注入可能先于其依赖的 bean 被创建
+                return createBeanAsEarlySingleton(def);
+            }
+            return def.getInstance();
+        }
+        Object instance = this.lazyInstances.get(def.getName());
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (def) {
+            instance = this.lazyInstances.get(def.getName());
+            if (instance == null) {
+                if (def.getInstance() != null) {
+                    return def.getInstance();
+                }
+                logger.atDebug().log("create lazy bean: {}", def.getName());
+                try {
+                    createBeanAsEarlySingleton(def);
+                    injectBean(def);
+                    initBean(def);
+                } catch (RuntimeException e) {
+                    // 丢弃未完成的实例，之后的获取重新创建，而不是返回尚未注入或初始化的实例
+                    def.clearInstance();
+                    this.creatingBeanNames.remove(def.getName());
+                    throw e;
+                }
+                instance = def.getRequiredInstance();
+                this.lazyInstances.put(def.getName(), instance);
+            }
+            return instance;
         }
     }
 
-    void tryInjectProperties(BeanDefinition def, Class<?> clazz, Object bean, AccessibleObject acc) throws ReflectiveOperationException {
-        Value value = acc.getAnnotation(Value.class);
-        Autowired autowired = acc.getAnnotation(Autowired.class);
-        if (value == null && autowired == null) {
-            return;
+    /**
+     * 非单例的 bean：prototype 每次创建新实例，thread 和 request 作用域在当前线程/请求中只创建一次
+     */
+    Object getScopedInstance(BeanDefinition def) {
+        return switch (def.getScope()) {
+            case Scope.THREAD -> {
+                ThreadScope scope = currentThreadScope();
+                yield getOrCreateScopedInstance(scope.instances, def, scope::addDestructionCallback);
+            }
+            case Scope.REQUEST -> {
+                RequestScope requestScope = RequestScope.current();
+                if (requestScope == null) {
+                    throw new BeanCreationException(String.format("No request bound to current thread when get request scoped bean '%s': %s.",
+                            def.getName(), def.getBeanClass().getName()));
+                }
+                yield getOrCreateScopedInstance(requestScope.instances, def, requestScope::addDestructionCallback);
+            }
+            default -> createScopedInstance(def, null);
+        };
+    }
+
+    Object getOrCreateScopedInstance(Map<String, Object> instances, BeanDefinition def, Consumer<Runnable> destructionCallbacks) {
+        Object instance = instances.get(def.getName());
+        if (instance == null) {
+            instance = createScopedInstance(def, destructionCallbacks);
+            instances.put(def.getName(), instance);
         }
+        return instance;
+    }
 
-        Field field = null;
-        Method method = null;
-        if (acc instanceof Field f) {
-            checkFieldOrMethod(f);
-            f.setAccessible(true);
-            field = f;
+    /**
+     * 按实例化计划创建并注入，再依次调用 postProcessBeforeInitialization、初始化方法和 postProcessAfterInitialization
+     * request 作用域的 bean 在请求结束时、thread 作用域的 bean 在 context 关闭时调用销毁方法，prototype 不销毁
+     */
+    Object createScopedInstance(BeanDefinition def, @Nullable Consumer<Runnable> destructionCallbacks) {
+        Set<String> creating = this.creatingScopedNames.get();
+        if (!creating.add(def.getName())) {
+            throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
         }
-        if (acc instanceof Method m) {
-            checkFieldOrMethod(m);
-            if (m.getParameters().length != 1) {
-                throw new BeanDefinitionException(
-                        String.format("Cannot inject a non-setter method %s for bean '%s': %s",
-                                m.getName(), def.getName(), def.getBeanClass().getName()));
+        try {
+            InstantiationPlan plan = this.plans.computeIfAbsent(def.getName(), name -> compilePlan(def));
+            final Object raw;
+            try {
+                raw = plan.instantiate();
+            } catch (BeansException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+            }
+            Object instance = raw;
+            for (BeanPostProcessor processor : this.beanPostProcessors) {
+                Object processed = processor.postProcessBeforeInitialization(instance, def.getName());
+                if (processed == null) {
+                    throw new BeanCreationException(String.format("PostBeanProcessor returns null when process bean '%s' by %s", def.getName(), processor));
+                }
+                instance = processed;
+            }
+            callMethod(raw, def.getInitMethod(), def.getInitMethodName());
+            for (BeanPostProcessor processor : this.beanPostProcessors) {
+                instance = processor.postProcessAfterInitialization(instance, def.getName());
+            }
+            if (destructionCallbacks != null) {
+                destructionCallbacks.accept(() -> callMethod(raw, def.getDestroyMethod(), def.getDestroyMethodName()));
             }
-            m.setAccessible(true);
-            method = m;
+            return instance;
+        } finally {
+            creating.remove(def.getName());
         }
-        String accessibleName = field != null ? field.getName() : method.getName();
-        Class<?> accessibleType = field != null ? field.getType() : method.getParameters()[0].getType();
+    }
 
-        if (value != null && autowired != null) {
-            throw new BeanCreationException(String.format("Cannot specify both @Autowired and @Value when inject %s.%s for bean '%s': %s",
-                    clazz.getSimpleName(), accessibleName, def.getName(), def.getBeanClass().getName()));
+    /**
+     * 当前线程的 ThreadScope，第一次使用时创建并登记，同时销毁已经结束的线程中的实例
+     */
+    ThreadScope currentThreadScope() {
+        ThreadScope scope = this.threadScope.get();
+        if (scope == null) {
+            for (Iterator<ThreadScope> it = this.threadScopes.iterator(); it.hasNext(); ) {
+                ThreadScope exist = it.next();
+                if (!exist.isAlive()) {
+                    it.remove();
+                    exist.destroy();
+                }
+            }
+            scope = new ThreadScope(Thread.currentThread());
+            this.threadScope.set(scope);
+            this.threadScopes.add(scope);
         }
+        return scope;
+    }
 
-        if (value != null) {
-            Object property = this.propertyResolver.getRequiredProperty(value.value(), accessibleType);
-            if (field != null) {
-                logger.atDebug().log("Field injection: {}.{} = {}", def.getBeanClass().getName(), accessibleName, property);
-                field.set(bean, property);
+    /**
+     * 编译实例化计划：参数的注解、@Value 的值以及依赖的 BeanDefinition 只在这里解析一次，注入点来自 InjectionMetadata
+     */
+    InstantiationPlan compilePlan(BeanDefinition def) {
+        logger.atDebug().log("compile instantiation plan of bean '{}'.", def.getName());
+        Executable createFn = def.getFactoryName() == null ? def.getConstructor() : def.getFactoryMethod();
+        Parameter[] parameters = createFn.getParameters();
+        Supplier<?>[] args = new Supplier<?>[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            args[i] = compileParameter(def, parameters[i]);
+        }
+        try {
+            // Constructor 和 Method 已经 setAccessible，unreflect 不再检查访问权限
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle creator;
+            Supplier<?> factoryBean = null;
+            if (def.getFactoryName() == null) {
+                creator = lookup.unreflectConstructor(def.getConstructor()).asFixedArity().asSpreader(Object[].class, parameters.length);
+                creator = MethodHandles.dropArguments(creator, 0, Object.class);
             } else {
-                logger.atDebug().log("Method injection: {}.{} = {}", def.getBeanClass().getName(), accessibleName, property);
-                method.invoke(bean, property);
+                Method method = def.getFactoryMethod();
+                creator = lookup.unreflect(method).asFixedArity();
+                if (Modifier.isStatic(method.getModifiers())) {
+                    creator = MethodHandles.dropArguments(creator, 0, Object.class);
+                }
+                creator = creator.asSpreader(Object[].class, parameters.length);
+                BeanDefinition factoryDef = findBeanDefinition(def.getFactoryName());
+                factoryBean = () -> getInstance(factoryDef);
             }
+            creator = creator.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            List<InstantiationPlan.Injection> injections = InjectionMetadata.forClass(def.getBeanClass()).stream()
+                    .map(point -> new InstantiationPlan.Injection(point, resolveInjection(def, point))).toList();
+            return new InstantiationPlan(def, creator, factoryBean, args, injections);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(String.format("Cannot compile instantiation plan of bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
         }
+    }
 
-        if (autowired != null) {
-            String name = autowired.name();
-            boolean required = autowired.value();
-            Object depends = name.isEmpty() ? findBean(accessibleType) : findBean(name, accessibleType);
+    Supplier<?> compileParameter(BeanDefinition def, Parameter parameter) {
+        Value value = parameter.getAnnotation(Value.class);
+        Autowired autowired = parameter.getAnnotation(Autowired.class);
+        if (value != null && autowired != null) {
+            throw new BeanCreationException(String.format("Cannot specify both @Autowired and @Value when create bean '%s': %s.",
+                    def.getName(), def.getBeanClass().getName()));
+        }
+        if (value == null && autowired == null) {
+            throw new BeanCreationException(String.format("Must specify @Autowired or @Value when create bean '%s': %s.",
+                    def.getName(), def.getBeanClass().getName()));
+        }
+        Class<?> type = parameter.getType();
+        if (value != null) {
+            Object property = this.propertyResolver.getRequiredProperty(value.value(), type);
+            return () -> property;
+        }
+        return compileAutowired(def, autowired, type, isLazy(parameter));
+    }
 
-            if (required && depends == null) {
+    /**
+     * @Lazy 注入点以及 thread/request 作用域的依赖在编译时创建代理，其他依赖每次通过 getInstance 获取，prototype 的依赖每次都是新实例
+     */
+    Supplier<?> compileAutowired(BeanDefinition def, Autowired autowired, Class<?> type, boolean lazy) {
+        BeanDefinition dependsOnDef = autowired.name().isEmpty() ? findBeanDefinition(type) : findBeanDefinition(autowired.name(), type);
+        if (dependsOnDef == null && isContextDependency(type)) {
+            return () -> this;
+        }
+        if (dependsOnDef == null) {
+            if (autowired.value()) {
                 throw new BeanCreationException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.",
-                        accessibleType.getName(), def.getName(), def.getBeanClass().getName()));
+                        type.getName(), def.getName(), def.getBeanClass().getName()));
             }
+            return () -> null;
+        }
+        if (lazy || isScopedProxyRequired(dependsOnDef)) {
+            Object proxy = createLazyProxy(type, dependsOnDef);
+            return () -> proxy;
+        }
+        return () -> getInstance(dependsOnDef);
+    }
 
-            if (depends != null) {
-                if (field != null) {
-                    logger.atDebug().log("Field injection: {}.{} = {}", def.getBeanClass().getName(), accessibleName, depends);
-                    field.set(bean, depends);
+    /**
+     * 为 @Lazy 注入点以及 thread/request 作用域的 bean 创建代理，每次调用方法时通过 getInstance 取得真正的 bean
+     */
+    Object createLazyProxy(Class<?> type, BeanDefinition def) {
+        Supplier<Object> target = () -> getInstance(def);
+        if (type.isInterface()) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                // 打印日志等调用 toString、equals、hashCode 时不创建 bean
+                if (method.getDeclaringClass() == Object.class) {
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> "LazyProxy[" + def.getName() + "]";
+                    };
                 }
-                if (method != null) {
-                    logger.atDebug().log("Method injection: {}.{} = {}", def.getBeanClass().getName(), accessibleName, depends);
-                    method.invoke(bean, depends);
+                try {
+                    return method.invoke(target.get(), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
                 }
-            }
+            });
+        }
+        LazyProxyFactory factory = lazyProxyFactory;
+        if (factory == null) {
+            factory = ServiceLoader.load(LazyProxyFactory.class, getContextClassLoader()).findFirst().orElseThrow(() -> new BeanCreationException(
+                    String.format("Cannot create lazy proxy for class '%s' of bean '%s': spring-aop is required for class types.", type.getName(), def.getName())));
+            lazyProxyFactory = factory;
         }
+        return factory.createLazyProxy(type, target);
     }
 
     @Nullable
@@ -564,7 +1162,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (definition == null) {
             return null;
         }
-        return (T) definition.getRequiredInstance();
+        return (T) getInstance(definition);
     }
 
     @SuppressWarnings("unchecked")
@@ -573,7 +1171,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             throw new NoSuchBeanDefinitionException(String.format("No bean defined with type '%s'.", requiredType));
         }
-        return (T) def.getRequiredInstance();
+        return (T) getInstance(def);
     }
 
     @SuppressWarnings("unchecked")
@@ -582,7 +1180,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (beanDefinition == null) {
             throw new BeanDefinitionException(String.format("No bean defined with name '%s'.", name));
         }
-        return (T) beanDefinition.getRequiredInstance();
+        return (T) getInstance(beanDefinition);
     }
 
     /**
@@ -593,21 +1191,6 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     }
 
 
-    void checkFieldOrMethod(Member member) {
-        int modifiers = member.getModifiers();
-        if (Modifier.isStatic(modifiers)) {
-            throw new BeanDefinitionException("Cannot inject static field: " + modifiers);
-        }
-        if (Modifier.isFinal(modifiers)) {
-            if (member instanceof Field field) {
-                throw new BeanDefinitionException("Cannot inject final field: " + field);
-            }
-            if (member instanceof Method) {
-                logger.warn("Inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
-            }
-        }
-    }
-
     @Nullable
     @SuppressWarnings("unchecked")
     public <T> T findBean(String name, Class<T> requiredType) {
@@ -615,7 +1198,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             return null;
         }
-        return (T) def.getRequiredInstance();
+        return (T) getInstance(def);
     }
 
     @Nullable
@@ -625,14 +1208,14 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             return null;
         }
-        return (T) def.getRequiredInstance();
+        return (T) getInstance(def);
     }
 
     @Nullable
     @SuppressWarnings("unchecked")
     public <T> List<T> findBeans(Class<T> requiredType) {
         return findBeanDefinitions(requiredType).stream().
-                map(bd -> (T) bd.getRequiredInstance()).collect(Collectors.toList());
+                map(bd -> (T) getInstance(bd)).collect(Collectors.toList());
     }
 
     private void callMethod(Object instance, Method method, String nameMethod) {
@@ -695,7 +1278,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
         ArrayList<T> list = new ArrayList<>(beanDefinitions.size());
         for (BeanDefinition def : beanDefinitions) {
-            list.add((T) def.getRequiredInstance());
+            list.add((T) getInstance(def));
         }
         return list;
     }
@@ -706,11 +1289,24 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     @Override
     public void close() {
         logger.info("Closing {}...", this.getClass().getName());
+        // 先投递尚未处理的异步事件，再销毁 bean
+        this.eventMulticaster.close();
+        // thread 作用域的 bean 可能依赖单例，先销毁；其他线程中的 ThreadScope 清空后不再引用这些 bean
+        this.threadScopes.forEach(ThreadScope::destroy);
+        this.threadScopes.clear();
+        this.threadScope.remove();
         this.beans.values().forEach(def -> {
+            // 没有被使用过的 @Lazy bean 以及非单例的 bean 不在这里销毁
+            if (def.getInstance() == null) {
+                return;
+            }
             final Object instance = getProxiedInstance(def);
             callMethod(instance, def.getDestroyMethod(), def.getDestroyMethodName());
         });
         this.beans.clear();
+        this.lazyInstances.clear();
+        this.plans.clear();
+        this.typeIndex.clear();
         logger.info("{} closed.", this.getClass().getName());
         ApplicationContextUtils.setApplicationContext(null);
     }
@@ -6,7 +6,7 @@ import java.util.List;
  * created by Xu on 2024/5/23 9:40.
  * 给用户使用的ApplicationContext接口
  */
-public interface ApplicationContext extends AutoCloseable {
+public interface ApplicationContext extends ApplicationEventPublisher, AutoCloseable {
     // 是否存在指定name的Bean？
     boolean containsBean(String name);
      // 根据name返回唯一Bean，未找到抛出NoSuchBeanDefinitionException
@@ -0,0 +1,341 @@
+package cn.xu.spring.context;
+
+import cn.xu.spring.annotation.Async;
+import cn.xu.spring.annotation.EventListener;
+import cn.xu.spring.annotation.Order;
+import cn.xu.spring.exception.BeanDefinitionException;
+import cn.xu.spring.exception.NestedRuntimeException;
+import cn.xu.spring.io.PropertyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * created by Xu on 2026/10/18 23:40.
+ * 事件分发：启动完成后登记所有 @EventListener 方法，每个方法编译成 (Object bean, Object event) -> void 的 MethodHandle
+ * 按事件的实际类型缓存匹配的监听器（父类和接口只计算一次），发布时直接遍历数组调用
+ * @Async 的监听器在有界线程池中执行，队列满时由发布线程执行；批量监听器先把事件攒成 List 再交给线程池
+ */
+class ApplicationEventMulticaster implements AutoCloseable {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    static final Listener[] NO_LISTENERS = new Listener[0];
+
+    static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    final int asyncThreads;
+    final int queueCapacity;
+
+    // 按 @Order 排序的全部监听器
+    volatile List<Listener> listeners = List.of();
+
+    // 事件类型 -> 匹配的监听器
+    final Map<Class<?>, Listener[]> cache = new ConcurrentHashMap<>();
+
+    // 有 @Async 监听器时才创建
+    volatile ThreadPoolExecutor executor;
+    volatile ScheduledExecutorService scheduler;
+
+    ApplicationEventMulticaster(PropertyResolver propertyResolver) {
+        this.asyncThreads = propertyResolver.getProperty("xu-spring.events.async-threads", int.class, Runtime.getRuntime().availableProcessors());
+        this.queueCapacity = propertyResolver.getProperty("${xu-spring.events.queue-capacity:1024}", int.class);
+    }
+
+    /**
+     * 登记 bean 类及其父类上的 @EventListener 方法，target 返回调用方法的 bean 实例
+     */
+    void addListeners(BeanDefinition def, Supplier<Object> target) {
+        List<Listener> found = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> c = def.getBeanClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                EventListener eventListener = method.getAnnotation(EventListener.class);
+                // 子类覆写的方法优先
+                if (eventListener != null && signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    found.add(createListener(def, method, eventListener, target));
+                }
+            }
+        }
+        if (!found.isEmpty()) {
+            List<Listener> added = new ArrayList<>(this.listeners);
+            added.addAll(found);
+            added.sort(Comparator.comparingInt(listener -> listener.order));
+            this.listeners = List.copyOf(added);
+            this.cache.clear();
+        }
+    }
+
+    Listener createListener(BeanDefinition def, Method method, EventListener eventListener, Supplier<Object> target) {
+        String name = def.getBeanClass().getName() + "." + method.getName();
+        int mod = method.getModifiers();
+        if (Modifier.isStatic(mod) || Modifier.isPrivate(mod)) {
+            throw new BeanDefinitionException("@EventListener method " + name + " must not be static or private.");
+        }
+        if (method.getParameterCount() != 1) {
+            throw new BeanDefinitionException("@EventListener method " + name + " must have exactly one parameter.");
+        }
+        boolean async = method.isAnnotationPresent(Async.class);
+        boolean batch = eventListener.batchSize() > 1;
+        if (batch && !async) {
+            throw new BeanDefinitionException("@EventListener method " + name + " with batchSize > 1 must be @Async.");
+        }
+        Class<?> eventType = batch ? getListElementType(method, name) : method.getParameterTypes()[0];
+        MethodHandle invoker;
+        try {
+            method.setAccessible(true);
+            invoker = MethodHandles.lookup().unreflect(method).asFixedArity().asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeanDefinitionException("Cannot access @EventListener method " + name, e);
+        }
+        Order order = method.getAnnotation(Order.class);
+        int orderValue = order == null ? Integer.MAX_VALUE : order.value();
+        logger.atDebug().log("register event listener {} for event {}, async={}, batchSize={}", name, eventType.getName(), async, eventListener.batchSize());
+        if (batch) {
+            return new BatchListener(name, eventType, orderValue, invoker, target, eventListener.batchSize(), eventListener.batchDelayMillis());
+        }
+        if (async) {
+            return new AsyncListener(name, eventType, orderValue, invoker, target);
+        }
+        return new Listener(name, eventType, orderValue, invoker, target);
+    }
+
+    /**
+     * 批量监听方法的参数为 List<E>，事件类型为 E
+     */
+    Class<?> getListElementType(Method method, String name) {
+        if (method.getParameterTypes()[0] != List.class) {
+            throw new BeanDefinitionException("Batch @EventListener method " + name + " must accept List<event type>.");
+        }
+        Type type = method.getGenericParameterTypes()[0];
+        if (type instanceof ParameterizedType pt && pt.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return element;
+        }
+        if (type instanceof ParameterizedType pt && pt.getActualTypeArguments()[0] instanceof ParameterizedType element) {
+            return (Class<?>) element.getRawType();
+        }
+        return Object.class;
+    }
+
+    void publishEvent(Object event) {
+        for (Listener listener : getListeners(event.getClass())) {
+            listener.onEvent(event);
+        }
+    }
+
+    Listener[] getListeners(Class<?> eventClass) {
+        Listener[] matched = this.cache.get(eventClass);
+        if (matched == null) {
+            Set<Class<?>> types = AnnotationConfigApplicationContext.getAssignableTypes(eventClass);
+            matched = this.listeners.stream().filter(listener -> types.contains(listener.eventType)).toArray(Listener[]::new);
+            this.cache.put(eventClass, matched.length == 0 ? NO_LISTENERS : matched);
+        }
+        return matched;
+    }
+
+    Executor getExecutor() {
+        ThreadPoolExecutor executor = this.executor;
+        return executor != null ? executor : createExecutor();
+    }
+
+    synchronized Executor createExecutor() {
+        if (this.executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(this.asyncThreads, this.asyncThreads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(this.queueCapacity), r -> {
+                        Thread t = new Thread(r, "event-async-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+        return this.executor;
+    }
+
+    ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        return scheduler != null ? scheduler : createScheduler();
+    }
+
+    synchronized ScheduledExecutorService createScheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "event-batch-scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * 先投递未满的批次，再等待已提交的事件处理完成
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        ThreadPoolExecutor executor = this.executor;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Listener listener : this.listeners) {
+            if (listener instanceof BatchListener batchListener) {
+                batchListener.flush();
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warn("async event listeners did not finish in 10 seconds.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.listeners = List.of();
+        this.cache.clear();
+    }
+
+    /**
+     * 同步的监听器，在发布线程中调用，异常抛给发布方
+     */
+    class Listener {
+
+        final String name;
+        final Class<?> eventType;
+        final int order;
+        final MethodHandle invoker;
+        final Supplier<Object> target;
+
+        Listener(String name, Class<?> eventType, int order, MethodHandle invoker, Supplier<Object> target) {
+            this.name = name;
+            this.eventType = eventType;
+            this.order = order;
+            this.invoker = invoker;
+            this.target = target;
+        }
+
+        void onEvent(Object event) {
+            invoke(event);
+        }
+
+        void invoke(Object arg) {
+            try {
+                this.invoker.invokeExact(this.target.get(), arg);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new NestedRuntimeException("Exception in event listener " + this.name, e);
+            }
+        }
+
+        /**
+         * 异步调用时发布方已经返回，异常只能记录日志
+         */
+        void invokeAndLog(Object arg) {
+            try {
+                invoke(arg);
+            } catch (RuntimeException | Error e) {
+                logger.warn("async event listener " + this.name + " failed.", e);
+            }
+        }
+    }
+
+    class AsyncListener extends Listener {
+
+        AsyncListener(String name, Class<?> eventType, int order, MethodHandle invoker, Supplier<Object> target) {
+            super(name, eventType, order, invoker, target);
+        }
+
+        @Override
+        void onEvent(Object event) {
+            getExecutor().execute(() -> invokeAndLog(event));
+        }
+    }
+
+    class BatchListener extends Listener {
+
+        final int batchSize;
+        final long batchDelayMillis;
+
+        List<Object> buffer = new ArrayList<>();
+        // 每次取走缓冲区加一，定时任务只投递登记时的那一批
+        long generation = 0;
+
+        BatchListener(String name, Class<?> eventType, int order, MethodHandle invoker, Supplier<Object> target, int batchSize, long batchDelayMillis) {
+            super(name, eventType, order, invoker, target);
+            this.batchSize = batchSize;
+            this.batchDelayMillis = batchDelayMillis;
+        }
+
+        @Override
+        void onEvent(Object event) {
+            List<Object> full = null;
+            long scheduled = -1;
+            synchronized (this) {
+                this.buffer.add(event);
+                if (this.buffer.size() >= this.batchSize) {
+                    full = drain();
+                } else if (this.buffer.size() == 1) {
+                    scheduled = this.generation;
+                }
+            }
+            if (full != null) {
+                submit(full);
+            } else if (scheduled >= 0) {
+                long generation = scheduled;
+                try {
+                    getScheduler().schedule(() -> flush(generation), this.batchDelayMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 正在关闭，由 close 投递
+                }
+            }
+        }
+
+        void flush(long generation) {
+            List<Object> batch;
+            synchronized (this) {
+                if (generation != this.generation || this.buffer.isEmpty()) {
+                    return;
+                }
+                batch = drain();
+            }
+            submit(batch);
+        }
+
+        void flush() {
+            List<Object> batch;
+            synchronized (this) {
+                if (this.buffer.isEmpty()) {
+                    return;
+                }
+                batch = drain();
+            }
+            submit(batch);
+        }
+
+        List<Object> drain() {
+            List<Object> batch = this.buffer;
+            this.buffer = new ArrayList<>();
+            this.generation++;
+            return batch;
+        }
+
+        void submit(List<Object> batch) {
+            List<Object> events = Collections.unmodifiableList(batch);
+            getExecutor().execute(() -> invokeAndLog(events));
+        }
+    }
+}
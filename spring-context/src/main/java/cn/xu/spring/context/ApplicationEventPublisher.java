@@ -0,0 +1,11 @@
+package cn.xu.spring.context;
+
+/**
+ * created by Xu on 2026/10/18 23:40.
+ * 发布事件，事件可以是任意对象，同步的 @EventListener 在发布线程中依次调用，@Async 的监听方法异步调用
+ * 可以通过 @Autowired 注入 ApplicationEventPublisher
+ */
+public interface ApplicationEventPublisher {
+
+    void publishEvent(Object event);
+}
@@ -1,5 +1,6 @@
 package cn.xu.spring.context;
 
+import cn.xu.spring.annotation.Scope;
 import cn.xu.spring.exception.BeanCreationException;
 import jakarta.annotation.Nullable;
 
@@ -36,6 +37,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     // 是否被 @primary 标注
     private final boolean primary;
 
+    // 是否被 @Lazy 标注，第一次获取时才创建
+    private final boolean lazy;
+
+    // 作用域，见 @Scope，非单例的 bean 不保存 instance
+    private final String scope;
+
     // 初始化方法
     private String initMethodName;
 
@@ -50,8 +57,8 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
      * 工厂方法是否存在导向不同的构造方法
      */
 
-    public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean primary, String initMethodName,
-                          String destroyMethodName, Method initMethod, Method destroyMethod) {
+    public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean primary, boolean lazy, String scope,
+                          String initMethodName, String destroyMethodName, Method initMethod, Method destroyMethod) {
         this.name = name;
         this.beanClass = beanClass;
         this.constructor = constructor;
@@ -59,13 +66,15 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.factoryMethod = null;
         this.order = order;
         this.primary = primary;
+        this.lazy = lazy;
+        this.scope = scope;
         constructor.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
 
     public BeanDefinition(String name, Class<?> beanClass, String factoryName,
-                          Method factoryMethod, int order, boolean primary, String initMethodName,
-                          String destroyMethodName, Method initMethod, Method destroyMethod) {
+                          Method factoryMethod, int order, boolean primary, boolean lazy, String scope,
+                          String initMethodName, String destroyMethodName, Method initMethod, Method destroyMethod) {
         this.name = name;
         this.beanClass = beanClass;
         this.constructor = null;
@@ -73,6 +82,8 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.factoryMethod = factoryMethod;
         this.order = order;
         this.primary = primary;
+        this.lazy = lazy;
+        this.scope = scope;
         factoryMethod.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
@@ -154,15 +165,34 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.instance = instance;
     }
 
+    /**
+     * @Lazy 的 bean 创建失败时清除早期实例
+     */
+    void clearInstance() {
+        this.instance = null;
+    }
+
     public boolean isPrimary() {
         return this.primary;
     }
 
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    public String getScope() {
+        return this.scope;
+    }
+
+    public boolean isSingleton() {
+        return Scope.SINGLETON.equals(this.scope);
+    }
+
     @Override
     public String toString() {
         return "BeanDefinition [name=" + name + ", beanClass=" + beanClass.getName() + ", factory=" + getCreateDetail() + ", init-method="
                 + (initMethod == null ? "null" : initMethod.getName()) + ", destroy-method=" + (destroyMethod == null ? "null" : destroyMethod.getName())
-                + ", primary=" + primary + ", instance=" + instance + "]";
+                + ", primary=" + primary + ", lazy=" + lazy + ", scope=" + scope + ", instance=" + instance + "]";
     }
 
     /**
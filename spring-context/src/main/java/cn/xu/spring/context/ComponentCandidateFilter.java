@@ -0,0 +1,129 @@
+package cn.xu.spring.context;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.io.ClassMetadata;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Inherited;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * created by Xu on 2026/10/18 21:10.
+ * 组件扫描时先解析 class 文件，判断类上是否有 @Component 或以它为元注解的注解，
+ * 只有可能是组件的类才交给 Class.forName 加载，其他类不会被加载，静态初始化也不会执行
+ * 注解的解析结果会缓存，同一个注解只读取一次 class 文件
+ */
+public class ComponentCandidateFilter {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    static final String COMPONENT = Component.class.getName();
+    static final String INHERITED = Inherited.class.getName();
+
+    static final AnnotationInfo NONE = new AnnotationInfo(false, false);
+
+    /**
+     * stereotype: 是否以 @Component 为（元）注解，inherited: 是否标注了 @Inherited
+     */
+    record AnnotationInfo(boolean stereotype, boolean inherited) {
+    }
+
+    final ClassLoader classLoader;
+
+    // 注解类名 -> 解析结果
+    final Map<String, AnnotationInfo> annotations = new ConcurrentHashMap<>();
+
+    public ComponentCandidateFilter(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.annotations.put(COMPONENT, new AnnotationInfo(true, false));
+    }
+
+    /**
+     * 接口、注解、枚举和 record 不是候选；无法解析的类交给 Class.forName 判断
+     */
+    public boolean isCandidate(String className) {
+        ClassMetadata metadata = readMetadata(className);
+        if (metadata == null) {
+            return true;
+        }
+        if (metadata.isInterface() || metadata.isEnum() || metadata.isRecord()) {
+            return false;
+        }
+        if (hasStereotype(metadata, false)) {
+            return true;
+        }
+        // 标注了 @Inherited 的 stereotype 可以从父类继承
+        String superClassName = metadata.superClassName();
+        while (superClassName != null && !superClassName.startsWith("java.")) {
+            ClassMetadata superMetadata = readMetadata(superClassName);
+            if (superMetadata == null) {
+                return true;
+            }
+            if (hasStereotype(superMetadata, true)) {
+                return true;
+            }
+            superClassName = superMetadata.superClassName();
+        }
+        return false;
+    }
+
+    boolean hasStereotype(ClassMetadata metadata, boolean inheritedOnly) {
+        for (String annotation : metadata.annotations()) {
+            AnnotationInfo info = getAnnotationInfo(annotation, new HashSet<>());
+            if (info.stereotype() && (!inheritedOnly || info.inherited())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    AnnotationInfo getAnnotationInfo(String annotationName, Set<String> visiting) {
+        AnnotationInfo info = this.annotations.get(annotationName);
+        if (info != null) {
+            return info;
+        }
+        // java.lang.annotation 下的注解互相标注，注解之间也可能循环标注
+        if (annotationName.startsWith("java.lang.annotation.") || !visiting.add(annotationName)) {
+            return NONE;
+        }
+        boolean stereotype = false;
+        boolean inherited = false;
+        ClassMetadata metadata = readMetadata(annotationName);
+        if (metadata != null) {
+            for (String meta : metadata.annotations()) {
+                if (meta.equals(INHERITED)) {
+                    inherited = true;
+                } else if (getAnnotationInfo(meta, visiting).stereotype()) {
+                    stereotype = true;
+                }
+            }
+        }
+        visiting.remove(annotationName);
+        info = new AnnotationInfo(stereotype, inherited);
+        // 处在循环中的注解，否定的结果可能不完整，只缓存最外层的结果
+        if (stereotype || visiting.isEmpty()) {
+            this.annotations.put(annotationName, info);
+        }
+        return info;
+    }
+
+    /**
+     * 按类名从 ClassLoader 读取 class 文件，找不到或无法解析时返回 null
+     */
+    @Nullable
+    ClassMetadata readMetadata(String className) {
+        try (InputStream input = this.classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return input == null ? null : ClassMetadata.read(input);
+        } catch (IOException | RuntimeException e) {
+            logger.atDebug().log("cannot read class file of {}: {}", className, e.getMessage());
+            return null;
+        }
+    }
+}
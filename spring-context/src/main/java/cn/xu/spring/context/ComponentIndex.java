@@ -0,0 +1,90 @@
+package cn.xu.spring.context;
+
+import jakarta.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * created by Xu on 2026/10/18 20:40.
+ * spring-context-indexer 在编译期生成的组件索引，类路径上所有 META-INF/xu-spring.components 合并读取
+ * 只要存在索引就完全按索引查找组件，没有生成索引的 jar 中的组件不会被扫描到，
+ * 可以设置 xu-spring.context.component-index=false 退回到遍历目录
+ */
+public class ComponentIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/xu-spring.components";
+
+    /**
+     * 一个组件：类名、beanName、stereotype 注解以及 @Configuration 类中 @Bean 的名称
+     */
+    public record Entry(String className, String beanName, String stereotype, List<String> beans) {
+    }
+
+    final List<Entry> entries;
+
+    ComponentIndex(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 读取类路径上的全部索引，一个都没有时返回 null
+     */
+    @Nullable
+    public static ComponentIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            while (urls.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.strip();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            Entry entry = parse(line);
+                            entries.putIfAbsent(entry.className(), entry);
+                        }
+                    }
+                }
+            }
+            return new ComponentIndex(List.copyOf(entries.values()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Entry parse(String line) {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Invalid component index entry: " + line);
+        }
+        List<String> beans = parts.length < 4 || parts[3].isEmpty() ? List.of() : List.of(parts[3].split(","));
+        return new Entry(parts[0], parts[1], parts[2], beans);
+    }
+
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * 返回指定包及其子包下的组件类名
+     */
+    public List<String> getClassNames(String basePackage) {
+        String prefix = basePackage.isEmpty() ? "" : basePackage + ".";
+        List<String> classNames = new ArrayList<>();
+        for (Entry entry : this.entries) {
+            if (entry.className().startsWith(prefix)) {
+                classNames.add(entry.className());
+            }
+        }
+        return classNames;
+    }
+}
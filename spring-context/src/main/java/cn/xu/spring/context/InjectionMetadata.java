@@ -0,0 +1,136 @@
+package cn.xu.spring.context;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Lazy;
+import cn.xu.spring.annotation.Value;
+import cn.xu.spring.exception.BeanCreationException;
+import cn.xu.spring.exception.BeanDefinitionException;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * created by Xu on 2026/10/18 22:40.
+ * 类的字段和 setter 注入点，每个类只反射扫描一次，结果保存在 ClassValue 中，多个 context 以及 prototype bean 共用，类被卸载时随之释放
+ * 注入点的顺序与逐个扫描时相同：先子类后父类，同一个类中先字段后方法
+ * 依赖的 BeanDefinition 与 context 有关，由 context 在注入时解析
+ */
+final class InjectionMetadata {
+
+    static final Logger logger = LoggerFactory.getLogger(InjectionMetadata.class);
+
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    static final ClassValue<List<InjectionPoint>> CACHE = new ClassValue<>() {
+        @Override
+        protected List<InjectionPoint> computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
+
+    /**
+     * 一个 @Value 或 @Autowired 注入点，setter 为 (Object bean, Object value) -> void，setter 方法的返回值被丢弃
+     */
+    record InjectionPoint(Class<?> declaringClass, String name, Class<?> type, boolean field, @Nullable Value value,
+                          @Nullable Autowired autowired, boolean lazy, MethodHandle setter) {
+
+        void inject(Object bean, Object value) throws Throwable {
+            this.setter.invokeExact(bean, value);
+        }
+    }
+
+    private InjectionMetadata() {
+    }
+
+    /**
+     * 类及其父类的全部注入点，注入点不合法时抛出异常且不缓存
+     */
+    static List<InjectionPoint> forClass(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    static List<InjectionPoint> scan(Class<?> clazz) {
+        logger.atDebug().log("scan injection points of class {}.", clazz.getName());
+        List<InjectionPoint> points = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    InjectionPoint point = createInjectionPoint(c, field, lookup);
+                    if (point != null) {
+                        points.add(point);
+                    }
+                }
+                for (Method method : c.getDeclaredMethods()) {
+                    InjectionPoint point = createInjectionPoint(c, method, lookup);
+                    if (point != null) {
+                        points.add(point);
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access injection point of class " + clazz.getName(), e);
+        }
+        return List.copyOf(points);
+    }
+
+    @Nullable
+    static InjectionPoint createInjectionPoint(Class<?> clazz, AccessibleObject acc, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Value value = acc.getAnnotation(Value.class);
+        Autowired autowired = acc.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        String name;
+        Class<?> type;
+        MethodHandle setter;
+        if (acc instanceof Field field) {
+            checkFieldOrMethod(field);
+            // 已经 setAccessible，unreflect 不再检查访问权限
+            field.setAccessible(true);
+            name = field.getName();
+            type = field.getType();
+            setter = lookup.unreflectSetter(field);
+        } else {
+            Method method = (Method) acc;
+            checkFieldOrMethod(method);
+            if (method.getParameterCount() != 1) {
+                throw new BeanDefinitionException(
+                        String.format("Cannot inject a non-setter method %s of class %s", method.getName(), clazz.getName()));
+            }
+            method.setAccessible(true);
+            name = method.getName();
+            type = method.getParameterTypes()[0];
+            setter = lookup.unreflect(method).asFixedArity();
+        }
+        if (value != null && autowired != null) {
+            throw new BeanCreationException(String.format("Cannot specify both @Autowired and @Value when inject %s.%s",
+                    clazz.getSimpleName(), name));
+        }
+        Lazy lazy = acc.getAnnotation(Lazy.class);
+        return new InjectionPoint(clazz, name, type, acc instanceof Field, value, autowired, lazy != null && lazy.value(),
+                setter.asType(SETTER_TYPE));
+    }
+
+    static void checkFieldOrMethod(Member member) {
+        int modifiers = member.getModifiers();
+        if (Modifier.isStatic(modifiers)) {
+            throw new BeanDefinitionException("Cannot inject static field: " + modifiers);
+        }
+        if (Modifier.isFinal(modifiers)) {
+            if (member instanceof Field field) {
+                throw new BeanDefinitionException("Cannot inject final field: " + field);
+            }
+            if (member instanceof Method) {
+                logger.warn("Inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
+            }
+        }
+    }
+}
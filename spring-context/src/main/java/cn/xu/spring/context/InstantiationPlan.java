@@ -0,0 +1,62 @@
+package cn.xu.spring.context;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * created by Xu on 2026/10/18 22:10.
+ * 非单例 bean 的实例化计划，第一次创建实例时编译：
+ * 构造方法/工厂方法转换为 (Object factoryBean, Object[] args) -> Object 的 MethodHandle，
+ * @Value 参数的值只解析一次，依赖的 bean 只查找一次 BeanDefinition，字段和 setter 注入点来自按类缓存的 InjectionMetadata
+ * 之后每次创建实例只按计划取值并调用，不再反射查找注解、参数和注入点
+ */
+class InstantiationPlan {
+
+    /**
+     * 一个字段或 setter 注入点及其值，value 返回 null 时不注入
+     */
+    record Injection(InjectionMetadata.InjectionPoint point, Supplier<?> value) {
+    }
+
+    final BeanDefinition definition;
+
+    final MethodHandle creator;
+
+    // 工厂方法所在的 @Configuration bean，构造方法时为 null
+    @Nullable
+    final Supplier<?> factoryBean;
+
+    final Supplier<?>[] args;
+
+    final List<Injection> injections;
+
+    InstantiationPlan(BeanDefinition definition, MethodHandle creator, @Nullable Supplier<?> factoryBean, Supplier<?>[] args, List<Injection> injections) {
+        this.definition = definition;
+        this.creator = creator;
+        this.factoryBean = factoryBean;
+        this.args = args;
+        this.injections = injections;
+    }
+
+    /**
+     * 创建实例并完成注入，返回未经 BeanPostProcessor 处理的原始实例
+     */
+    Object instantiate() throws Throwable {
+        Object[] values = new Object[this.args.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.args[i].get();
+        }
+        Object factory = this.factoryBean == null ? null : this.factoryBean.get();
+        Object instance = (Object) this.creator.invokeExact(factory, values);
+        for (Injection injection : this.injections) {
+            Object value = injection.value().get();
+            if (value != null) {
+                injection.point().inject(instance, value);
+            }
+        }
+        return instance;
+    }
+}
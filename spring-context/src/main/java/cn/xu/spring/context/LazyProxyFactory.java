@@ -0,0 +1,13 @@
+package cn.xu.spring.context;
+
+import java.util.function.Supplier;
+
+/**
+ * created by Xu on 2026/10/18 21:40.
+ * 为 @Lazy 注入点创建代理，第一次调用方法时才通过 target 获取真正的 bean
+ * 接口类型由 context 直接使用 JDK 动态代理，类类型需要 spring-aop 通过 ServiceLoader 提供的实现
+ */
+public interface LazyProxyFactory {
+
+    <T> T createLazyProxy(Class<T> type, Supplier<?> target);
+}
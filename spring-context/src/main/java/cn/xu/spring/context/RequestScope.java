@@ -0,0 +1,72 @@
+package cn.xu.spring.context;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * created by Xu on 2026/10/18 22:10.
+ * request 作用域的 bean 保存在当前线程绑定的 RequestScope 中，由 DispatcherServlet 在处理请求前后调用 begin/end，
+ * end 时按创建的逆序调用这些 bean 的销毁方法
+ * 异步请求切换线程后不能再获取 request 作用域的 bean，已获取的 bean 在异步请求完成时才销毁
+ */
+public class RequestScope {
+
+    static final Logger logger = LoggerFactory.getLogger(RequestScope.class);
+
+    private static final ThreadLocal<RequestScope> CURRENT = new ThreadLocal<>();
+
+    // beanName -> 本次请求中创建的实例
+    final Map<String, Object> instances = new HashMap<>();
+
+    final List<Runnable> destructionCallbacks = new ArrayList<>();
+
+    public static void begin() {
+        CURRENT.set(new RequestScope());
+    }
+
+    public static void end() {
+        RequestScope scope = detach();
+        if (scope != null) {
+            scope.destroy();
+        }
+    }
+
+    /**
+     * 解除与当前线程的绑定但不销毁，异步请求在完成时再调用 destroy
+     */
+    @Nullable
+    public static RequestScope detach() {
+        RequestScope scope = CURRENT.get();
+        CURRENT.remove();
+        return scope;
+    }
+
+    synchronized void addDestructionCallback(Runnable callback) {
+        this.destructionCallbacks.add(callback);
+    }
+
+    /**
+     * 按创建的逆序销毁本次请求中的 bean，只执行一次
+     */
+    public synchronized void destroy() {
+        for (int i = this.destructionCallbacks.size() - 1; i >= 0; i--) {
+            try {
+                this.destructionCallbacks.get(i).run();
+            } catch (RuntimeException e) {
+                logger.warn("destroy request scoped bean failed.", e);
+            }
+        }
+        this.destructionCallbacks.clear();
+    }
+
+    @Nullable
+    static RequestScope current() {
+        return CURRENT.get();
+    }
+}
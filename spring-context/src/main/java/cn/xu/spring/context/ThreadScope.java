@@ -0,0 +1,56 @@
+package cn.xu.spring.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * created by Xu on 2026/10/19 3:10.
+ * 一个线程中 thread 作用域的 bean，由 context 记录所有线程的 ThreadScope：
+ * 关闭 context 时在关闭的线程中按创建的逆序调用销毁方法并清空实例，线程池中长期存活的线程不会继续引用已关闭的 context 的 bean
+ * 只弱引用所属的线程，线程结束后它的实例在其他线程第一次使用 thread 作用域时销毁
+ */
+final class ThreadScope {
+
+    static final Logger logger = LoggerFactory.getLogger(ThreadScope.class);
+
+    final WeakReference<Thread> thread;
+
+    // beanName -> 这个线程中创建的实例，关闭 context 时由其他线程清空
+    final Map<String, Object> instances = new ConcurrentHashMap<>();
+
+    final List<Runnable> destructionCallbacks = new ArrayList<>();
+
+    ThreadScope(Thread thread) {
+        this.thread = new WeakReference<>(thread);
+    }
+
+    boolean isAlive() {
+        Thread t = this.thread.get();
+        return t != null && t.isAlive();
+    }
+
+    synchronized void addDestructionCallback(Runnable callback) {
+        this.destructionCallbacks.add(callback);
+    }
+
+    /**
+     * 按创建的逆序销毁这个线程中的 bean，只执行一次
+     */
+    synchronized void destroy() {
+        for (int i = this.destructionCallbacks.size() - 1; i >= 0; i--) {
+            try {
+                this.destructionCallbacks.get(i).run();
+            } catch (RuntimeException e) {
+                logger.warn("destroy thread scoped bean failed.", e);
+            }
+        }
+        this.destructionCallbacks.clear();
+        this.instances.clear();
+    }
+}
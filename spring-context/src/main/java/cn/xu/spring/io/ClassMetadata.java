@@ -0,0 +1,145 @@
+package cn.xu.spring.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * created by Xu on 2026/10/18 21:10.
+ * 直接解析 class 文件得到的类信息，只读取常量池、访问标志、父类以及类上的 RuntimeVisibleAnnotations，
+ * 不加载类、不执行静态初始化，用于组件扫描时预先过滤
+ * 类名均为以 . 分隔的二进制名称，如 cn.xu.Outer$Inner
+ */
+public record ClassMetadata(String className, int access, String superClassName, List<String> annotations) {
+
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+
+    public boolean isInterface() {
+        return (access & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (access & ACC_ENUM) != 0;
+    }
+
+    public boolean isRecord() {
+        return "java.lang.Record".equals(superClassName);
+    }
+
+    public boolean isAbstract() {
+        return (access & ACC_ABSTRACT) != 0;
+    }
+
+    public static ClassMetadata read(InputStream input) throws IOException {
+        return read(input.readAllBytes());
+    }
+
+    public static ClassMetadata read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file.");
+        }
+        // minor_version, major_version
+        in.skipBytes(4);
+        int count = in.readUnsignedShort();
+        // 常量池下标从 1 开始，只保留 Utf8 字符串以及 Class 指向的 Utf8 下标
+        String[] utf8 = new String[count];
+        int[] classes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classes[i] = in.readUnsignedShort();
+                case 8, 16, 19, 20 -> in.skipBytes(2);
+                case 15 -> in.skipBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipBytes(4);
+                case 5, 6 -> {
+                    // long 和 double 占两个常量池位置
+                    in.skipBytes(8);
+                    i++;
+                }
+                default -> throw new IOException("Invalid constant pool tag " + tag + " at index " + i);
+            }
+        }
+        int access = in.readUnsignedShort();
+        String className = toClassName(utf8[classes[in.readUnsignedShort()]]);
+        int superIndex = in.readUnsignedShort();
+        String superClassName = superIndex == 0 ? null : toClassName(utf8[classes[superIndex]]);
+        // interfaces
+        in.skipBytes(2 * in.readUnsignedShort());
+        // fields, methods
+        for (int n = 0; n < 2; n++) {
+            int members = in.readUnsignedShort();
+            for (int i = 0; i < members; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+        }
+        List<String> annotations = new ArrayList<>();
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                int num = in.readUnsignedShort();
+                for (int j = 0; j < num; j++) {
+                    // 描述符形如 Lcn/xu/spring/annotation/Component;
+                    String descriptor = utf8[in.readUnsignedShort()];
+                    annotations.add(toClassName(descriptor.substring(1, descriptor.length() - 1)));
+                    skipElementValuePairs(in, in.readUnsignedShort());
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassMetadata(className, access, superClassName, List.copyOf(annotations));
+    }
+
+    static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    static void skipElementValuePairs(DataInputStream in, int pairs) throws IOException {
+        for (int i = 0; i < pairs; i++) {
+            in.skipBytes(2);
+            skipElementValue(in);
+        }
+    }
+
+    static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> in.skipBytes(2);
+            case 'e' -> in.skipBytes(4);
+            case '@' -> {
+                in.skipBytes(2);
+                skipElementValuePairs(in, in.readUnsignedShort());
+            }
+            case '[' -> {
+                int num = in.readUnsignedShort();
+                for (int i = 0; i < num; i++) {
+                    skipElementValue(in);
+                }
+            }
+            default -> throw new IOException("Invalid element value tag " + (char) tag);
+        }
+    }
+
+    static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+}
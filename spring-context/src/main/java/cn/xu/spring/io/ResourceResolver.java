@@ -11,11 +11,14 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * created by Xu on 2024/5/7 8:22.
@@ -24,6 +27,9 @@ import java.util.function.Function;
 public class ResourceResolver {
     Logger logger = LoggerFactory.getLogger(getClass());
 
+    // classpath 根目录或 jar 文件 -> 其中全部文件，多次扫描、多个 context 共用，每个根只遍历一次
+    static final Map<String, RootListing> LISTINGS = new ConcurrentHashMap<>();
+
     String basePackage;
 
     // 基于 . 分隔的包名
@@ -31,6 +37,13 @@ public class ResourceResolver {
         this.basePackage = basePackage;
     }
 
+    /**
+     * 清空缓存的文件列表，classpath 下的文件发生变化后需要调用
+     */
+    public static void clearCache() {
+        LISTINGS.clear();
+    }
+
     public <R> List<R> scan(Function<Resource, R> mapper) {
         String basePackagePath = this.basePackage.replace(".", "/");
         String path = basePackagePath;
@@ -51,65 +64,118 @@ public class ResourceResolver {
         while (en.hasMoreElements()) {
             URL url = en.nextElement();
             URI uri = url.toURI();
-            // 去掉末尾斜杠
-            String uriStr = removeTrailingSlash(uriToString(uri));
-            // 基于斜杠的基础包路径
-            String uriBaseStr = uriStr.substring(0, uriStr.length() - basePackagePath.length());
-            if (uriBaseStr.startsWith("file:")) {
-                uriBaseStr = uriBaseStr.substring(5);
-            }
-            if (uriBaseStr.startsWith("jar:")) {
-                scanFile(true, uriBaseStr, jarUriToPath(basePackagePath, uri), collector, mapper);
+            RootListing listing;
+            if ("jar".equals(uri.getScheme())) {
+                // jar:file:/path/to/xxx.jar!/cn/xu/...
+                String spec = uri.getRawSchemeSpecificPart();
+                String jarUri = spec.substring(0, spec.indexOf("!/"));
+                Path jarFile = Paths.get(new URI(jarUri));
+                // 与目录一样，资源的 path 是根，如 jar:file:/path/to/xxx.jar!
+                String base = URLDecoder.decode("jar:" + jarUri + "!", StandardCharsets.UTF_8);
+                listing = LISTINGS.computeIfAbsent("jar:" + jarFile, key -> listJar(jarFile, base));
             } else {
-                scanFile(false, uriBaseStr, Paths.get(uri), collector, mapper);
+                // 从包目录向上退到 classpath 根目录
+                Path root = Paths.get(uri);
+                for (String ignored : basePackagePath.isEmpty() ? new String[0] : basePackagePath.split("/")) {
+                    root = root.getParent();
+                }
+                Path dir = root;
+                listing = LISTINGS.computeIfAbsent(dir.toString(), key -> listDirectory(dir));
             }
+            scanListing(listing, basePackagePath, collector, mapper);
         }
     }
 
     /**
-     * 扫描指定路径下的文件，将文件信息转换为指定类型并添加到收集器中。
+     * 在根的文件列表中找出包路径下的文件，列表已排序，二分查找到第一个文件后顺序读取
      */
-    <R> void scanFile(boolean isJar, String base, Path root, List<R> collector, Function<Resource, R> mapper) throws IOException {
-        String baseDir = removeTrailingSlash(base);
-        Files.walk(root).filter(Files::isRegularFile).forEach(file -> {
-            Resource res = null;
-            if (isJar) {
-                res = new Resource(baseDir, removeLeadingSlash(file.toString()));
-            } else {
-                // 普通文件需要在路径前加 file: 并且需要去掉开头的斜杠
-                String path = file.toString();
-                String name = removeLeadingSlash(path.substring(baseDir.length()));
-                res = new Resource("file:" + path, name);
-            }
+    <R> void scanListing(RootListing listing, String basePackagePath, List<R> collector, Function<Resource, R> mapper) {
+        String prefix = basePackagePath.isEmpty() ? "" : basePackagePath + "/";
+        List<String> names = listing.names();
+        int start = Collections.binarySearch(names, prefix);
+        for (int i = start < 0 ? -start - 1 : start; i < names.size() && names.get(i).startsWith(prefix); i++) {
+            String name = names.get(i);
+            Resource res = listing.jar() ? new Resource(listing.base(), name) : new Resource("file:" + listing.root().resolve(name), name);
             logger.atDebug().log("found resource: {}", res);
             R r = mapper.apply(res);
             if (r != null) {
                 collector.add(r);
             }
-        });
+        }
     }
 
     /**
-     * JAR文件的URI转换为文件系统中的路径
+     * 用 JarFile 一次读出全部条目，读完立即关闭，不再创建 zip FileSystem
      */
-    Path jarUriToPath(String path, URI jarUri) throws IOException {
-//        return FileSystems.newFileSystem(jarUri, Map.of()).getPath(path);
-        try {
-            // Try to get the existing file system for the URI
-            return FileSystems.getFileSystem(jarUri).getPath(path);
-        } catch (FileSystemNotFoundException ex) {
-            // If no file system exists for the URI, create a new one
-            return FileSystems.newFileSystem(jarUri, Map.of()).getPath(path);
+    RootListing listJar(Path jarFile, String base) {
+        List<String> names = new ArrayList<>();
+        try (JarFile jar = new JarFile(jarFile.toFile())) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    names.add(entry.getName());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        Collections.sort(names);
+        logger.atDebug().log("list {} entries in jar: {}", names.size(), jarFile);
+        return new RootListing(true, base, jarFile, names);
     }
 
-    String removeLeadingSlash(String s) {
-        if (s.startsWith("/") || s.startsWith("\\")) {
-            s = s.substring(1);
-        }
-        return s;
+    /**
+     * 每个子目录作为一个子任务并行遍历，文件名统一以 / 分隔
+     */
+    RootListing listDirectory(Path root) {
+        List<String> names = ForkJoinPool.commonPool().invoke(new DirectoryWalk(root, ""));
+        Collections.sort(names);
+        logger.atDebug().log("list {} files in directory: {}", names.size(), root);
+        return new RootListing(false, root.toString(), root, names);
     }
 
+    /**
+     * classpath 根下全部文件的相对路径，已排序
+     */
+    record RootListing(boolean jar, String base, Path root, List<String> names) {
+    }
+
+    static class DirectoryWalk extends RecursiveTask<List<String>> {
+
+        final Path dir;
+        final String prefix;
+
+        DirectoryWalk(Path dir, String prefix) {
+            this.dir = dir;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected List<String> compute() {
+            List<String> names = new ArrayList<>();
+            List<DirectoryWalk> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir)) {
+                for (Path file : stream) {
+                    String name = this.prefix + file.getFileName();
+                    // 与 Files.walk 一样不进入符号链接的目录
+                    if (Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isDirectory()) {
+                        DirectoryWalk task = new DirectoryWalk(file, name + "/");
+                        task.fork();
+                        subTasks.add(task);
+                    } else if (Files.isRegularFile(file)) {
+                        names.add(name);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (DirectoryWalk task : subTasks) {
+                names.addAll(task.join());
+            }
+            return names;
+        }
+    }
 
     ClassLoader getContextClassLoader() {
         ClassLoader cl = null;
@@ -119,15 +185,4 @@ public class ResourceResolver {
         }
         return cl;
     }
-
-    String uriToString(URI uri) {
-        return URLDecoder.decode(uri.toString(), StandardCharsets.UTF_8);
-    }
-
-    String removeTrailingSlash(String s) {
-        if (s.endsWith("/") || s.endsWith("\\")) {
-            s = s.substring(0, s.length() - 1);
-        }
-        return s;
-    }
-}
\ No newline at end of file
+}
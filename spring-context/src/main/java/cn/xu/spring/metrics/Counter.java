@@ -0,0 +1,34 @@
+package cn.xu.spring.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 计数器，多线程同时递增时由 LongAdder 分散到不同的 cell，不会互相竞争
+ */
+public class Counter implements Metric {
+
+    final MetricId id;
+    final LongAdder count = new LongAdder();
+
+    Counter(MetricId id) {
+        this.id = id;
+    }
+
+    @Override
+    public MetricId getId() {
+        return this.id;
+    }
+
+    public void increment() {
+        this.count.increment();
+    }
+
+    public void increment(long n) {
+        this.count.add(n);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+}
@@ -0,0 +1,27 @@
+package cn.xu.spring.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 瞬时值，读取时才调用 supplier 计算
+ */
+public class Gauge implements Metric {
+
+    final MetricId id;
+    final DoubleSupplier supplier;
+
+    Gauge(MetricId id, DoubleSupplier supplier) {
+        this.id = id;
+        this.supplier = supplier;
+    }
+
+    @Override
+    public MetricId getId() {
+        return this.id;
+    }
+
+    public double getValue() {
+        return this.supplier.getAsDouble();
+    }
+}
@@ -0,0 +1,140 @@
+package cn.xu.spring.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 类似 HdrHistogram 的对数-线性分桶直方图：
+ * 每个 2 的幂区间再均分成 32 个子桶，相对误差不超过 1/32，覆盖 0 到 Long.MAX_VALUE
+ * 记录时只是对一个桶的 LongAdder 递增，不加锁；桶在第一次命中时才创建
+ * 延迟建议以纳秒记录
+ */
+public class Histogram implements Metric {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    final MetricId id;
+    final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+    final LongAdder sum = new LongAdder();
+    final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram(MetricId id) {
+        this.id = id;
+    }
+
+    @Override
+    public MetricId getId() {
+        return this.id;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = bucketIndex(value);
+        LongAdder bucket = this.buckets.get(index);
+        if (bucket == null) {
+            bucket = new LongAdder();
+            if (!this.buckets.compareAndSet(index, null, bucket)) {
+                bucket = this.buckets.get(index);
+            }
+        }
+        bucket.increment();
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * 读取当前各个桶的计数，读取过程中仍有记录时各值之间可能有细微偏差
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        int last = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = this.buckets.get(i);
+            if (bucket != null) {
+                counts[i] = bucket.sum();
+                if (counts[i] > 0) {
+                    last = i;
+                }
+            }
+        }
+        counts = Arrays.copyOf(counts, last + 1);
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        return new Snapshot(count, this.sum.sum(), this.max.get(), counts);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * 桶内最小值
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return ((long) ((index & (SUB_BUCKETS - 1)) | SUB_BUCKETS)) << shift;
+    }
+
+    /**
+     * 桶内最大值
+     */
+    static long upperBound(int index) {
+        return index + 1 >= BUCKETS ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+
+    /**
+     * counts 的下标即桶的序号，末尾的空桶已去掉
+     */
+    public record Snapshot(long count, long sum, long max, long[] counts) {
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 返回分位值所在桶的最大值（不超过记录到的最大值），例如 percentile(0.99)
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                total += counts[i];
+                if (total >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * 小于等于 value 的记录数，用于导出累计分布
+         */
+        public long countAtOrBelow(long value) {
+            long total = 0;
+            for (int i = 0; i < counts.length && upperBound(i) <= value; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cn.xu.spring.metrics;
+
+import java.lang.management.*;
+
+/**
+ * created by Xu on 2026/10/18 19:05.
+ * 把 JVM 的内存、GC、线程、类加载等信息注册为 Gauge，只在读取时才访问 MXBean
+ */
+public class JvmMetrics {
+
+    private JvmMetrics() {}
+
+    public static void bindTo(MetricRegistry registry) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        registry.gauge("jvm.memory.used", () -> memory.getHeapMemoryUsage().getUsed(), "area", "heap");
+        registry.gauge("jvm.memory.committed", () -> memory.getHeapMemoryUsage().getCommitted(), "area", "heap");
+        registry.gauge("jvm.memory.max", () -> memory.getHeapMemoryUsage().getMax(), "area", "heap");
+        registry.gauge("jvm.memory.used", () -> memory.getNonHeapMemoryUsage().getUsed(), "area", "nonheap");
+        registry.gauge("jvm.memory.committed", () -> memory.getNonHeapMemoryUsage().getCommitted(), "area", "nonheap");
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            registry.gauge("jvm.gc.count", gc::getCollectionCount, "gc", gc.getName());
+            registry.gauge("jvm.gc.time.millis", gc::getCollectionTime, "gc", gc.getName());
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        registry.gauge("jvm.threads.live", threads::getThreadCount);
+        registry.gauge("jvm.threads.daemon", threads::getDaemonThreadCount);
+        registry.gauge("jvm.threads.peak", threads::getPeakThreadCount);
+
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        registry.gauge("jvm.classes.loaded", classes::getLoadedClassCount);
+
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        registry.gauge("process.uptime.millis", runtime::getUptime);
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        registry.gauge("system.cpu.count", os::getAvailableProcessors);
+        registry.gauge("system.load.average", os::getSystemLoadAverage);
+    }
+}
@@ -0,0 +1,10 @@
+package cn.xu.spring.metrics;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 指标的公共接口，由 {@link MetricRegistry} 统一创建和管理
+ */
+public interface Metric {
+
+    MetricId getId();
+}
@@ -0,0 +1,29 @@
+package cn.xu.spring.metrics;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 指标名称加标签，标签按 key1, value1, key2, value2... 的顺序保存
+ */
+public record MetricId(String name, List<String> tags) {
+
+    public static MetricId of(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key-value pairs: " + name);
+        }
+        return new MetricId(name, List.of(tags));
+    }
+
+    @Nullable
+    public String getTag(String key) {
+        for (int i = 0; i < tags.size(); i += 2) {
+            if (tags.get(i).equals(key)) {
+                return tags.get(i + 1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+package cn.xu.spring.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ * 指标注册表，相同名称和标签只会创建一个指标
+ * 调用方应在启动时获取并保存指标对象，请求路径上只做递增/记录，不再查表
+ */
+public class MetricRegistry {
+
+    private static final MetricRegistry INSTANCE = new MetricRegistry();
+
+    public static MetricRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    final Map<MetricId, Metric> metrics = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String... tags) {
+        return getOrCreate(MetricId.of(name, tags), Counter.class, Counter::new);
+    }
+
+    public Histogram histogram(String name, String... tags) {
+        return getOrCreate(MetricId.of(name, tags), Histogram.class, Histogram::new);
+    }
+
+    /**
+     * 注册瞬时值，已存在时返回原来的 Gauge
+     */
+    public Gauge gauge(String name, DoubleSupplier supplier, String... tags) {
+        return getOrCreate(MetricId.of(name, tags), Gauge.class, id -> new Gauge(id, supplier));
+    }
+
+    /**
+     * 按名称和标签排序返回全部指标
+     */
+    public List<Metric> getMetrics() {
+        List<Metric> list = new ArrayList<>(this.metrics.values());
+        list.sort(Comparator.comparing((Metric m) -> m.getId().name()).thenComparing(m -> String.join(",", m.getId().tags())));
+        return list;
+    }
+
+    public void remove(MetricId id) {
+        this.metrics.remove(id);
+    }
+
+    <T extends Metric> T getOrCreate(MetricId id, Class<T> type, Function<MetricId, T> factory) {
+        Metric metric = this.metrics.get(id);
+        if (metric == null) {
+            metric = this.metrics.computeIfAbsent(id, factory::apply);
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + id + " is already registered as " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,24 @@
+package cn.xu.spring.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * created by Xu on 2026/10/18 23:10.
+ * 启动步骤的 JFR 事件，开启 xu-spring.startup.jfr 后在 Java Flight Recorder 录制中可见
+ */
+@Name("cn.xu.spring.StartupStep")
+@Label("Startup Step")
+@Category("XuSpring")
+@StackTrace(false)
+class StartupStepEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Name")
+    String name;
+
+    @Label("Self Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selfTime;
+}
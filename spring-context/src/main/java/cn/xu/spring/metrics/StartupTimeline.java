@@ -0,0 +1,203 @@
+package cn.xu.spring.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * created by Xu on 2026/10/18 23:10.
+ * 启动过程的时间线：扫描、创建 BeanDefinition、每个 bean 的构造、BeanPostProcessor、注入、初始化以及 Tomcat 启动
+ * 每个步骤只记录两次 System.nanoTime()，嵌套的步骤（如构造时创建依赖的 bean）从外层步骤中扣除，按自身耗时统计
+ * 同一线程内的步骤必须按 try-with-resources 的方式嵌套
+ * 每个 context 使用自己的时间线，XuSpringApplication 创建时间线并传给 context，使 Tomcat 启动和 context 的步骤记录在一起
+ */
+public class StartupTimeline {
+
+    // 记录数的上限，启动后创建的 @Lazy 和非单例 bean 也会记录，不会无限增长
+    static final int MAX_STEPS = 100_000;
+
+    static final EnumSet<Phase> BEAN_PHASES = EnumSet.of(Phase.CONSTRUCT, Phase.POST_PROCESS, Phase.INJECT, Phase.INIT);
+
+    public enum Phase {
+        SCAN, DEFINITION, CONSTRUCT, POST_PROCESS, INJECT, INIT, TOMCAT
+    }
+
+    /**
+     * 完成的步骤，selfNanos 为扣除嵌套步骤后的耗时
+     */
+    public record StepRecord(Phase phase, String name, String thread, long startNanos, long durationNanos, long selfNanos) {
+    }
+
+    /**
+     * 一个 bean 在构造、BeanPostProcessor、注入和初始化中的自身耗时之和
+     */
+    public record BeanTiming(String name, long selfNanos) {
+    }
+
+    final Queue<StepRecord> records = new ConcurrentLinkedQueue<>();
+    final AtomicInteger size = new AtomicInteger();
+
+    final ThreadLocal<Step> current = new ThreadLocal<>();
+
+    volatile boolean jfrEnabled = false;
+
+    public void setJfrEnabled(boolean jfrEnabled) {
+        this.jfrEnabled = jfrEnabled;
+    }
+
+    public Step start(Phase phase, String name) {
+        Step step = new Step(phase, name, this.current.get());
+        this.current.set(step);
+        return step;
+    }
+
+    public void clear() {
+        this.records.clear();
+        this.size.set(0);
+    }
+
+    public List<StepRecord> getSteps() {
+        List<StepRecord> steps = new ArrayList<>(this.records);
+        steps.sort(Comparator.comparingLong(StepRecord::startNanos));
+        return steps;
+    }
+
+    /**
+     * 每个阶段的自身耗时之和，按阶段顺序排列
+     */
+    public Map<Phase, Long> totalByPhase() {
+        Map<Phase, Long> totals = new EnumMap<>(Phase.class);
+        for (StepRecord record : this.records) {
+            totals.merge(record.phase(), record.selfNanos(), Long::sum);
+        }
+        return totals;
+    }
+
+    /**
+     * 自身耗时最多的 top 个 bean
+     */
+    public List<BeanTiming> slowestBeans(int top) {
+        Map<String, Long> beans = new HashMap<>();
+        for (StepRecord record : this.records) {
+            if (BEAN_PHASES.contains(record.phase())) {
+                beans.merge(record.name(), record.selfNanos(), Long::sum);
+            }
+        }
+        return beans.entrySet().stream().map(e -> new BeanTiming(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(BeanTiming::selfNanos).reversed().thenComparing(BeanTiming::name))
+                .limit(top).toList();
+    }
+
+    public String report(int top) {
+        Map<Phase, Long> totals = totalByPhase();
+        long total = totals.values().stream().mapToLong(Long::longValue).sum();
+        StringBuilder sb = new StringBuilder(String.format("Startup timeline: %d steps, %.3f ms", this.size.get(), toMillis(total)));
+        totals.forEach((phase, nanos) -> sb.append(String.format("%n  %-12s %10.3f ms", phase, toMillis(nanos))));
+        List<BeanTiming> beans = slowestBeans(top);
+        if (!beans.isEmpty()) {
+            sb.append(String.format("%nTop %d slowest beans:", beans.size()));
+            beans.forEach(bean -> sb.append(String.format("%n  %10.3f ms  %s", toMillis(bean.selfNanos()), bean.name())));
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"phases\":{");
+        StringJoiner phases = new StringJoiner(",");
+        totalByPhase().forEach((phase, nanos) -> phases.add("\"" + phase + "\":" + nanos));
+        sb.append(phases).append("},\"steps\":[");
+        StringJoiner steps = new StringJoiner(",");
+        for (StepRecord record : getSteps()) {
+            steps.add(String.format("{\"phase\":\"%s\",\"name\":%s,\"thread\":%s,\"startNanos\":%d,\"durationNanos\":%d,\"selfNanos\":%d}",
+                    record.phase(), quote(record.name()), quote(record.thread()), record.startNanos(), record.durationNanos(), record.selfNanos()));
+        }
+        return sb.append(steps).append("]}").toString();
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+    }
+
+    void add(StepRecord record) {
+        if (this.size.incrementAndGet() <= MAX_STEPS) {
+            this.records.add(record);
+        } else {
+            this.size.decrementAndGet();
+        }
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 进行中的步骤，close 时记录，并把耗时计入外层步骤的嵌套耗时
+     */
+    public final class Step implements AutoCloseable {
+
+        final Phase phase;
+        final String name;
+        final Step parent;
+        final long startNanos;
+        final StartupStepEvent event;
+        long childNanos;
+
+        Step(Phase phase, String name, Step parent) {
+            this.phase = phase;
+            this.name = name;
+            this.parent = parent;
+            if (jfrEnabled) {
+                this.event = new StartupStepEvent();
+                this.event.begin();
+            } else {
+                this.event = null;
+            }
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long duration = System.nanoTime() - this.startNanos;
+            long self = duration - this.childNanos;
+            if (this.parent == null) {
+                current.remove();
+            } else {
+                current.set(this.parent);
+                this.parent.childNanos += duration;
+            }
+            add(new StepRecord(this.phase, this.name, Thread.currentThread().getName(), this.startNanos, duration, self));
+            if (this.event != null) {
+                this.event.end();
+                if (this.event.shouldCommit()) {
+                    this.event.phase = this.phase.name();
+                    this.event.name = this.name;
+                    this.event.selfTime = self;
+                    this.event.commit();
+                }
+            }
+        }
+    }
+}
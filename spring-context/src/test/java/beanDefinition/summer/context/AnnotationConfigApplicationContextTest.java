@@ -5,6 +5,7 @@ import beanDefinition.imported.LocalDateConfiguration;
 import beanDefinition.scan.ScanApplication;
 import beanDefinition.scan.custom.annotation.CustomAnnotationBean;
 import beanDefinition.scan.nested.OuterBean;
+import beanDefinition.scan.primary.DogBean;
 import beanDefinition.scan.primary.PersonBean;
 import beanDefinition.scan.primary.StudentBean;
 import beanDefinition.scan.primary.TeacherBean;
@@ -16,8 +17,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Properties;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class AnnotationConfigApplicationContextTest {
 
@@ -52,6 +52,21 @@ public class AnnotationConfigApplicationContextTest {
 
     }
 
+    @Test
+    public void testTypeIndex() {
+        var ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+        // 同一类型的查找命中同一个预先排好序的列表:
+        List<BeanDefinition> defs = ctx.findBeanDefinitions(PersonBean.class);
+        assertSame(defs, ctx.findBeanDefinitions(PersonBean.class));
+        assertThrows(UnsupportedOperationException.class, () -> defs.add(defs.get(0)));
+        // 父类、接口和 Object 都能查到:
+        assertTrue(ctx.findBeanDefinitions(Object.class).containsAll(defs));
+        assertSame(ctx.findBeanDefinition(DogBean.class), ctx.findBeanDefinition("husky"));
+        // 未注册的类型:
+        assertTrue(ctx.findBeanDefinitions(Runnable.class).isEmpty());
+        assertNull(ctx.findBeanDefinition(Runnable.class));
+    }
+
     PropertyResolver createPropertyResolver() {
         var ps = new Properties();
         ps.put("app.title", "Scan App");
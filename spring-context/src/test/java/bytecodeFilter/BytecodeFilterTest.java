@@ -0,0 +1,82 @@
+package bytecodeFilter;
+
+import bytecodeFilter.scan.*;
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.context.ComponentCandidateFilter;
+import cn.xu.spring.io.ClassMetadata;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 21:10.
+ */
+public class BytecodeFilterTest {
+
+    @Test
+    public void readClassMetadata() throws IOException {
+        ClassMetadata mail = read(MailService.class);
+        assertEquals(MailService.class.getName(), mail.className());
+        assertEquals("java.lang.Object", mail.superClassName());
+        assertEquals(List.of(Service.class.getName()), mail.annotations());
+        assertFalse(mail.isInterface() || mail.isEnum() || mail.isRecord() || mail.isAbstract());
+
+        ClassMetadata service = read(Service.class);
+        assertTrue(service.isInterface() && service.isAnnotation());
+        assertTrue(service.annotations().contains("cn.xu.spring.annotation.Component"));
+
+        assertTrue(read(Thread.State.class).isEnum());
+        assertTrue(read(Entry.class).isRecord());
+        assertEquals(AbstractList.class.getName(), read(Sub.class).superClassName());
+        assertTrue(read(AbstractList.class).isAbstract());
+    }
+
+    @Test
+    public void candidates() {
+        var filter = new ComponentCandidateFilter(getClass().getClassLoader());
+        assertTrue(filter.isCandidate(MailService.class.getName()));
+        assertTrue(filter.isCandidate(SmsService.class.getName()));
+        assertFalse(filter.isCandidate(PlainHelper.class.getName()));
+        assertFalse(filter.isCandidate(Service.class.getName()));
+        assertFalse(filter.isCandidate(Entry.class.getName()));
+        // 找不到 class 文件时交给 Class.forName 处理:
+        assertTrue(filter.isCandidate("bytecodeFilter.scan.Missing"));
+    }
+
+    @Test
+    public void scanWithoutLoading() {
+        try (var ctx = new AnnotationConfigApplicationContext(FilterApplication.class, new PropertyResolver(new Properties()))) {
+            assertSame(ctx.getBean("mail"), ctx.getBean(MailService.class));
+            assertNull(ctx.findBeanDefinition(PlainHelper.class));
+            // 非组件类没有被加载，静态初始化没有执行:
+            assertFalse(ScanState.helperInitialized);
+        }
+    }
+
+    static ClassMetadata read(Class<?> clazz) throws IOException {
+        try (InputStream input = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class")) {
+            return ClassMetadata.read(input);
+        }
+    }
+
+    record Entry(String key, int value) {
+    }
+
+    static abstract class AbstractList {
+    }
+
+    static class Sub extends AbstractList {
+    }
+
+    /**
+     * 从父类继承 @Inherited 的 @Service
+     */
+    static class SmsService extends MailService {
+    }
+}
@@ -0,0 +1,8 @@
+package bytecodeFilter.scan;
+
+import cn.xu.spring.annotation.ComponentScan;
+
+@ComponentScan
+public class FilterApplication {
+
+}
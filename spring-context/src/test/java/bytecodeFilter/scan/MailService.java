@@ -0,0 +1,8 @@
+package bytecodeFilter.scan;
+
+@Service(value = "mail")
+public class MailService {
+
+    public static final long TIMEOUT = 30_000L;
+    public static final double RATE = 0.5;
+}
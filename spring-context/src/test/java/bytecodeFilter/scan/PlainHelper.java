@@ -0,0 +1,12 @@
+package bytecodeFilter.scan;
+
+import cn.xu.spring.annotation.Order;
+
+@Order(1)
+public class PlainHelper {
+
+    static {
+        // 被加载时才会执行:
+        ScanState.helperInitialized = true;
+    }
+}
@@ -0,0 +1,6 @@
+package bytecodeFilter.scan;
+
+public class ScanState {
+
+    public static volatile boolean helperInitialized = false;
+}
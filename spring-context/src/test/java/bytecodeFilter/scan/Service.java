@@ -0,0 +1,15 @@
+package bytecodeFilter.scan;
+
+import cn.xu.spring.annotation.Component;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@Component
+public @interface Service {
+
+    String value() default "";
+}
@@ -0,0 +1,89 @@
+package componentIndex;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.context.ComponentIndex;
+import cn.xu.spring.io.PropertyResolver;
+import componentIndex.scan.IndexedApplication;
+import componentIndex.scan.IndexedBean;
+import componentIndex.scan.UnindexedBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 20:40.
+ */
+public class ComponentIndexTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void loadIndex() throws IOException {
+        ComponentIndex index = ComponentIndex.load(createClassLoader());
+        assertNotNull(index);
+        assertEquals(3, index.getEntries().size());
+        assertEquals(List.of("componentIndex.scan.IndexedBean", "componentIndex.scan.IndexedConfig"), index.getClassNames("componentIndex.scan"));
+        assertEquals(List.of("other.pkg.Missing"), index.getClassNames("other"));
+        assertTrue(index.getClassNames("componentIndex.sc").isEmpty());
+        ComponentIndex.Entry config = index.getEntries().get(1);
+        assertEquals("indexedConfig", config.beanName());
+        assertEquals("cn.xu.spring.annotation.Configuration", config.stereotype());
+        assertEquals(List.of("a", "b"), config.beans());
+
+        assertNull(ComponentIndex.load(new URLClassLoader(new URL[0], null)));
+    }
+
+    @Test
+    public void scanByIndex() throws IOException {
+        Files.writeString(writeIndex(), "componentIndex.scan.IndexedBean|indexedBean|cn.xu.spring.annotation.Component|\n"
+                + "other.pkg.Missing|missing|cn.xu.spring.annotation.Component|\n");
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { this.root.toUri().toURL() }, original));
+        try {
+            // 只创建索引中的组件，其他包的条目不会被加载:
+            try (var ctx = new AnnotationConfigApplicationContext(IndexedApplication.class, createPropertyResolver(true))) {
+                assertNotNull(ctx.getBean(IndexedBean.class));
+                assertNull(ctx.findBeanDefinition(UnindexedBean.class));
+            }
+            // 关闭索引后仍然遍历目录:
+            try (var ctx = new AnnotationConfigApplicationContext(IndexedApplication.class, createPropertyResolver(false))) {
+                assertNotNull(ctx.getBean(IndexedBean.class));
+                assertNotNull(ctx.getBean(UnindexedBean.class));
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    ClassLoader createClassLoader() throws IOException {
+        Files.writeString(writeIndex(), """
+                # className|beanName|stereotype|beans
+                componentIndex.scan.IndexedBean|indexedBean|cn.xu.spring.annotation.Component|
+                componentIndex.scan.IndexedConfig|indexedConfig|cn.xu.spring.annotation.Configuration|a,b
+                other.pkg.Missing|missing|cn.xu.spring.annotation.Component|
+                """);
+        return new URLClassLoader(new URL[] { this.root.toUri().toURL() }, null);
+    }
+
+    Path writeIndex() throws IOException {
+        Path index = this.root.resolve(ComponentIndex.INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        return index;
+    }
+
+    PropertyResolver createPropertyResolver(boolean useIndex) {
+        var ps = new Properties();
+        ps.put("xu-spring.context.component-index", String.valueOf(useIndex));
+        return new PropertyResolver(ps);
+    }
+}
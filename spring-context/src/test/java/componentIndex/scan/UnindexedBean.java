@@ -0,0 +1,8 @@
+package componentIndex.scan;
+
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class UnindexedBean {
+
+}
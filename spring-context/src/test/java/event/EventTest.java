@@ -0,0 +1,45 @@
+package event;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import event.scan.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 23:40.
+ */
+public class EventTest {
+
+    @Test
+    public void publishEvents() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(EventApplication.class, new PropertyResolver(new Properties()))) {
+            OrderService orderService = ctx.getBean(OrderService.class);
+            for (int i = 1; i <= 4; i++) {
+                orderService.place("o" + i);
+            }
+            orderService.cancel("o1");
+
+            // 同步的监听器按 @Order 在发布线程中调用，父类型的监听器也会收到:
+            AuditListener audit = ctx.getBean(AuditListener.class);
+            assertEquals(List.of("event:o1", "placed:o1", "event:o2", "placed:o2", "event:o3", "placed:o3", "event:o4", "placed:o4", "event:o1"),
+                    audit.records);
+
+            // @Async 的监听器在事件线程池中调用:
+            AsyncListener async = ctx.getBean(AsyncListener.class);
+            assertTrue(async.placed.await(5, TimeUnit.SECONDS));
+            assertTrue(async.threads.stream().allMatch(name -> name.startsWith("event-async-")), async.threads.toString());
+
+            // 攒够 3 个投递一次，剩下的 1 个等待 50 毫秒后投递:
+            for (int i = 0; i < 100 && async.batches.size() < 2; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(List.of(3, 1), async.batches);
+        }
+    }
+}
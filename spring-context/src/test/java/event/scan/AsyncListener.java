@@ -0,0 +1,30 @@
+package event.scan;
+
+import cn.xu.spring.annotation.Async;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@Component
+public class AsyncListener {
+
+    public final CountDownLatch placed = new CountDownLatch(4);
+    public final List<String> threads = new CopyOnWriteArrayList<>();
+    public final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    @Async
+    @EventListener
+    void onPlaced(OrderPlaced event) {
+        threads.add(Thread.currentThread().getName());
+        placed.countDown();
+    }
+
+    @Async
+    @EventListener(batchSize = 3, batchDelayMillis = 50)
+    void onPlacedBatch(List<OrderPlaced> events) {
+        batches.add(events.size());
+    }
+}
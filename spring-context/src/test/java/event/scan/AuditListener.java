@@ -0,0 +1,26 @@
+package event.scan;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.EventListener;
+import cn.xu.spring.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class AuditListener {
+
+    public final List<String> records = new ArrayList<>();
+
+    @EventListener
+    @Order(1)
+    void onEvent(DomainEvent event) {
+        records.add("event:" + event.id);
+    }
+
+    @EventListener
+    @Order(2)
+    void onPlaced(OrderPlaced event) {
+        records.add("placed:" + event.id);
+    }
+}
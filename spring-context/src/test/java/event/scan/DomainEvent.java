@@ -0,0 +1,10 @@
+package event.scan;
+
+public abstract class DomainEvent {
+
+    public final String id;
+
+    protected DomainEvent(String id) {
+        this.id = id;
+    }
+}
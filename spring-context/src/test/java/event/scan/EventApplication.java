@@ -0,0 +1,9 @@
+package event.scan;
+
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+
+@ComponentScan
+@Configuration
+public class EventApplication {
+}
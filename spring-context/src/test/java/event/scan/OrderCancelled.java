@@ -0,0 +1,8 @@
+package event.scan;
+
+public class OrderCancelled extends DomainEvent {
+
+    public OrderCancelled(String id) {
+        super(id);
+    }
+}
@@ -0,0 +1,8 @@
+package event.scan;
+
+public class OrderPlaced extends DomainEvent {
+
+    public OrderPlaced(String id) {
+        super(id);
+    }
+}
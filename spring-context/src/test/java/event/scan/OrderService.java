@@ -0,0 +1,23 @@
+package event.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.context.ApplicationEventPublisher;
+
+@Component
+public class OrderService {
+
+    final ApplicationEventPublisher publisher;
+
+    public OrderService(@Autowired ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public void place(String id) {
+        this.publisher.publishEvent(new OrderPlaced(id));
+    }
+
+    public void cancel(String id) {
+        this.publisher.publishEvent(new OrderCancelled(id));
+    }
+}
@@ -0,0 +1,63 @@
+package lazy;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.exception.BeanCreationException;
+import cn.xu.spring.io.PropertyResolver;
+import lazy.classType.ClassTypeApplication;
+import lazy.scan.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 21:40.
+ */
+public class LazyTest {
+
+    @Test
+    public void lazyBeans() {
+        ReportServiceImpl.CREATED.set(0);
+        AuditLog.CREATED.set(0);
+        try (var ctx = new AnnotationConfigApplicationContext(LazyApplication.class, new PropertyResolver(new Properties()))) {
+            // 启动时不创建 @Lazy 的 bean:
+            assertEquals(0, ReportServiceImpl.CREATED.get());
+            assertEquals(0, AuditLog.CREATED.get());
+            EagerBean eager = ctx.getBean(EagerBean.class);
+            assertFalse(eager.reportService instanceof ReportServiceImpl);
+
+            // 第一次调用代理时创建、注入并初始化:
+            assertEquals("report by eager, initialized=true", eager.reportService.report());
+            assertEquals(1, ReportServiceImpl.CREATED.get());
+            ReportServiceImpl impl = ctx.getBean(ReportServiceImpl.class);
+            assertSame(eager, impl.eagerBean);
+            eager.reportService.report();
+            assertEquals(1, ReportServiceImpl.CREATED.get());
+
+            // @Lazy @Bean 第一次 getBean 时创建:
+            AuditLog log = ctx.getBean("auditLog");
+            assertSame(log, ctx.getBean(AuditLog.class));
+            assertEquals(1, AuditLog.CREATED.get());
+        }
+    }
+
+    @Test
+    public void lazyInitFailed() {
+        FlakyBean.ATTEMPTS.set(0);
+        try (var ctx = new AnnotationConfigApplicationContext(LazyApplication.class, new PropertyResolver(new Properties()))) {
+            assertThrows(RuntimeException.class, () -> ctx.getBean(FlakyBean.class));
+            // 失败后不返回未初始化的实例，再次获取时重新创建:
+            FlakyBean bean = ctx.getBean(FlakyBean.class);
+            assertTrue(bean.isInitialized());
+            assertEquals(2, FlakyBean.ATTEMPTS.get());
+            assertSame(bean, ctx.getBean(FlakyBean.class));
+        }
+    }
+
+    @Test
+    public void classTypeRequiresAop() {
+        assertThrows(BeanCreationException.class,
+                () -> new AnnotationConfigApplicationContext(ClassTypeApplication.class, new PropertyResolver(new Properties())));
+    }
+}
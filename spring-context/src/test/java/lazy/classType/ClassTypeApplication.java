@@ -0,0 +1,8 @@
+package lazy.classType;
+
+import cn.xu.spring.annotation.ComponentScan;
+
+@ComponentScan
+public class ClassTypeApplication {
+
+}
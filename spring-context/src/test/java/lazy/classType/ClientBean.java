@@ -0,0 +1,13 @@
+package lazy.classType;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+
+@Component
+public class ClientBean {
+
+    @Autowired
+    @Lazy
+    ConcreteBean concreteBean;
+}
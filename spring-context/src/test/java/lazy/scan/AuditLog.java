@@ -0,0 +1,12 @@
+package lazy.scan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AuditLog {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public AuditLog() {
+        CREATED.incrementAndGet();
+    }
+}
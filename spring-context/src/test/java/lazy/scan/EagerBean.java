@@ -0,0 +1,17 @@
+package lazy.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+
+@Component
+public class EagerBean {
+
+    @Autowired
+    @Lazy
+    public ReportService reportService;
+
+    public String getName() {
+        return "eager";
+    }
+}
@@ -0,0 +1,33 @@
+package lazy.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+import jakarta.annotation.PostConstruct;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class FlakyBean {
+
+    public static final AtomicInteger ATTEMPTS = new AtomicInteger();
+
+    @Autowired
+    EagerBean eagerBean;
+
+    boolean initialized = false;
+
+    // 第一次初始化失败:
+    @PostConstruct
+    void init() {
+        if (ATTEMPTS.incrementAndGet() == 1) {
+            throw new IllegalStateException("first init failed");
+        }
+        this.initialized = true;
+    }
+
+    public boolean isInitialized() {
+        return this.initialized;
+    }
+}
@@ -0,0 +1,17 @@
+package lazy.scan;
+
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Lazy;
+
+@ComponentScan
+@Configuration
+public class LazyApplication {
+
+    @Bean
+    @Lazy
+    AuditLog auditLog() {
+        return new AuditLog();
+    }
+}
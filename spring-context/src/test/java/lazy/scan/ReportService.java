@@ -0,0 +1,6 @@
+package lazy.scan;
+
+public interface ReportService {
+
+    String report();
+}
@@ -0,0 +1,34 @@
+package lazy.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Lazy;
+import jakarta.annotation.PostConstruct;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class ReportServiceImpl implements ReportService {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Autowired
+    public EagerBean eagerBean;
+
+    boolean initialized = false;
+
+    public ReportServiceImpl() {
+        CREATED.incrementAndGet();
+    }
+
+    @PostConstruct
+    void init() {
+        this.initialized = true;
+    }
+
+    @Override
+    public String report() {
+        return "report by " + this.eagerBean.getName() + ", initialized=" + this.initialized;
+    }
+}
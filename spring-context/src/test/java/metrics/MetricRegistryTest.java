@@ -0,0 +1,104 @@
+package metrics;
+
+import cn.xu.spring.metrics.Counter;
+import cn.xu.spring.metrics.Histogram;
+import cn.xu.spring.metrics.JvmMetrics;
+import cn.xu.spring.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 17:30.
+ */
+public class MetricRegistryTest {
+
+    @Test
+    public void counter() throws Exception {
+        var registry = new MetricRegistry();
+        Counter counter = registry.counter("requests", "route", "/hello");
+        assertSame(counter, registry.counter("requests", "route", "/hello"));
+        assertNotSame(counter, registry.counter("requests", "route", "/world"));
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> {
+                for (int n = 0; n < 10000; n++) {
+                    counter.increment();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(80000, counter.getCount());
+        assertEquals("/hello", counter.getId().getTag("route"));
+    }
+
+    @Test
+    public void gauge() {
+        var registry = new MetricRegistry();
+        int[] value = { 1 };
+        var gauge = registry.gauge("queue.size", () -> value[0]);
+        value[0] = 5;
+        assertEquals(5.0, gauge.getValue());
+        assertEquals(1, registry.getMetrics().size());
+    }
+
+    @Test
+    public void jvmMetrics() {
+        var registry = new MetricRegistry();
+        JvmMetrics.bindTo(registry);
+        int size = registry.getMetrics().size();
+        // 重复绑定不会创建新的指标:
+        JvmMetrics.bindTo(registry);
+        assertEquals(size, registry.getMetrics().size());
+        assertTrue(registry.gauge("jvm.memory.used", () -> 0, "area", "heap").getValue() > 0);
+        assertTrue(registry.gauge("jvm.threads.live", () -> 0).getValue() > 0);
+    }
+
+    @Test
+    public void typeConflict() {
+        var registry = new MetricRegistry();
+        registry.counter("requests");
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("requests"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("requests", "odd"));
+    }
+
+    @Test
+    public void histogram() {
+        var registry = new MetricRegistry();
+        Histogram histogram = registry.histogram("latency");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1000_000, snapshot.max());
+        assertEquals(500_500, snapshot.mean(), 0.001);
+        // 相对误差不超过 1/32:
+        assertEquals(500_000, snapshot.percentile(0.5), 500_000 / 32.0);
+        assertEquals(990_000, snapshot.percentile(0.99), 990_000 / 32.0);
+        assertEquals(1000_000, snapshot.percentile(0.999), 1000_000 / 32.0);
+        assertTrue(snapshot.percentile(0.5) >= 500_000);
+        assertEquals(0, new MetricRegistry().histogram("empty").snapshot().percentile(0.99));
+    }
+
+    @Test
+    public void histogramSmallValues() {
+        var histogram = new MetricRegistry().histogram("small");
+        for (int i = 0; i < 32; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-1);
+        var snapshot = histogram.snapshot();
+        assertEquals(33, snapshot.count());
+        assertEquals(15, snapshot.percentile(0.5));
+        assertEquals(31, snapshot.percentile(1.0));
+        assertEquals(17, snapshot.countAtOrBelow(15));
+    }
+}
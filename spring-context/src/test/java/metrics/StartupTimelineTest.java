@@ -0,0 +1,71 @@
+package metrics;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.StartupTimeline;
+import cn.xu.spring.metrics.StartupTimeline.Phase;
+import org.junit.jupiter.api.Test;
+import scope.scan.ScopeApplication;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 23:10.
+ */
+public class StartupTimelineTest {
+
+    @Test
+    public void nestedSteps() throws Exception {
+        var timeline = new StartupTimeline();
+        try (var outer = timeline.start(Phase.CONSTRUCT, "outer")) {
+            Thread.sleep(20);
+            try (var inner = timeline.start(Phase.CONSTRUCT, "inner")) {
+                Thread.sleep(50);
+            }
+        }
+        List<StartupTimeline.StepRecord> steps = timeline.getSteps();
+        assertEquals(2, steps.size());
+        StartupTimeline.StepRecord outer = steps.get(0);
+        StartupTimeline.StepRecord inner = steps.get(1);
+        assertEquals("outer", outer.name());
+        // 外层的自身耗时不包含嵌套步骤:
+        assertEquals(outer.durationNanos() - inner.durationNanos(), outer.selfNanos());
+        assertTrue(inner.selfNanos() >= 50_000_000L);
+        assertEquals("inner", timeline.slowestBeans(1).get(0).name());
+
+        String json = timeline.toJson();
+        assertTrue(json.startsWith("{\"phases\":{\"CONSTRUCT\":"));
+        assertTrue(json.contains("\"name\":\"inner\""));
+    }
+
+    @Test
+    public void contextStartup() {
+        try (var ctx = new AnnotationConfigApplicationContext(ScopeApplication.class, new PropertyResolver(new Properties()))) {
+            StartupTimeline timeline = ctx.getStartupTimeline();
+            Map<Phase, Long> totals = timeline.totalByPhase();
+            assertTrue(totals.containsKey(Phase.SCAN));
+            assertTrue(totals.containsKey(Phase.DEFINITION));
+            assertTrue(totals.containsKey(Phase.CONSTRUCT));
+            assertTrue(totals.containsKey(Phase.INJECT));
+            assertTrue(totals.containsKey(Phase.INIT));
+            List<String> beans = timeline.slowestBeans(100).stream().map(StartupTimeline.BeanTiming::name).toList();
+            assertTrue(beans.contains("singletonBean"));
+            // 非单例的 bean 不在启动时创建:
+            assertFalse(beans.contains("prototypeBean"));
+            String report = timeline.report(1);
+            assertTrue(report.contains("Top 1 slowest beans:"), report);
+
+            // 每个 context 只记录自己的步骤:
+            int steps = timeline.getSteps().size();
+            try (var ctx2 = new AnnotationConfigApplicationContext(ScopeApplication.class, new PropertyResolver(new Properties()))) {
+                assertNotSame(timeline, ctx2.getStartupTimeline());
+                assertEquals(steps, ctx2.getStartupTimeline().getSteps().size());
+            }
+            assertEquals(steps, timeline.getSteps().size());
+        }
+    }
+}
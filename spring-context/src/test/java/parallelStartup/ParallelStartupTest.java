@@ -0,0 +1,51 @@
+package parallelStartup;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.exception.UnsatisfiedDependencyException;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+import parallelStartup.cycle.CycleApplication;
+import parallelStartup.scan.*;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 20:10.
+ */
+public class ParallelStartupTest {
+
+    @Test
+    public void parallelStartup() {
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelApplication.class, createPropertyResolver())) {
+            SlowBeanA a = ctx.getBean(SlowBeanA.class);
+            SlowBeanB b = ctx.getBean(SlowBeanB.class);
+            // 两个互不依赖的 bean 同时初始化:
+            assertTrue(a.concurrent);
+            assertTrue(b.concurrent);
+            // 构造方法依赖先创建并初始化:
+            ServiceBean service = ctx.getBean(ServiceBean.class);
+            assertSame(a, service.slowBeanA);
+            assertEquals("Parallel App", service.title);
+            assertTrue(service.dependencyReady);
+            ClientBean client = ctx.getBean(ClientBean.class);
+            assertSame(service, client.serviceBean);
+            assertSame(b, client.slowBeanB);
+        }
+    }
+
+    @Test
+    public void circularDependency() {
+        assertThrows(UnsatisfiedDependencyException.class,
+                () -> new AnnotationConfigApplicationContext(CycleApplication.class, createPropertyResolver()));
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        ps.put("app.title", "Parallel App");
+        ps.put("xu-spring.context.parallel-startup", "true");
+        ps.put("xu-spring.context.parallel-threads", "4");
+        return new PropertyResolver(ps);
+    }
+}
@@ -0,0 +1,11 @@
+package parallelStartup.cycle;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class CycleA {
+
+    public CycleA(@Autowired CycleB cycleB) {
+    }
+}
@@ -0,0 +1,8 @@
+package parallelStartup.cycle;
+
+import cn.xu.spring.annotation.ComponentScan;
+
+@ComponentScan
+public class CycleApplication {
+
+}
@@ -0,0 +1,17 @@
+package parallelStartup.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class ClientBean {
+
+    public final ServiceBean serviceBean;
+
+    @Autowired
+    public SlowBeanB slowBeanB;
+
+    public ClientBean(@Autowired ServiceBean serviceBean) {
+        this.serviceBean = serviceBean;
+    }
+}
@@ -0,0 +1,8 @@
+package parallelStartup.scan;
+
+import cn.xu.spring.annotation.ComponentScan;
+
+@ComponentScan
+public class ParallelApplication {
+
+}
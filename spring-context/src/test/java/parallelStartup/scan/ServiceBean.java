@@ -0,0 +1,25 @@
+package parallelStartup.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Value;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class ServiceBean {
+
+    public final SlowBeanA slowBeanA;
+    public final String title;
+    // 初始化时依赖的 bean 是否已经初始化完成
+    public boolean dependencyReady = false;
+
+    public ServiceBean(@Autowired SlowBeanA slowBeanA, @Value("${app.title}") String title) {
+        this.slowBeanA = slowBeanA;
+        this.title = title;
+    }
+
+    @PostConstruct
+    void init() {
+        this.dependencyReady = slowBeanA.ready;
+    }
+}
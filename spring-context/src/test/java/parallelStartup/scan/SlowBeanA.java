@@ -0,0 +1,19 @@
+package parallelStartup.scan;
+
+import cn.xu.spring.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class SlowBeanA {
+
+    public volatile boolean ready = false;
+    public volatile boolean concurrent = false;
+
+    @PostConstruct
+    void init() throws InterruptedException {
+        // 另一个慢初始化的 bean 同时在执行时才会通过:
+        StartupLatch.LATCH.countDown();
+        this.concurrent = StartupLatch.LATCH.await(5, java.util.concurrent.TimeUnit.SECONDS);
+        this.ready = true;
+    }
+}
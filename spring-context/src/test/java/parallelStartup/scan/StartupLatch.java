@@ -0,0 +1,8 @@
+package parallelStartup.scan;
+
+import java.util.concurrent.CountDownLatch;
+
+public class StartupLatch {
+
+    public static final CountDownLatch LATCH = new CountDownLatch(2);
+}
@@ -7,12 +7,22 @@ import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.sql.DataSourceDefinition;
 import jakarta.annotation.sub.AnnoScan;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ResourceResolverTest {
 
@@ -87,4 +97,38 @@ public class ResourceResolverTest {
                 "resourcesResolver/scan/sub1/sub2/sub3/sub3.txt", //
         }, classes.toArray(String[]::new));
     }
+
+    @Test
+    public void scanTempJar(@TempDir Path dir) throws IOException {
+        Path jar = dir.resolve("demo.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String name : List.of("demo/", "demo/a/", "demo/a/A.txt", "demo/b/", "demo/b/B.txt", "demo/b/C.txt", "demoOther/", "demoOther/D.txt")) {
+                output.putNextEntry(new JarEntry(name));
+                output.closeEntry();
+            }
+        }
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { jar.toUri().toURL() }, null));
+        try {
+            assertEquals(List.of("demo/a/A.txt", "demo/b/B.txt", "demo/b/C.txt"), new ResourceResolver("demo").scan(res -> res.name()));
+            // 同一个 jar 的条目列表已缓存，扫描其他包时不再读取:
+            List<String> paths = new ResourceResolver("demo.b").scan(res -> res.path() + "/" + res.name());
+            assertEquals(2, paths.size());
+            assertTrue(paths.get(0).startsWith("jar:file:") && paths.get(0).endsWith("demo.jar!/demo/b/B.txt"));
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+        // 没有留下未关闭的 zip FileSystem:
+        assertThrows(FileSystemNotFoundException.class, () -> FileSystems.getFileSystem(URI.create("jar:" + jar.toUri())));
+    }
+
+    @Test
+    public void scanTwice() {
+        var first = new ResourceResolver("resourcesResolver.scan.sub1").scan(res -> res.name().replace("\\", "/"));
+        var second = new ResourceResolver("resourcesResolver.scan.sub1").scan(res -> res.name().replace("\\", "/"));
+        assertEquals(first, second);
+        assertTrue(first.contains("resourcesResolver/scan/sub1/sub2/sub3/sub3.txt"));
+        // 包名前缀相同的兄弟包不会被扫描到:
+        assertTrue(new ResourceResolver("resourcesResolver.scan.sub").scan(res -> res.name()).isEmpty());
+    }
 }
@@ -0,0 +1,119 @@
+package scope;
+
+import cn.xu.spring.context.AnnotationConfigApplicationContext;
+import cn.xu.spring.context.RequestScope;
+import cn.xu.spring.exception.BeanCreationException;
+import cn.xu.spring.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+import scope.scan.*;
+
+import java.lang.ref.WeakReference;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * created by Xu on 2026/10/18 22:10.
+ */
+public class ScopeTest {
+
+    AnnotationConfigApplicationContext createContext() {
+        var ps = new Properties();
+        ps.put("app.name", "prototype");
+        return new AnnotationConfigApplicationContext(ScopeApplication.class, new PropertyResolver(ps));
+    }
+
+    @Test
+    public void prototype() {
+        try (var ctx = createContext()) {
+            SingletonBean singleton = ctx.getBean(SingletonBean.class);
+            int created = PrototypeBean.CREATED.get();
+            PrototypeBean p1 = ctx.getBean(PrototypeBean.class);
+            PrototypeBean p2 = ctx.getBean("prototypeBean");
+            assertEquals(created + 2, PrototypeBean.CREATED.get());
+            assertNotSame(p1, p2);
+            assertNotSame(singleton.prototypeBean, p1);
+            // 每个实例都完成注入和初始化:
+            for (PrototypeBean p : new PrototypeBean[] { p1, p2, singleton.prototypeBean }) {
+                assertEquals("prototype", p.name);
+                assertSame(singleton, p.singletonBean);
+                assertTrue(p.initialized);
+            }
+
+            // @Bean 方法创建的 prototype:
+            Ticket t1 = ctx.getBean(Ticket.class);
+            Ticket t2 = ctx.getBean(Ticket.class);
+            assertNotSame(t1, t2);
+            assertSame(singleton, t1.issuer);
+        }
+    }
+
+    @Test
+    public void threadScope() throws Exception {
+        try (var ctx = createContext()) {
+            Counter counter = ctx.getBean(SingletonBean.class).counter;
+            assertFalse(counter instanceof ThreadCounter);
+            assertEquals(1, counter.increment());
+            assertEquals(2, counter.increment());
+            assertEquals(3, ctx.getBean(ThreadCounter.class).increment());
+            // 其他线程中是另一个实例:
+            assertEquals(1, CompletableFuture.supplyAsync(counter::increment).get());
+            assertEquals(4, counter.increment());
+        }
+    }
+
+    @Test
+    public void threadScopeDestroyedOnClose() throws Exception {
+        // 线程池中的线程在 context 关闭后继续存活:
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            int destroyed = ThreadCounter.DESTROYED.get();
+            WeakReference<ThreadCounter> other;
+            try (var ctx = createContext()) {
+                assertEquals(1, ctx.getBean(ThreadCounter.class).increment());
+                other = executor.submit(() -> {
+                    ThreadCounter counter = ctx.getBean(ThreadCounter.class);
+                    counter.increment();
+                    return new WeakReference<>(counter);
+                }).get();
+            }
+            // 关闭时销毁所有线程中的实例:
+            assertEquals(destroyed + 2, ThreadCounter.DESTROYED.get());
+            // 其他线程不再引用已关闭的 context 的 bean:
+            for (int i = 0; i < 10 && other.get() != null; i++) {
+                System.gc();
+                Thread.sleep(50);
+            }
+            assertNull(other.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void requestScope() {
+        try (var ctx = createContext()) {
+            assertThrows(BeanCreationException.class, () -> ctx.getBean(RequestBean.class));
+            int destroyed = RequestBean.DESTROYED.get();
+            RequestScope.begin();
+            RequestBean bean;
+            try {
+                bean = ctx.getBean(RequestBean.class);
+                assertSame(bean, ctx.getBean(RequestBean.class));
+            } finally {
+                RequestScope.end();
+            }
+            assertEquals(destroyed + 1, RequestBean.DESTROYED.get());
+            RequestScope.begin();
+            try {
+                assertNotSame(bean, ctx.getBean(RequestBean.class));
+            } finally {
+                RequestScope.end();
+            }
+            assertEquals(destroyed + 2, RequestBean.DESTROYED.get());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package scope.scan;
+
+public interface Counter {
+
+    int increment();
+}
@@ -0,0 +1,33 @@
+package scope.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Scope;
+import cn.xu.spring.annotation.Value;
+import jakarta.annotation.PostConstruct;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Scope(Scope.PROTOTYPE)
+public class PrototypeBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public final String name;
+
+    @Autowired
+    public SingletonBean singletonBean;
+
+    public boolean initialized = false;
+
+    public PrototypeBean(@Value("${app.name:scope}") String name) {
+        this.name = name;
+        CREATED.incrementAndGet();
+    }
+
+    @PostConstruct
+    void init() {
+        this.initialized = true;
+    }
+}
@@ -0,0 +1,19 @@
+package scope.scan;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Scope;
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Scope(Scope.REQUEST)
+public class RequestBean {
+
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    @PreDestroy
+    void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+}
@@ -0,0 +1,18 @@
+package scope.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Bean;
+import cn.xu.spring.annotation.ComponentScan;
+import cn.xu.spring.annotation.Configuration;
+import cn.xu.spring.annotation.Scope;
+
+@ComponentScan
+@Configuration
+public class ScopeApplication {
+
+    @Bean
+    @Scope(Scope.PROTOTYPE)
+    Ticket ticket(@Autowired SingletonBean singletonBean) {
+        return new Ticket(singletonBean);
+    }
+}
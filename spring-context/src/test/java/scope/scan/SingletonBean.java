@@ -0,0 +1,15 @@
+package scope.scan;
+
+import cn.xu.spring.annotation.Autowired;
+import cn.xu.spring.annotation.Component;
+
+@Component
+public class SingletonBean {
+
+    @Autowired
+    public PrototypeBean prototypeBean;
+
+    // thread 作用域的 bean 注入的是代理
+    @Autowired
+    public Counter counter;
+}
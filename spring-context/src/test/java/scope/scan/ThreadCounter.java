@@ -0,0 +1,26 @@
+package scope.scan;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Scope;
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Scope(Scope.THREAD)
+public class ThreadCounter implements Counter {
+
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    int count = 0;
+
+    @Override
+    public int increment() {
+        return ++count;
+    }
+
+    @PreDestroy
+    void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+}
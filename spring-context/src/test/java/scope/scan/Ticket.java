@@ -0,0 +1,10 @@
+package scope.scan;
+
+public class Ticket {
+
+    public final SingletonBean issuer;
+
+    public Ticket(SingletonBean issuer) {
+        this.issuer = issuer;
+    }
+}
@@ -5,7 +5,7 @@ import java.lang.annotation.*;
 /**
  * created by Xu on 2024/5/24 15:50.
  */
-@Target(ElementType.TYPE)
+@Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Inherited
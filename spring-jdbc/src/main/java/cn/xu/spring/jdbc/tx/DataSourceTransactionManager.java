@@ -1,12 +1,13 @@
 package cn.xu.spring.jdbc.tx;
 
+import cn.xu.spring.aop.MethodInterceptor;
+import cn.xu.spring.aop.MethodInvocation;
 import cn.xu.spring.exception.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -14,7 +15,8 @@ import java.sql.SQLException;
 /**
  * created by Xu on 2024/5/24 15:20.
  */
-public class DataSourceTransactionManager implements PlatformTransactionManager, InvocationHandler {
+public class DataSourceTransactionManager implements PlatformTransactionManager, InvocationHandler, MethodInterceptor {
+    // 事务绑定在当前线程（包括虚拟线程）上，只在事务方法调用期间存在，结束时一定会 remove，不会被复用的线程带到下一个请求
     static final ThreadLocal<TransactionStatus> transactionStatus = new ThreadLocal<>();
 
     final Logger logger = LoggerFactory.getLogger(getClass());
@@ -27,6 +29,14 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        return invoke(new MethodInvocation(proxy, method, args));
+    }
+
+    /**
+     * 作为拦截器链中的一环时调用，proceed() 继续执行内层拦截器，业务方法的异常直接抛出，不再包装为 InvocationTargetException
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
         TransactionStatus ts = transactionStatus.get();
         if (ts == null) {
             // 如果无事务，则开启事务
@@ -38,12 +48,12 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
                 try {
                     // 设置事务状态并调用业务方法
                     transactionStatus.set(new TransactionStatus(connection));
-                    Object res = method.invoke(proxy, args);
+                    Object res = invocation.proceed();
                     connection.commit();
                     return res;
-                } catch (InvocationTargetException e) {
-                    logger.warn("will rollback transaction for caused exception: {}", e.getCause() == null ? "null" : e.getCause().getClass().getName());
-                    var te = new TransactionException(e.getCause());
+                } catch (Throwable e) {
+                    logger.warn("will rollback transaction for caused exception: {}", e.getClass().getName());
+                    var te = new TransactionException(e);
                     try {
                         connection.rollback();
                     } catch (SQLException sqle) {
@@ -59,7 +69,7 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
                 }
             }
         } else {
-            return method.invoke(proxy, args);
+            return invocation.proceed();
         }
     }
 
@@ -0,0 +1,586 @@
+package cn.xu.spring.web;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * created by Xu on 2026/10/18 16:40.
+ * 内置的响应压缩过滤器：
+ * 1、根据 Accept-Encoding 协商 gzip / deflate
+ * 2、响应体先写入缓冲区，超过阈值后才切换成流式压缩，小响应原样输出并带上 Content-Length
+ * 3、图片、音视频、压缩包等已经压缩过的类型以及已经设置了 Content-Encoding 的响应不再压缩
+ * 4、Deflater 使用本地内存，通过对象池复用，避免每个请求都分配
+ * 5、没有可用的编码或请求路径的类型不能压缩时不包装响应，静态文件仍然可以使用 sendfile
+ * 6、注册 WriteListener 后不再压缩，非阻塞输出直接交给容器
+ */
+public class CompressionFilterRegistrationBean extends FilterRegistrationBean {
+
+    // 已经压缩过的类型
+    static final Set<String> COMPRESSED_TYPES = Set.of("application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2",
+            "application/x-7z-compressed", "application/x-rar-compressed", "application/pdf", "application/octet-stream", "application/wasm",
+            "font/woff", "font/woff2");
+
+    final CompressionFilter filter;
+
+    public CompressionFilterRegistrationBean(boolean enabled, int minResponseSize, int level, int poolSize) {
+        this.filter = new CompressionFilter(enabled, minResponseSize, level, poolSize);
+    }
+
+    @Override
+    public List<String> getUrlPatterns() {
+        return List.of("/*");
+    }
+
+    @Override
+    public Filter getFilter() {
+        return this.filter;
+    }
+
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int n = contentType.indexOf(';');
+        String mime = (n < 0 ? contentType : contentType.substring(0, n)).trim().toLowerCase(Locale.ROOT);
+        if (mime.equals("image/svg+xml")) {
+            return true;
+        }
+        return !(mime.startsWith("image/") || mime.startsWith("video/") || mime.startsWith("audio/") || COMPRESSED_TYPES.contains(mime));
+    }
+
+    public static class CompressionFilter implements Filter {
+        final Logger logger = LoggerFactory.getLogger(getClass());
+
+        final boolean enabled;
+        final int minResponseSize;
+        final DeflaterPool gzipPool;
+        final DeflaterPool deflatePool;
+
+        public CompressionFilter(boolean enabled, int minResponseSize, int level, int poolSize) {
+            this.enabled = enabled;
+            this.minResponseSize = minResponseSize;
+            // gzip 自己写头和尾，使用不带 zlib 包装的 Deflater；HTTP 的 deflate 指 zlib 格式
+            this.gzipPool = new DeflaterPool(level, true, poolSize);
+            this.deflatePool = new DeflaterPool(level, false, poolSize);
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if (!this.enabled || !(request instanceof HttpServletRequest req) || !(response instanceof HttpServletResponse resp)
+                    || req.getMethod().equals("HEAD")) {
+                chain.doFilter(request, response);
+                return;
+            }
+            String acceptEncoding = req.getHeader("Accept-Encoding");
+            String encoding = null;
+            if (acceptEncoding != null) {
+                if (ResourceHandler.acceptsEncoding(acceptEncoding, "gzip")) {
+                    encoding = "gzip";
+                } else if (ResourceHandler.acceptsEncoding(acceptEncoding, "deflate")) {
+                    encoding = "deflate";
+                }
+            }
+            if (encoding == null || !isCompressiblePath(req)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            var wrapper = new CompressionResponseWrapper(resp, encoding, encoding.equals("gzip") ? gzipPool : deflatePool, this.minResponseSize);
+            try {
+                chain.doFilter(req, wrapper);
+            } catch (IOException | ServletException | RuntimeException | Error e) {
+                // 丢弃缓冲的部分响应，由容器重置响应并返回错误
+                wrapper.discard();
+                wrapper.release();
+                throw e;
+            }
+            if (req.isAsyncStarted()) {
+                // 异步请求在 complete() 时才写完响应
+                req.getAsyncContext().addListener(new FinishListener(wrapper));
+            } else {
+                wrapper.finish();
+            }
+        }
+    }
+
+    /**
+     * 按请求路径的扩展名判断，图片、压缩包等一定不会被压缩的请求不包装，类型未知时由响应的 Content-Type 决定
+     */
+    static boolean isCompressiblePath(HttpServletRequest req) {
+        String mime = req.getServletContext().getMimeType(req.getRequestURI());
+        return mime == null || isCompressible(mime);
+    }
+
+    static class FinishListener implements AsyncListener {
+        final Logger logger = LoggerFactory.getLogger(getClass());
+
+        final CompressionResponseWrapper wrapper;
+
+        FinishListener(CompressionResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            try {
+                wrapper.finish();
+            } catch (IOException e) {
+                logger.warn("finish compressed async response failed: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            wrapper.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    static class CompressionResponseWrapper extends HttpServletResponseWrapper {
+        final String encoding;
+        final DeflaterPool pool;
+        final int minResponseSize;
+
+        CompressionOutputStream outputStream;
+        PrintWriter writer;
+        // 通过 setContentLength 声明的长度，-1 表示未知
+        long contentLength = -1;
+        // sendError / sendRedirect 之后不再输出缓冲内容
+        boolean bypass = false;
+
+        CompressionResponseWrapper(HttpServletResponse response, String encoding, DeflaterPool pool, int minResponseSize) {
+            super(response);
+            this.encoding = encoding;
+            this.pool = pool;
+            this.minResponseSize = minResponseSize;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (this.writer != null) {
+                throw new IllegalStateException("getWriter() has already been called.");
+            }
+            return getCompressionOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (this.writer == null) {
+                if (this.outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called.");
+                }
+                this.writer = new PrintWriter(new OutputStreamWriter(getCompressionOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return this.writer;
+        }
+
+        CompressionOutputStream getCompressionOutputStream() {
+            if (this.outputStream == null) {
+                this.outputStream = new CompressionOutputStream(this);
+            }
+            return this.outputStream;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // 是否压缩确定后再决定是否输出 Content-Length
+            this.contentLength = len;
+            if (this.outputStream != null && this.outputStream.state == CompressionOutputStream.IDENTITY) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (name.equalsIgnoreCase("Content-Length")) {
+                setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (name.equalsIgnoreCase("Content-Length")) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            } else if (this.outputStream != null) {
+                this.outputStream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (this.outputStream != null) {
+                this.outputStream.resetBuffer();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (this.outputStream != null) {
+                this.outputStream.resetBuffer();
+            }
+            this.contentLength = -1;
+            super.reset();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            discard();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            discard();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+
+        void discard() {
+            this.bypass = true;
+            if (this.outputStream != null) {
+                this.outputStream.resetBuffer();
+            }
+        }
+
+        /**
+         * 是否需要压缩，只在缓冲区写满时判断一次
+         */
+        boolean shouldCompress() {
+            if (this.encoding == null || this.bypass) {
+                return false;
+            }
+            if (this.contentLength >= 0 && this.contentLength < this.minResponseSize) {
+                return false;
+            }
+            int status = getStatus();
+            if (status < 200 || status == 204 || status == 206 || status == 304) {
+                return false;
+            }
+            HttpServletResponse resp = (HttpServletResponse) getResponse();
+            if (resp.containsHeader("Content-Encoding") || resp.containsHeader("Content-Range")) {
+                return false;
+            }
+            String cacheControl = resp.getHeader("Cache-Control");
+            if (cacheControl != null && cacheControl.contains("no-transform")) {
+                return false;
+            }
+            return isCompressible(getContentType());
+        }
+
+        void finish() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.outputStream != null) {
+                this.outputStream.close();
+            } else if (this.contentLength >= 0 && !this.bypass) {
+                // 没有通过输出流写响应（例如 sendfile），把声明的长度交给容器
+                super.setContentLengthLong(this.contentLength);
+            }
+        }
+
+        void release() {
+            if (this.outputStream != null) {
+                this.outputStream.release();
+            }
+        }
+
+        ServletOutputStream getRawOutputStream() throws IOException {
+            return super.getOutputStream();
+        }
+    }
+
+    static class CompressionOutputStream extends ServletOutputStream {
+        static final int BUFFERING = 0;
+        static final int IDENTITY = 1;
+        static final int COMPRESSING = 2;
+        static final int CLOSED = 3;
+
+        final CompressionResponseWrapper response;
+        byte[] buffer;
+        int count = 0;
+        int state = BUFFERING;
+
+        ServletOutputStream output;
+        // 注册了 WriteListener，由调用方通过 isReady() 控制输出
+        boolean nonBlocking = false;
+        // 压缩时 write(int) 使用的单字节数组
+        byte[] single;
+        Deflater deflater;
+        byte[] deflateBuffer;
+        // gzip 需要 CRC32 和原始长度作为尾部
+        CRC32 crc;
+
+        CompressionOutputStream(CompressionResponseWrapper response) {
+            this.response = response;
+            this.buffer = new byte[Math.max(response.minResponseSize, 512)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            switch (this.state) {
+                case BUFFERING -> {
+                    if (this.count < this.buffer.length) {
+                        this.buffer[this.count++] = (byte) b;
+                        return;
+                    }
+                    start(this.response.shouldCompress());
+                    write(b);
+                }
+                case IDENTITY -> this.output.write(b);
+                case COMPRESSING -> {
+                    if (this.single == null) {
+                        this.single = new byte[1];
+                    }
+                    this.single[0] = (byte) b;
+                    deflate(this.single, 0, 1);
+                }
+                default -> throw new IOException("Stream is closed.");
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            switch (this.state) {
+                case BUFFERING -> {
+                    if (this.count + len <= this.buffer.length) {
+                        System.arraycopy(b, off, this.buffer, this.count, len);
+                        this.count += len;
+                        return;
+                    }
+                    // 超过阈值，决定压缩或原样输出
+                    start(this.response.shouldCompress());
+                    write(b, off, len);
+                }
+                case IDENTITY -> this.output.write(b, off, len);
+                case COMPRESSING -> deflate(b, off, len);
+                default -> throw new IOException("Stream is closed.");
+            }
+        }
+
+        void start(boolean compress) throws IOException {
+            this.output = this.response.getRawOutputStream();
+            HttpServletResponse resp = (HttpServletResponse) this.response.getResponse();
+            if (isCompressible(resp.getContentType())) {
+                resp.addHeader("Vary", "Accept-Encoding");
+            }
+            if (compress) {
+                this.state = COMPRESSING;
+                resp.setHeader("Content-Encoding", this.response.encoding);
+                this.deflater = this.response.pool.borrow();
+                this.deflateBuffer = new byte[8192];
+                if (this.response.encoding.equals("gzip")) {
+                    this.crc = new CRC32();
+                    this.output.write(GZIP_HEADER);
+                }
+            } else {
+                this.state = IDENTITY;
+                if (this.response.contentLength >= 0) {
+                    resp.setContentLengthLong(this.response.contentLength);
+                }
+            }
+            byte[] buffered = this.buffer;
+            int n = this.count;
+            this.buffer = null;
+            this.count = 0;
+            if (n > 0) {
+                write(buffered, 0, n);
+            }
+        }
+
+        void deflate(byte[] b, int off, int len) throws IOException {
+            if (this.crc != null) {
+                this.crc.update(b, off, len);
+            }
+            this.deflater.setInput(b, off, len);
+            while (!this.deflater.needsInput()) {
+                drain(Deflater.NO_FLUSH);
+            }
+        }
+
+        void drain(int flush) throws IOException {
+            int n = this.deflater.deflate(this.deflateBuffer, 0, this.deflateBuffer.length, flush);
+            if (n > 0) {
+                this.output.write(this.deflateBuffer, 0, n);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // 缓冲阶段忽略 flush，否则所有响应都会在阈值之前被提交
+            if (this.state == COMPRESSING) {
+                int n;
+                do {
+                    n = this.deflater.deflate(this.deflateBuffer, 0, this.deflateBuffer.length, Deflater.SYNC_FLUSH);
+                    this.output.write(this.deflateBuffer, 0, n);
+                } while (n == this.deflateBuffer.length);
+                this.output.flush();
+            } else if (this.state == IDENTITY) {
+                this.output.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            switch (this.state) {
+                case BUFFERING -> {
+                    if (this.response.bypass) {
+                        this.state = CLOSED;
+                        return;
+                    }
+                    // 未超过阈值，原样输出并给出准确的长度
+                    if (this.response.contentLength < 0) {
+                        this.response.contentLength = this.count;
+                    }
+                    start(false);
+                    this.output.flush();
+                }
+                case IDENTITY -> {
+                    // 非阻塞输出由调用方完成，不能在这里阻塞 flush
+                    if (!this.nonBlocking) {
+                        this.output.flush();
+                    }
+                }
+                case COMPRESSING -> {
+                    try {
+                        this.deflater.finish();
+                        while (!this.deflater.finished()) {
+                            drain(Deflater.NO_FLUSH);
+                        }
+                        if (this.crc != null) {
+                            writeInt((int) this.crc.getValue());
+                            writeInt((int) this.deflater.getBytesRead());
+                        }
+                        this.output.flush();
+                    } finally {
+                        release();
+                    }
+                }
+                default -> {
+                    return;
+                }
+            }
+            this.state = CLOSED;
+        }
+
+        void writeInt(int i) throws IOException {
+            this.output.write(i & 0xff);
+            this.output.write((i >> 8) & 0xff);
+            this.output.write((i >> 16) & 0xff);
+            this.output.write((i >> 24) & 0xff);
+        }
+
+        void resetBuffer() {
+            if (this.state == BUFFERING) {
+                this.count = 0;
+            }
+        }
+
+        void release() {
+            if (this.deflater != null) {
+                this.response.pool.release(this.deflater);
+                this.deflater = null;
+                this.state = CLOSED;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.output == null || this.output.isReady();
+        }
+
+        /**
+         * 非阻塞输出不压缩：已缓冲的内容原样输出，之后直接写入原始输出流
+         * 已经开始压缩时（在注册前写入了超过阈值的内容）继续压缩，同样把 listener 交给原始输出流
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                if (this.state == BUFFERING) {
+                    start(false);
+                }
+                if (this.output == null) {
+                    this.output = this.response.getRawOutputStream();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.nonBlocking = true;
+            this.output.setWriteListener(writeListener);
+        }
+
+        // gzip 固定头：magic、deflate、无标志、无时间戳、未知系统
+        static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    }
+
+    /**
+     * Deflater 对象池，池满时直接释放本地内存
+     */
+    static class DeflaterPool {
+        final int level;
+        final boolean nowrap;
+        final BlockingQueue<Deflater> pool;
+
+        DeflaterPool(int level, boolean nowrap, int size) {
+            this.level = level;
+            this.nowrap = nowrap;
+            this.pool = new ArrayBlockingQueue<>(Math.max(size, 1));
+        }
+
+        Deflater borrow() {
+            Deflater deflater = this.pool.poll();
+            return deflater != null ? deflater : new Deflater(this.level, this.nowrap);
+        }
+
+        void release(Deflater deflater) {
+            deflater.reset();
+            if (!this.pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -3,15 +3,22 @@ package cn.xu.spring.web;
 import cn.xu.spring.annotation.*;
 import cn.xu.spring.context.ApplicationContext;
 import cn.xu.spring.context.ConfigurableApplicationContext;
+import cn.xu.spring.context.RequestScope;
 import cn.xu.spring.exception.ErrorResponseException;
 import cn.xu.spring.exception.NestedRuntimeException;
 import cn.xu.spring.exception.ServerErrorException;
 import cn.xu.spring.exception.ServerWebInputException;
 import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.Counter;
+import cn.xu.spring.metrics.Histogram;
+import cn.xu.spring.metrics.MetricRegistry;
 import cn.xu.spring.utils.ClassUtils;
 import cn.xu.spring.web.utils.JsonUtils;
-import cn.xu.spring.web.utils.PathUtils;
+import cn.xu.spring.web.utils.PathTrie;
 import cn.xu.spring.web.utils.WebUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,19 +27,20 @@ import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.PrintWriter;
+import java.io.*;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
 /**
  * created by Xu on 2024/5/26 20:55.
@@ -46,18 +54,36 @@ public class DispatcherServlet extends HttpServlet {
 
     String resourcePath;
     String faviconPath;
+    ResourceHandler resourceHandler;
 
-    List<Dispatcher> getDispatchers = new ArrayList<>();
-    List<Dispatcher> postDispatchers = new ArrayList<>();
+    // 异步请求的超时时间（毫秒）
+    long asyncTimeout;
+    // 执行返回 Callable 的处理方法
+    ExecutorService asyncExecutor;
+
+    // 路由表在 init() 中一次性构建
+    PathTrie<Dispatcher> getDispatchers = new PathTrie<>();
+    PathTrie<Dispatcher> postDispatchers = new PathTrie<>();
+
+    // 按路由模板统计请求数、错误数和延迟，未匹配的请求和静态资源各自归为一条路由
+    MetricRegistry metricRegistry = MetricRegistry.getInstance();
+    RouteMetrics getNotFoundMetrics = new RouteMetrics(metricRegistry, "GET", "NOT_FOUND");
+    RouteMetrics postNotFoundMetrics = new RouteMetrics(metricRegistry, "POST", "NOT_FOUND");
+    RouteMetrics resourceMetrics;
 
     public DispatcherServlet(ApplicationContext applicationContext, PropertyResolver propertyResolver) {
         this.applicationContext = applicationContext;
         this.viewResolver = applicationContext.getBean(ViewResolver.class);
         this.resourcePath = propertyResolver.getProperty("${xu-spring.web.static-path:/static/}");
         this.faviconPath = propertyResolver.getProperty("${xu-spring.web.favicon-path:/favicon.ico}");
-        if (resourcePath.endsWith("/")) {
+        this.asyncTimeout = propertyResolver.getProperty("${xu-spring.web.async-timeout:30000}", long.class);
+        int asyncThreads = propertyResolver.getProperty("xu-spring.web.async-threads", int.class, Runtime.getRuntime().availableProcessors() * 2);
+        this.asyncExecutor = Executors.newFixedThreadPool(asyncThreads, new AsyncThreadFactory());
+        if (!resourcePath.endsWith("/")) {
             this.resourcePath += "/";
         }
+        this.resourceHandler = new ResourceHandler(propertyResolver);
+        this.resourceMetrics = new RouteMetrics(this.metricRegistry, "GET", this.resourcePath + "**");
     }
 
     @Override
@@ -83,6 +109,7 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        this.asyncExecutor.shutdown();
         this.applicationContext.close();
     }
 
@@ -100,12 +127,16 @@ public class DispatcherServlet extends HttpServlet {
             GetMapping getMapping = method.getAnnotation(GetMapping.class);
             if (getMapping != null) {
                 checkMethod(method);
-                this.getDispatchers.add(new Dispatcher("GET", isRest, instance, method, getMapping.value()));
+                Dispatcher dispatcher = new Dispatcher("GET", isRest, instance, method, getMapping.value());
+                dispatcher.metrics = new RouteMetrics(this.metricRegistry, "GET", getMapping.value());
+                this.getDispatchers.add(getMapping.value(), dispatcher);
             }
             PostMapping postMapping = method.getAnnotation(PostMapping.class);
             if (postMapping != null) {
                 checkMethod(method);
-                this.postDispatchers.add(new Dispatcher("POST", isRest, instance, method, postMapping.value()));
+                Dispatcher dispatcher = new Dispatcher("POST", isRest, instance, method, postMapping.value());
+                dispatcher.metrics = new RouteMetrics(this.metricRegistry, "POST", postMapping.value());
+                this.postDispatchers.add(postMapping.value(), dispatcher);
             }
         }
         Class<?> superclass = clazz.getSuperclass();
@@ -131,168 +162,332 @@ public class DispatcherServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         String url = req.getRequestURI();
-        if (url.equals(this.faviconPath) || url.equals(this.resourcePath)) {
-            doResource(url, req, resp);
+        if (url.equals(this.faviconPath) || url.startsWith(this.resourcePath)) {
+            long start = System.nanoTime();
+            int status = 500;
+            try {
+                doResource(url, req, resp);
+                status = resp.getStatus();
+            } finally {
+                this.resourceMetrics.record(start, status);
+            }
         } else {
-            doService(req, resp, this.getDispatchers);
+            doService(req, resp, this.getDispatchers, this.getNotFoundMetrics);
         }
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        doService(req, resp, this.postDispatchers);
+        doService(req, resp, this.postDispatchers, this.postNotFoundMetrics);
     }
 
     /**
-     * 参数和异常处理
+     * 参数和异常处理，同步请求在这里记录指标，异步请求在完成时记录
+     * request 作用域绑定在处理请求的线程上，返回前解除绑定；同步请求立即销毁其中的 bean，异步请求在完成、出错或超时后销毁
      */
-    void doService(HttpServletRequest req, HttpServletResponse resp, List<Dispatcher> dispatchers) throws ServletException, IOException {
+    void doService(HttpServletRequest req, HttpServletResponse resp, PathTrie<Dispatcher> dispatchers, RouteMetrics notFoundMetrics)
+            throws ServletException, IOException {
+        RequestScope.begin();
+        try {
+            doServiceInScope(req, resp, dispatchers, notFoundMetrics);
+        } finally {
+            RequestScope scope = RequestScope.detach();
+            if (scope != null) {
+                if (req.isAsyncStarted()) {
+                    req.getAsyncContext().addListener(new RequestScopeListener(scope));
+                } else {
+                    scope.destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * 异步请求结束后销毁 request 作用域的 bean
+     */
+    static class RequestScopeListener implements AsyncListener {
+
+        final RequestScope scope;
+
+        RequestScopeListener(RequestScope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.scope.destroy();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            this.scope.destroy();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            this.scope.destroy();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    void doServiceInScope(HttpServletRequest req, HttpServletResponse resp, PathTrie<Dispatcher> dispatchers, RouteMetrics notFoundMetrics)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
         String url = req.getRequestURI();
+        PathTrie.Match<Dispatcher> match = dispatchers.match(url);
+        RouteMetrics metrics = match == null ? notFoundMetrics : match.handler().metrics;
+        // 抛给容器的异常最终返回 500
+        int status = 500;
         try {
-            doService(url, req, resp, dispatchers);
+            doService(url, match, start, req, resp);
+            status = resp.getStatus();
         } catch (ErrorResponseException e) {
             logger.warn("process request failed with status " + e.statusCode + ": " + url, e);
             if (!resp.isCommitted()) {
                 resp.resetBuffer();
                 resp.sendError(e.statusCode);
             }
-
+            status = e.statusCode;
         } catch (RuntimeException | ServletException | IOException e) {
             logger.warn("process request failed: " + url, e);
             throw e;
         } catch (Exception e) {
             logger.warn("process request failed: " + url, e);
             throw new NestedRuntimeException(e);
+        } finally {
+            if (!req.isAsyncStarted()) {
+                metrics.record(start, status);
+            }
         }
+    }
 
+    /**
+     * 通过路由表找到 dispatcher，再由 dispatcher.process() 处理请求，
+     * 处理方法返回 CompletableFuture / Callable 时切换为异步模式，否则直接处理返回值
+     */
+    void doService(String url, PathTrie.Match<Dispatcher> match, long start, HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        if (match == null) {
+            resp.sendError(404, "Not Found");
+            return;
+        }
+        Dispatcher dispatcher = match.handler();
+        Object r = dispatcher.process(match.values(), req, resp);
+        if (dispatcher.isAsync && r != null) {
+            doAsync(url, dispatcher, r, start, req, resp);
+        } else {
+            handleResult(url, dispatcher, r, req, resp);
+        }
     }
 
     /**
-     * 通过 dispatcher.process() 处理请求，重点是处理返回值
+     * 释放容器线程，等待异步结果完成后在完成结果的线程上继续处理返回值
      */
-    void doService(String url, HttpServletRequest req, HttpServletResponse resp, List<Dispatcher> dispatchers) throws Exception {
-        for (Dispatcher dispatcher : dispatchers) {
-            Result result = dispatcher.process(url, req, resp);
-            if (result.processed()) {
-                Object r = result.returnObject();
-
-                if (dispatcher.isRest) {
-                    // 调度器为REST类型，返回值直接写入HTTP响应体或抛出异常。
-                    if (!resp.isCommitted()) {
-                        resp.setContentType("application/json");
-                    }
-                    if (dispatcher.isResponseBody) {
-                        // 处理 String 和 byte[] 类型
-                        if (r instanceof String s) {
-                            PrintWriter pw = resp.getWriter();
-                            pw.write(s);
-                            pw.flush();
-                        } else if (r instanceof byte[] data) {
-                            ServletOutputStream outputStream = resp.getOutputStream();
-                            outputStream.write(data);
-                            outputStream.flush();
-                        } else {
-                            throw new ServletException("Unable to process REST result when handle url: " + url);
-                        }
-                    } else if (!dispatcher.isVoid) {
-                        PrintWriter writer = resp.getWriter();
-                        JsonUtils.writeJson(writer, r);
-                        writer.flush();
-                    }
-                } else {
-                    // 调度器为MVC类型，处理服务器端请求并返回响应视图
+    void doAsync(String url, Dispatcher dispatcher, Object r, long start, HttpServletRequest req, HttpServletResponse resp) {
+        CompletableFuture<?> future;
+        if (r instanceof Callable<?> callable) {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return callable.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, this.asyncExecutor);
+        } else {
+            future = ((CompletionStage<?>) r).toCompletableFuture();
+        }
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(this.asyncTimeout);
+        // 超时和结果完成只能有一方写入响应
+        AtomicBoolean done = new AtomicBoolean(false);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    logger.warn("async request timeout after {} ms: {}", asyncTimeout, url);
+                    future.cancel(false);
                     if (!resp.isCommitted()) {
-                        resp.setContentType("text/html");
-                    }
-                    // 处理String、byte[]和 ModelAndView
-                    if (r instanceof String s) {
-                        // 写入响应 or 页面跳转
-                        if (dispatcher.isResponseBody) {
-                            PrintWriter pw = resp.getWriter();
-                            pw.write(s);
-                            pw.flush();
-                        } else if (s.startsWith("redirect:")) {
-                            resp.sendRedirect(s.substring(9));
-                        } else {
-                            // error:
-                            throw new ServletException("Unable to process String result when handle url: " + url);
-                        }
-                    } else if (r instanceof byte[] data) {
-                        if (dispatcher.isResponseBody) {
-                            ServletOutputStream outputStream = resp.getOutputStream();
-                            outputStream.write(data);
-                            outputStream.flush();
-                        } else {
-                            throw new ServletException("Unable to process byte[] result when handle url: " + url);
-                        }
-                    } else if (r instanceof ModelAndView mv) {
-                        String viewName = mv.getViewName();
-                        // 跳转到其他视图或者渲染
-                        if (viewName.startsWith("redirect:")) {
-                            resp.sendRedirect(viewName.substring(9));
-                        } else {
-                            this.viewResolver.render(viewName, mv.getModel(), req, resp);
-                        }
-                    } else if (!dispatcher.isVoid && r != null) {
-                        throw new ServletException("Unable to process " + r.getClass().getName() + " result when handle url: " + url);
+                        resp.resetBuffer();
+                        resp.sendError(503);
                     }
+                    dispatcher.metrics.record(start, 503);
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) {
+                    dispatcher.metrics.record(start, 500);
                 }
-                // 特别重要的返回，到这里请求已经处理完了
+                logger.warn("async request failed: " + url, event.getThrowable());
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        future.whenComplete((value, error) -> {
+            if (!done.compareAndSet(false, true)) {
                 return;
             }
+            int status = 500;
+            try {
+                if (error != null) {
+                    throw error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                }
+                handleResult(url, dispatcher, value, req, resp);
+                status = resp.getStatus();
+            } catch (ErrorResponseException e) {
+                logger.warn("process async request failed with status " + e.statusCode + ": " + url, e);
+                sendError(resp, e.statusCode);
+                status = e.statusCode;
+            } catch (Throwable t) {
+                logger.warn("process async request failed: " + url, t);
+                sendError(resp, 500);
+            } finally {
+                dispatcher.metrics.record(start, status);
+                asyncContext.complete();
+            }
+        });
+    }
+
+    void sendError(HttpServletResponse resp, int statusCode) {
+        if (!resp.isCommitted()) {
+            resp.resetBuffer();
+            try {
+                resp.sendError(statusCode);
+            } catch (IOException e) {
+                logger.warn("send error failed.", e);
+            }
         }
-        resp.sendError(404, "Not Found");
     }
 
-    protected void doResource(String url, HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        ServletContext ctx = req.getServletContext();
-        try(InputStream input = ctx.getResourceAsStream(url)) {
-            if (input == null) {
-                resp.sendError(404, "Not Found");
-            } else {
-                // 将资源内容以ServletContext自动推断的MIME类型设置响应的内容类型，输出到响应输出流中
-                String file = url;
-                int n = url.lastIndexOf("/");
-                if (n >= 0) {
-                    file = file.substring(n + 1);
-                }
-                String mime = ctx.getMimeType(file);
-                if (mime == null) {
-                    mime = "application/octet-stream";
+    /**
+     * 处理返回值，同步和异步请求共用
+     */
+    void handleResult(String url, Dispatcher dispatcher, Object r, HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        if (dispatcher.isRest) {
+            // 调度器为REST类型，返回值直接写入HTTP响应体或抛出异常。
+            if (!resp.isCommitted()) {
+                resp.setContentType("application/json");
+            }
+            if (dispatcher.isResponseBody) {
+                // 处理 String 和 byte[] 类型
+                if (r instanceof String s) {
+                    PrintWriter pw = resp.getWriter();
+                    pw.write(s);
+                    pw.flush();
+                } else if (r instanceof byte[] data) {
+                    ServletOutputStream outputStream = resp.getOutputStream();
+                    outputStream.write(data);
+                    outputStream.flush();
+                } else {
+                    throw new ServletException("Unable to process REST result when handle url: " + url);
                 }
-                resp.setContentType(mime);
+            } else if (!dispatcher.isVoid) {
+                // 直接以 UTF-8 字节写入输出流，不经过 Writer 的字符编码
                 ServletOutputStream output = resp.getOutputStream();
-                input.transferTo(output);
+                dispatcher.writeJsonResult(output, r);
                 output.flush();
             }
+        } else {
+            // 调度器为MVC类型，处理服务器端请求并返回响应视图
+            if (!resp.isCommitted()) {
+                resp.setContentType("text/html");
+            }
+            // 处理String、byte[]和 ModelAndView
+            if (r instanceof String s) {
+                // 写入响应 or 页面跳转
+                if (dispatcher.isResponseBody) {
+                    PrintWriter pw = resp.getWriter();
+                    pw.write(s);
+                    pw.flush();
+                } else if (s.startsWith("redirect:")) {
+                    resp.sendRedirect(s.substring(9));
+                } else {
+                    // error:
+                    throw new ServletException("Unable to process String result when handle url: " + url);
+                }
+            } else if (r instanceof byte[] data) {
+                if (dispatcher.isResponseBody) {
+                    ServletOutputStream outputStream = resp.getOutputStream();
+                    outputStream.write(data);
+                    outputStream.flush();
+                } else {
+                    throw new ServletException("Unable to process byte[] result when handle url: " + url);
+                }
+            } else if (r instanceof ModelAndView mv) {
+                String viewName = mv.getViewName();
+                // 跳转到其他视图或者渲染
+                if (viewName.startsWith("redirect:")) {
+                    resp.sendRedirect(viewName.substring(9));
+                } else {
+                    this.viewResolver.render(viewName, mv.getModel(), req, resp);
+                }
+            } else if (!dispatcher.isVoid && r != null) {
+                throw new ServletException("Unable to process " + r.getClass().getName() + " result when handle url: " + url);
+            }
         }
     }
 
+    protected void doResource(String url, HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        this.resourceHandler.handle(url, req, resp);
+    }
+
 
     static class Dispatcher {
-        final static Result NOT_PROCESSED = new Result(false, null);
         final Logger logger = LoggerFactory.getLogger(getClass());
 
         boolean isRest;
         boolean isResponseBody;
         boolean isVoid;
-        Pattern urlPattern;
+        // 返回 CompletionStage 或 Callable，isVoid 和 resultWriter 按其中的结果类型确定
+        boolean isAsync;
+        String urlPattern;
         Object controller;
         Method handlerMethod;
+        // 启动时绑定到 controller 实例的方法句柄，签名统一为 (Object[])Object
+        MethodHandle handlerInvoker;
         Param[] methodParameters;
+        // 与 methodParameters 一一对应，请求时只需要依次调用
+        ArgumentResolver[] argumentResolvers;
+        // REST 方法返回值的序列化器，按方法的返回类型在启动时创建
+        ObjectWriter resultWriter;
+
+        RouteMetrics metrics;
 
         public Dispatcher(String httpMethod, boolean isRest, Object controller, Method method, String urlPattern) throws ServletException {
             this.isRest = isRest;
             this.isResponseBody = method.isAnnotationPresent(ResponseBody.class);
-            this.isVoid = method.getReturnType() == void.class;
-            this.urlPattern = PathUtils.compile(urlPattern);
+            Class<?> returnType = method.getReturnType();
+            Type resultType = method.getGenericReturnType();
+            this.isAsync = CompletionStage.class.isAssignableFrom(returnType) || Callable.class.isAssignableFrom(returnType);
+            if (this.isAsync) {
+                resultType = resultType instanceof ParameterizedType pt ? pt.getActualTypeArguments()[0] : Object.class;
+            }
+            this.isVoid = resultType == void.class || resultType == Void.class;
+            this.urlPattern = urlPattern;
             this.controller = controller;
             this.handlerMethod = method;
+            this.handlerInvoker = bindInvoker(controller, method);
+            if (isRest && !this.isResponseBody && !this.isVoid) {
+                this.resultWriter = JsonUtils.createWriter(resultType);
+            }
             Parameter[] params = method.getParameters();
             Annotation[][] paramsAnnos = method.getParameterAnnotations();
+            String[] pathVariableNames = PathTrie.variableNames(urlPattern);
             this.methodParameters = new Param[params.length];
+            this.argumentResolvers = new ArgumentResolver[params.length];
             for (int i = 0; i < params.length; i++) {
-                this.methodParameters[i] = new Param(httpMethod, method, params[i], paramsAnnos[i]);
+                this.methodParameters[i] = new Param(httpMethod, method, params[i], paramsAnnos[i], pathVariableNames);
+                this.argumentResolvers[i] = this.methodParameters[i].resolver;
             }
             logger.atDebug().log("mapping {} to handler {}.{}", urlPattern, controller.getClass().getSimpleName(), method.getName());
             if (logger.isDebugEnabled()) {
@@ -304,115 +499,91 @@ public class DispatcherServlet extends HttpServlet {
 
         /**
          * 处理http请求。
-         * 根据给定的URL模式匹配请求，并根据匹配结果提取相应的参数，然后调用对应的方法处理请求，并返回处理结果
+         * 路由表已经完成了URL的匹配，这里依次调用预编译的参数解析器得到参数，然后调用对应的方法处理请求，并返回处理结果
          */
-        Result process(String url, HttpServletRequest req, HttpServletResponse resp) throws Exception {
-            Matcher matcher = urlPattern.matcher(url);
-            if (matcher.matches()) {
-                Object[] arguments = new Object[methodParameters.length];
-                for (int i = 0; i < arguments.length; i++) {
-                    Param param = methodParameters[i];
-                    arguments[i] = switch (param.paramType) {
-                        case PATH_VARIABLE -> {
-                            try {
-                                String s = matcher.group(param.name);
-                                yield convertToType(param.classType, s);
-                            } catch (IllegalArgumentException e) {
-                                throw new ServerWebInputException("Path variable '" + param.name + "' not found.");
-                            }
-                        }
-                        case REQUEST_BODY -> {
-                            // 从请求的正文部分读取JSON数据
-                            BufferedReader reader = req.getReader();
-                            yield JsonUtils.readJson(reader, param.classType);
-                        }
-                        case REQUEST_PARAM -> {
-                            // 得到请求参数为空时返回默认值，然后转换为制定的参数类型
-                            String s = getOrDefault(req, param.name, param.defaultValue);
-                            yield convertToType(param.classType, s);
-                        }
-                        case SERVLET_VARIABLE -> {
-                            // 获取相应的HTTP请求、响应、会话或ServletContext对象
-                            Class<?> classType = param.classType;
-                            if (classType == HttpServletRequest.class) {
-                                yield req;
-                            } else if (classType == HttpServletResponse.class) {
-                                yield resp;
-                            } else if (classType == HttpSession.class) {
-                                yield req.getSession();
-                            } else if (classType == ServletContext.class) {
-                                yield req.getServletContext();
-                            } else {
-                                throw new ServerErrorException("Could not determine argument type: " + classType);
-                            }
-                        }
-                    };
-                }
-                Object result = null;
-                try {
-                    result = this.handlerMethod.invoke(this.controller, arguments);
-                } catch (InvocationTargetException e) {
-                    // 可能是业务逻辑中抛出的具体异常类型&&调用栈中保留了原始异常信息
-                    Throwable cause = e.getCause();
-                    if (cause instanceof Exception ex) {
-                        throw ex;
-                    }
-                    throw e;
-                } catch (ReflectiveOperationException e) {
-                    throw new ServerErrorException(e);
-                }
-                return new Result(true, result);
-            }
-            return NOT_PROCESSED;
-        }
-
-        Object convertToType(Class<?> classType, String s) {
-            if (classType == String.class) {
-                return s;
-            } else if (classType == boolean.class || classType == Boolean.class) {
-                return Boolean.valueOf(s);
-            } else if (classType == int.class || classType == Integer.class) {
-                return Integer.valueOf(s);
-            } else if (classType == long.class || classType == Long.class) {
-                return Long.valueOf(s);
-            } else if (classType == byte.class || classType == Byte.class) {
-                return Byte.valueOf(s);
-            } else if (classType == short.class || classType == Short.class) {
-                return Short.valueOf(s);
-            } else if (classType == float.class || classType == Float.class) {
-                return Float.valueOf(s);
-            } else if (classType == double.class || classType == Double.class) {
-                return Double.valueOf(s);
-            } else {
-                throw new ServerErrorException("Could not determine argument type: " + classType);
+        Object process(String[] pathValues, HttpServletRequest req, HttpServletResponse resp) throws Exception {
+            ArgumentResolver[] resolvers = this.argumentResolvers;
+            Object[] arguments = new Object[resolvers.length];
+            for (int i = 0; i < resolvers.length; i++) {
+                arguments[i] = resolvers[i].resolve(pathValues, req, resp);
+            }
+            try {
+                // 方法句柄不会包装业务逻辑中抛出的异常，原始异常直接向上抛出
+                return (Object) this.handlerInvoker.invokeExact(arguments);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ServerErrorException(t);
             }
         }
 
-        String getOrDefault(HttpServletRequest request, String name, String defaultValue) {
-            String s = request.getParameter(name);
-            if (s == null) {
-                if (WebUtils.DEFAULT_PARAM_VALUE.equals(defaultValue)) {
-                    throw new ServerWebInputException("Request parameter '" + name + "' not found.");
-                }
-                return defaultValue;
+        void writeJsonResult(OutputStream output, Object result) throws IOException {
+            try {
+                this.resultWriter.writeValue(output, result);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
             }
-            return s;
         }
 
+        /**
+         * 将处理方法绑定到 controller 实例，并把参数展开、返回值装箱统一适配为 (Object[])Object，
+         * 这样每次请求都是同一签名的 invokeExact 调用，不再经过 Method.invoke 的访问检查和参数校验
+         */
+        static MethodHandle bindInvoker(Object controller, Method method) throws ServletException {
+            try {
+                return MethodHandles.lookup().unreflect(method)
+                        .bindTo(controller)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new ServletException("Cannot access handler method: " + method, e);
+            }
+        }
     }
 
+    /**
+     * 单个处理方法参数的解析器，在 Dispatcher 创建时根据参数的注解和类型确定，请求时不再做类型判断
+     */
+    @FunctionalInterface
+    interface ArgumentResolver {
+        Object resolve(String[] pathValues, HttpServletRequest req, HttpServletResponse resp) throws Exception;
+    }
 
     static enum ParamType {
         PATH_VARIABLE, REQUEST_PARAM, REQUEST_BODY, SERVLET_VARIABLE;
     }
 
     static class Param {
+        // 字符串到参数类型的转换器
+        static final Map<Class<?>, Function<String, Object>> CONVERTERS = new HashMap<>();
+
+        static {
+            CONVERTERS.put(String.class, s -> s);
+            CONVERTERS.put(boolean.class, Boolean::valueOf);
+            CONVERTERS.put(Boolean.class, Boolean::valueOf);
+            CONVERTERS.put(int.class, Integer::valueOf);
+            CONVERTERS.put(Integer.class, Integer::valueOf);
+            CONVERTERS.put(long.class, Long::valueOf);
+            CONVERTERS.put(Long.class, Long::valueOf);
+            CONVERTERS.put(byte.class, Byte::valueOf);
+            CONVERTERS.put(Byte.class, Byte::valueOf);
+            CONVERTERS.put(short.class, Short::valueOf);
+            CONVERTERS.put(Short.class, Short::valueOf);
+            CONVERTERS.put(float.class, Float::valueOf);
+            CONVERTERS.put(Float.class, Float::valueOf);
+            CONVERTERS.put(double.class, Double::valueOf);
+            CONVERTERS.put(Double.class, Double::valueOf);
+        }
+
         String name;
         ParamType paramType;
         Class<?> classType;
         String defaultValue;
+        // 路径变量在路由捕获结果中的下标，-1 表示路径中不存在该变量
+        int pathVariableIndex = -1;
+        ArgumentResolver resolver;
 
-        public Param(String methodName, Method method, Parameter parameter, Annotation[] annotations) throws ServletException {
+        public Param(String methodName, Method method, Parameter parameter, Annotation[] annotations, String[] pathVariableNames) throws ServletException {
             PathVariable pv = ClassUtils.getAnnotation(annotations, PathVariable.class);
             RequestParam rp = ClassUtils.getAnnotation(annotations, RequestParam.class);
             RequestBody rb = ClassUtils.getAnnotation(annotations, RequestBody.class);
@@ -424,22 +595,90 @@ public class DispatcherServlet extends HttpServlet {
             if (pv != null) {
                 this.name = pv.value();
                 this.paramType = ParamType.PATH_VARIABLE;
+                for (int i = 0; i < pathVariableNames.length; i++) {
+                    if (pathVariableNames[i].equals(this.name)) {
+                        this.pathVariableIndex = i;
+                    }
+                }
+                this.resolver = pathVariableResolver(this.name, this.pathVariableIndex, getConverter(this.classType));
             } else if (rp != null) {
                 this.name = rp.value();
                 this.defaultValue = rp.defaultValue();
                 this.paramType = ParamType.REQUEST_PARAM;
+                this.resolver = requestParamResolver(this.name, this.defaultValue, getConverter(this.classType));
             } else if (rb != null) {
                 this.paramType = ParamType.REQUEST_BODY;
+                this.resolver = requestBodyResolver(JsonUtils.createReader(parameter.getParameterizedType()));
             } else {
                 this.paramType = ParamType.SERVLET_VARIABLE;
                 // 检查参数类型是否为合法的Servlet变量类型
-                if (this.classType != HttpServletRequest.class && this.classType != HttpServletResponse.class &&
-                        this.classType != HttpSession.class && this.classType != ServletContext.class) {
+                if (this.classType == HttpServletRequest.class) {
+                    this.resolver = (pathValues, req, resp) -> req;
+                } else if (this.classType == HttpServletResponse.class) {
+                    this.resolver = (pathValues, req, resp) -> resp;
+                } else if (this.classType == HttpSession.class) {
+                    this.resolver = (pathValues, req, resp) -> req.getSession();
+                } else if (this.classType == ServletContext.class) {
+                    this.resolver = (pathValues, req, resp) -> req.getServletContext();
+                } else {
                     throw new ServerErrorException("(Missing annotation?) Unsupported argument type: " + classType + " at method: " + method);
                 }
             }
         }
 
+        static Function<String, Object> getConverter(Class<?> classType) {
+            Function<String, Object> converter = CONVERTERS.get(classType);
+            if (converter == null) {
+                throw new ServerErrorException("Could not determine argument type: " + classType);
+            }
+            return converter;
+        }
+
+        static ArgumentResolver pathVariableResolver(String name, int index, Function<String, Object> converter) {
+            if (index < 0) {
+                return (pathValues, req, resp) -> {
+                    throw new ServerWebInputException("Path variable '" + name + "' not found.");
+                };
+            }
+            return (pathValues, req, resp) -> {
+                try {
+                    return converter.apply(pathValues[index]);
+                } catch (IllegalArgumentException e) {
+                    throw new ServerWebInputException("Path variable '" + name + "' not found.");
+                }
+            };
+        }
+
+        static ArgumentResolver requestParamResolver(String name, String defaultValue, Function<String, Object> converter) {
+            // 得到请求参数为空时返回默认值，未指定默认值则参数是必须的
+            final boolean required = WebUtils.DEFAULT_PARAM_VALUE.equals(defaultValue);
+            return (pathValues, req, resp) -> {
+                String s = req.getParameter(name);
+                if (s == null) {
+                    if (required) {
+                        throw new ServerWebInputException("Request parameter '" + name + "' not found.");
+                    }
+                    s = defaultValue;
+                }
+                return converter.apply(s);
+            };
+        }
+
+        static ArgumentResolver requestBodyResolver(ObjectReader objectReader) {
+            // 从请求的正文部分读取JSON数据，UTF-8 编码时直接交给 Jackson 解析字节
+            return (pathValues, req, resp) -> {
+                String encoding = req.getCharacterEncoding();
+                try {
+                    if (encoding == null || StandardCharsets.UTF_8.name().equalsIgnoreCase(encoding)) {
+                        return objectReader.readValue(req.getInputStream());
+                    }
+                    return objectReader.readValue(req.getReader());
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+
         @Override
         public String toString() {
             return "Param [name=" + name + ", paramType=" + paramType + ", classType=" + classType + ", defaultValue=" + defaultValue + "]";
@@ -447,5 +686,46 @@ public class DispatcherServlet extends HttpServlet {
 
     }
 
-    static record Result(boolean processed, Object returnObject) {}
+    /**
+     * 一条路由的指标，启动时创建好，请求路径上只做递增和记录：
+     * http.server.requests 直方图记录请求数和延迟（纳秒），http.server.errors 按状态码记录 4xx/5xx 的次数
+     */
+    static class RouteMetrics {
+        final MetricRegistry registry;
+        final String method;
+        final String route;
+        final Histogram latency;
+        // 按状态码延迟创建，数组下标为 status - 400
+        final AtomicReferenceArray<Counter> errors = new AtomicReferenceArray<>(200);
+
+        RouteMetrics(MetricRegistry registry, String method, String route) {
+            this.registry = registry;
+            this.method = method;
+            this.route = route;
+            this.latency = registry.histogram("http.server.requests", "method", method, "route", route);
+        }
+
+        void record(long startNanos, int status) {
+            this.latency.record(System.nanoTime() - startNanos);
+            if (status >= 400 && status < 600) {
+                Counter counter = this.errors.get(status - 400);
+                if (counter == null) {
+                    counter = this.registry.counter("http.server.errors", "method", method, "route", route, "status", String.valueOf(status));
+                    this.errors.set(status - 400, counter);
+                }
+                counter.increment();
+            }
+        }
+    }
+
+    static class AsyncThreadFactory implements ThreadFactory {
+        final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "async-dispatcher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
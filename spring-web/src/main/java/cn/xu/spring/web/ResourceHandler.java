@@ -0,0 +1,444 @@
+package cn.xu.spring.web;
+
+import cn.xu.spring.io.PropertyResolver;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * created by Xu on 2026/10/18 15:20.
+ * 静态资源处理：
+ * 1、小文件连同强 ETag、gzip 以及预压缩的 .br/.gz 版本缓存在内存 LRU 中
+ * 2、支持 If-None-Match / If-Modified-Since 条件请求返回 304，支持单段 Range 请求
+ * 3、磁盘上的大文件不缓存，优先交给 Tomcat 的 sendfile，否则用 FileChannel.transferTo 输出
+ */
+public class ResourceHandler {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // 除 text/* 以外可以压缩、会生成 gzip 版本的类型
+    static final Set<String> COMPRESSIBLE_TYPES = Set.of("application/javascript", "application/json", "application/xml", "image/svg+xml",
+            "text/javascript");
+
+    final String cacheControl;
+    final int maxCacheFileSize;
+    final int maxCacheEntries;
+
+    final Map<String, CachedResource> cache;
+
+    public ResourceHandler(PropertyResolver propertyResolver) {
+        this.cacheControl = propertyResolver.getProperty("${xu-spring.web.static-cache-control:no-cache}");
+        this.maxCacheFileSize = propertyResolver.getProperty("${xu-spring.web.static-cache-max-file-size:65536}", int.class);
+        this.maxCacheEntries = propertyResolver.getProperty("${xu-spring.web.static-cache-max-entries:256}", int.class);
+        // 按访问顺序淘汰最久未使用的资源
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResource> eldest) {
+                return size() > maxCacheEntries;
+            }
+        });
+    }
+
+    public void handle(String url, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String path = normalize(url);
+        if (path == null) {
+            resp.sendError(404, "Not Found");
+            return;
+        }
+        ServletContext ctx = req.getServletContext();
+        CachedResource cached = getCached(ctx, path);
+        if (cached != null) {
+            writeCached(cached, req, resp);
+            return;
+        }
+        URL resource = ctx.getResource(path);
+        if (resource == null) {
+            resp.sendError(404, "Not Found");
+            return;
+        }
+        File file = getFile(ctx, path);
+        URLConnection conn = file == null ? resource.openConnection() : null;
+        long length = file != null ? file.length() : conn.getContentLengthLong();
+        long lastModified = file != null ? file.lastModified() : conn.getLastModified();
+        if (length >= 0 && length <= this.maxCacheFileSize) {
+            if (conn != null) {
+                conn.getInputStream().close();
+            }
+            cached = load(ctx, path, file);
+            if (cached != null) {
+                this.cache.put(path, cached);
+                writeCached(cached, req, resp);
+                return;
+            }
+        }
+        // 大文件：使用弱 ETag，直接流式输出
+        try (InputStream input = conn != null ? conn.getInputStream() : null) {
+            String etag = "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            resp.setContentType(getMimeType(ctx, path));
+            writeHeaders(resp, etag, lastModified, null);
+            if (isNotModified(req, etag, lastModified)) {
+                resp.setStatus(304);
+                return;
+            }
+            long[] range = length >= 0 ? parseRange(req, etag, length) : null;
+            if (range == RANGE_NOT_SATISFIABLE) {
+                resp.setHeader("Content-Range", "bytes */" + length);
+                resp.sendError(416);
+                return;
+            }
+            long start = range == null ? 0 : range[0];
+            long count = range == null ? length : range[1] - range[0] + 1;
+            if (range != null) {
+                resp.setStatus(206);
+                resp.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+            }
+            if (count >= 0) {
+                resp.setContentLengthLong(count);
+            }
+            if (file != null) {
+                transferFile(file, start, count, req, resp);
+            } else {
+                ServletOutputStream output = resp.getOutputStream();
+                input.skipNBytes(start);
+                if (range == null) {
+                    input.transferTo(output);
+                } else {
+                    copy(input, output, count);
+                }
+                output.flush();
+            }
+        }
+    }
+
+    /**
+     * 从缓存获取资源，磁盘文件被修改过则丢弃缓存
+     */
+    @Nullable
+    CachedResource getCached(ServletContext ctx, String path) {
+        CachedResource cached = this.cache.get(path);
+        if (cached != null && cached.file() != null && cached.file().lastModified() != cached.lastModified()) {
+            this.cache.remove(path);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * 读取小文件并生成各个编码的版本
+     */
+    @Nullable
+    CachedResource load(ServletContext ctx, String path, @Nullable File file) throws IOException {
+        byte[] data = readResource(ctx, path);
+        if (data == null) {
+            return null;
+        }
+        long lastModified = file != null ? file.lastModified() : ctx.getResource(path).openConnection().getLastModified();
+        String mime = getMimeType(ctx, path);
+        String hash = hash(data);
+        Variant identity = new Variant(data, "\"" + hash + "\"", null);
+        Variant br = null;
+        Variant gzip = null;
+        byte[] brData = readResource(ctx, path + ".br");
+        if (brData != null) {
+            br = new Variant(brData, "\"" + hash + "-br\"", "br");
+        }
+        byte[] gzData = readResource(ctx, path + ".gz");
+        if (gzData == null && isCompressible(mime)) {
+            gzData = gzip(data);
+        }
+        if (gzData != null && gzData.length < data.length) {
+            gzip = new Variant(gzData, "\"" + hash + "-gzip\"", "gzip");
+        }
+        logger.atDebug().log("cache static resource {}: {} bytes, gzip = {}, br = {}", path, data.length, gzip != null, br != null);
+        return new CachedResource(path, mime, lastModified, file, identity, gzip, br);
+    }
+
+    void writeCached(CachedResource cached, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        // Range 请求只针对原始内容
+        boolean hasRange = req.getHeader("Range") != null;
+        Variant variant = hasRange ? cached.identity() : selectVariant(cached, req.getHeader("Accept-Encoding"));
+        boolean hasVariants = cached.gzip() != null || cached.br() != null;
+        resp.setContentType(cached.mime());
+        writeHeaders(resp, variant.etag(), cached.lastModified(), hasVariants ? "Accept-Encoding" : null);
+        if (isNotModified(req, variant.etag(), cached.lastModified())) {
+            resp.setStatus(304);
+            return;
+        }
+        byte[] data = variant.data();
+        long[] range = hasRange ? parseRange(req, variant.etag(), data.length) : null;
+        if (range == RANGE_NOT_SATISFIABLE) {
+            resp.setHeader("Content-Range", "bytes */" + data.length);
+            resp.sendError(416);
+            return;
+        }
+        if (variant.encoding() != null) {
+            resp.setHeader("Content-Encoding", variant.encoding());
+        }
+        ServletOutputStream output = resp.getOutputStream();
+        if (range == null) {
+            resp.setContentLength(data.length);
+            output.write(data);
+        } else {
+            int start = (int) range[0];
+            int count = (int) (range[1] - range[0] + 1);
+            resp.setStatus(206);
+            resp.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + data.length);
+            resp.setContentLength(count);
+            output.write(data, start, count);
+        }
+        output.flush();
+    }
+
+    void writeHeaders(HttpServletResponse resp, String etag, long lastModified, @Nullable String vary) {
+        resp.setHeader("ETag", etag);
+        resp.setHeader("Accept-Ranges", "bytes");
+        if (lastModified > 0) {
+            resp.setDateHeader("Last-Modified", lastModified);
+        }
+        if (!this.cacheControl.isEmpty()) {
+            resp.setHeader("Cache-Control", this.cacheControl);
+        }
+        if (vary != null) {
+            resp.setHeader("Vary", vary);
+        }
+    }
+
+    /**
+     * 磁盘文件优先使用 Tomcat 的 sendfile，不支持时通过 FileChannel.transferTo 输出
+     * 响应被过滤器包装时（例如压缩）不使用 sendfile，由包装类决定响应体和长度，与 Tomcat 的 DefaultServlet 相同
+     */
+    void transferFile(File file, long start, long count, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (Boolean.TRUE.equals(req.getAttribute("org.apache.tomcat.sendfile.support")) && !(resp instanceof ServletResponseWrapper)) {
+            req.setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+            req.setAttribute("org.apache.tomcat.sendfile.start", start);
+            req.setAttribute("org.apache.tomcat.sendfile.end", start + count);
+            return;
+        }
+        ServletOutputStream output = resp.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            long end = start + count;
+            while (position < end) {
+                long n = channel.transferTo(position, end - position, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+        }
+        output.flush();
+    }
+
+    Variant selectVariant(CachedResource cached, @Nullable String acceptEncoding) {
+        if (acceptEncoding != null) {
+            if (cached.br() != null && acceptsEncoding(acceptEncoding, "br")) {
+                return cached.br();
+            }
+            if (cached.gzip() != null && acceptsEncoding(acceptEncoding, "gzip")) {
+                return cached.gzip();
+            }
+        }
+        return cached.identity();
+    }
+
+    /**
+     * 判断 Accept-Encoding 是否接受指定编码，q=0 表示不接受
+     */
+    static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(encoding) || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=") && isZero(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isZero(String q) {
+        try {
+            return Double.parseDouble(q) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-None-Match 优先于 If-Modified-Since
+     */
+    boolean isNotModified(HttpServletRequest req, String etag, long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP 日期只精确到秒
+        return ifModifiedSince >= 0 && lastModified > 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    static final long[] RANGE_NOT_SATISFIABLE = new long[0];
+
+    /**
+     * 解析单段 Range，返回 [start, end]，无 Range 或无法处理时返回 null 表示返回完整内容
+     */
+    @Nullable
+    long[] parseRange(HttpServletRequest req, String etag, long length) {
+        String range = req.getHeader("Range");
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        String spec = range.substring(6).trim();
+        int n = spec.indexOf('-');
+        if (n < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (n == 0) {
+                // bytes=-500 表示最后500字节
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return RANGE_NOT_SATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, n));
+                end = n == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(n + 1)), length - 1);
+            }
+            if (start >= length || start > end) {
+                return RANGE_NOT_SATISFIABLE;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解码并检查路径，拒绝 .. 以及 WEB-INF/META-INF 下的资源
+     */
+    @Nullable
+    static String normalize(String url) {
+        String path = URLDecoder.decode(url.replace("+", "%2B"), StandardCharsets.UTF_8);
+        if (path.indexOf('\\') >= 0 || path.indexOf('\0') >= 0) {
+            return null;
+        }
+        for (String segment : path.split("/")) {
+            if (segment.equals("..") || segment.equals(".")) {
+                return null;
+            }
+        }
+        String upper = path.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("/WEB-INF") || upper.startsWith("/META-INF")) {
+            return null;
+        }
+        return path;
+    }
+
+    @Nullable
+    static File getFile(ServletContext ctx, String path) {
+        String realPath = ctx.getRealPath(path);
+        if (realPath != null) {
+            File file = new File(realPath);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    static byte[] readResource(ServletContext ctx, String path) throws IOException {
+        try (InputStream input = ctx.getResourceAsStream(path)) {
+            return input == null ? null : input.readAllBytes();
+        }
+    }
+
+    static String getMimeType(ServletContext ctx, String path) {
+        String mime = ctx.getMimeType(path.substring(path.lastIndexOf('/') + 1));
+        return mime == null ? "application/octet-stream" : mime;
+    }
+
+    static boolean isCompressible(String mime) {
+        return mime.startsWith("text/") || COMPRESSIBLE_TYPES.contains(mime);
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2 + 32);
+        try (GZIPOutputStream output = new GZIPOutputStream(buffer)) {
+            output.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void copy(InputStream input, OutputStream output, long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (count > 0) {
+            int n = input.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (n < 0) {
+                break;
+            }
+            output.write(buffer, 0, n);
+            count -= n;
+        }
+    }
+
+    record Variant(byte[] data, String etag, @Nullable String encoding) {
+    }
+
+    record CachedResource(String path, String mime, long lastModified, @Nullable File file, Variant identity, @Nullable Variant gzip,
+                          @Nullable Variant br) {
+    }
+}
@@ -28,6 +28,15 @@ public class WebMvcConfiguration {
         return new FreeMarkerViewResolver(servletContext, templatePath, templateEncoding);
     }
 
+    @Bean
+    CompressionFilterRegistrationBean compressionFilterRegistrationBean(
+            @Value("${xu-spring.web.compression.enabled:true}") boolean enabled, //
+            @Value("${xu-spring.web.compression.min-response-size:2048}") int minResponseSize, //
+            @Value("${xu-spring.web.compression.level:6}") int level, //
+            @Value("${xu-spring.web.compression.pool-size:32}") int poolSize) {
+        return new CompressionFilterRegistrationBean(enabled, minResponseSize, level, poolSize);
+    }
+
     @Bean
     ServletContext servletContext() {
         return Objects.requireNonNull(servletContext, "ServletContext is not set.");
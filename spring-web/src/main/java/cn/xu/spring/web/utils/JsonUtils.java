@@ -1,13 +1,15 @@
 package cn.xu.spring.web.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.*;
 
 import java.io.*;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +32,27 @@ public class JsonUtils {
         return mapper;
     }
 
+    /**
+     * 创建绑定了类型的 ObjectReader，反序列化器在第一次使用后缓存在 reader 中
+     */
+    public static ObjectReader createReader(Type type) {
+        return OBJECT_MAPPER.readerFor(OBJECT_MAPPER.constructType(type));
+    }
+
+    /**
+     * 创建用于序列化指定声明类型的 ObjectWriter，写入后不关闭目标流。
+     * 只有 final 类型和容器类型才按声明类型预先解析序列化器，
+     * 其他类型实际返回的可能是子类，仍按运行时类型序列化，避免丢失子类的属性
+     */
+    public static ObjectWriter createWriter(Type type) {
+        JavaType javaType = OBJECT_MAPPER.constructType(type);
+        Class<?> raw = javaType.getRawClass();
+        boolean typed = javaType.isPrimitive() || javaType.isArrayType() || Modifier.isFinal(raw.getModifiers())
+                || Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw);
+        ObjectWriter writer = typed ? OBJECT_MAPPER.writerFor(javaType) : OBJECT_MAPPER.writer();
+        return writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
     public static String writeJson(Object o) {
         try {
             return OBJECT_MAPPER.writeValueAsString(o);
@@ -0,0 +1,212 @@
+package cn.xu.spring.web.utils;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.ServletException;
+
+import java.util.*;
+
+/**
+ * created by Xu on 2026/10/18 10:12.
+ * 基于路径段的路由表，在启动时一次性构建：
+ * 1、不含变量的路由直接按整条路径放入 HashMap，O(1) 命中
+ * 2、含 {var} 的路由按 '/' 拆分成路径段挂到前缀树上，静态段用 HashMap 查找，变量段作为通配子节点
+ * 匹配时不使用正则，变量值按其在路径中出现的顺序返回
+ */
+public class PathTrie<T> {
+
+    // 完全静态的路由
+    final Map<String, Route<T>> staticRoutes = new HashMap<>();
+
+    final Node<T> root = new Node<>("", "");
+
+    // 所有路由中变量个数的最大值，用于预分配匹配时的数组
+    int maxVariables = 0;
+
+    public void add(String path, T handler) throws ServletException {
+        List<Segment> segments = parse(path);
+        String[] variableNames = segments.stream().filter(Segment::isVariable).map(Segment::variable).toArray(String[]::new);
+        Route<T> route = new Route<>(path, handler, variableNames);
+        if (variableNames.length == 0) {
+            Route<T> exist = staticRoutes.putIfAbsent(path, route);
+            if (exist != null) {
+                throw new ServletException("Duplicate URL mapping: " + path + " conflicts with " + exist.path());
+            }
+            return;
+        }
+        Node<T> node = this.root;
+        for (Segment segment : segments) {
+            node = segment.isVariable() ? node.patternChild(segment.prefix(), segment.suffix()) : node.staticChild(segment.prefix());
+        }
+        if (node.route != null) {
+            throw new ServletException("Duplicate URL mapping: " + path + " conflicts with " + node.route.path());
+        }
+        node.route = route;
+        this.maxVariables = Math.max(this.maxVariables, variableNames.length);
+    }
+
+    /**
+     * 根据请求的 URI 查找路由，未找到返回 null
+     */
+    @Nullable
+    public Match<T> match(String url) {
+        Route<T> route = staticRoutes.get(url);
+        if (route != null) {
+            return new Match<>(route.handler(), route.variableNames(), Route.NO_VALUES);
+        }
+        if (this.maxVariables == 0 || url.isEmpty() || url.charAt(0) != '/') {
+            return null;
+        }
+        String[] values = new String[this.maxVariables];
+        route = find(this.root, url, 1, values, 0);
+        if (route == null) {
+            return null;
+        }
+        return new Match<>(route.handler(), route.variableNames(), Arrays.copyOf(values, route.variableNames().length));
+    }
+
+    /**
+     * 逐段匹配，静态段优先，失败时回溯到变量段
+     */
+    Route<T> find(Node<T> node, String url, int start, String[] values, int index) {
+        int end = url.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = url.length();
+        }
+        String segment = url.substring(start, end);
+        Node<T> child = node.children.get(segment);
+        if (child != null) {
+            Route<T> route = last ? child.route : find(child, url, end + 1, values, index);
+            if (route != null) {
+                return route;
+            }
+        }
+        for (Node<T> pattern : node.patterns) {
+            if (pattern.matches(segment)) {
+                values[index] = segment.substring(pattern.prefix.length(), segment.length() - pattern.suffix.length());
+                Route<T> route = last ? pattern.route : find(pattern, url, end + 1, values, index + 1);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回路径中变量的名称，顺序与 {@link Match#values()} 一致
+     */
+    public static String[] variableNames(String path) throws ServletException {
+        return parse(path).stream().filter(Segment::isVariable).map(Segment::variable).toArray(String[]::new);
+    }
+
+    /**
+     * 将路径拆分成路径段，每段最多包含一个 {var}，变量名要求以字母开头且只包含字母和数字
+     */
+    static List<Segment> parse(String path) throws ServletException {
+        if (!path.startsWith("/")) {
+            throw new ServletException("Invalid path: " + path);
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (String s : path.substring(1).split("/", -1)) {
+            int left = s.indexOf('{');
+            int right = s.indexOf('}');
+            if (left < 0 && right < 0) {
+                segments.add(new Segment(s, null, null));
+                continue;
+            }
+            if (left < 0 || right < left || s.indexOf('{', left + 1) >= 0 || s.indexOf('}', right + 1) >= 0) {
+                throw new ServletException("Invalid path: " + path);
+            }
+            String name = s.substring(left + 1, right);
+            if (!isValidVariableName(name)) {
+                throw new ServletException("Invalid path: " + path);
+            }
+            segments.add(new Segment(s.substring(0, left), name, s.substring(right + 1)));
+        }
+        return segments;
+    }
+
+    static boolean isValidVariableName(String name) {
+        if (name.isEmpty() || !isAsciiLetter(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (!isAsciiLetter(ch) && !(ch >= '0' && ch <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isAsciiLetter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
+    /**
+     * 匹配结果，values 中是按路径顺序捕获的变量值
+     */
+    public record Match<T>(T handler, String[] names, String[] values) {
+
+        @Nullable
+        public String getVariable(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    record Route<T>(String path, T handler, String[] variableNames) {
+        static final String[] NO_VALUES = new String[0];
+    }
+
+    /**
+     * 路径段：静态段只有 prefix，变量段为 prefix{variable}suffix
+     */
+    record Segment(String prefix, String variable, String suffix) {
+        boolean isVariable() {
+            return variable != null;
+        }
+    }
+
+    static class Node<T> {
+        final String prefix;
+        final String suffix;
+
+        final Map<String, Node<T>> children = new HashMap<>();
+
+        // 变量子节点，前后缀越长越优先匹配
+        final List<Node<T>> patterns = new ArrayList<>();
+
+        Route<T> route;
+
+        Node(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        Node<T> staticChild(String segment) {
+            return children.computeIfAbsent(segment, s -> new Node<>("", ""));
+        }
+
+        Node<T> patternChild(String prefix, String suffix) {
+            for (Node<T> pattern : patterns) {
+                if (pattern.prefix.equals(prefix) && pattern.suffix.equals(suffix)) {
+                    return pattern;
+                }
+            }
+            Node<T> node = new Node<>(prefix, suffix);
+            patterns.add(node);
+            patterns.sort(Comparator.comparingInt((Node<T> n) -> n.prefix.length() + n.suffix.length()).reversed());
+            return node;
+        }
+
+        boolean matches(String segment) {
+            return segment.length() >= prefix.length() + suffix.length() && segment.startsWith(prefix) && segment.endsWith(suffix);
+        }
+    }
+}
@@ -42,6 +42,8 @@ public class WebUtils {
         var dispatcherReg = servletContext.addServlet("dispatcherServlet", dispatcherServlet);
         dispatcherReg.addMapping("/");
         dispatcherReg.setLoadOnStartup(0);
+        // 处理方法可以返回 CompletableFuture / Callable 进行异步处理
+        dispatcherReg.setAsyncSupported(true);
     }
 
     public static PropertyResolver createPropertyResolver() {
@@ -83,6 +85,8 @@ public class WebUtils {
             Filter filter = Objects.requireNonNull(registrationBean.getFilter(), "FilterRegistrationBean.getFilter() must not return null.");
             logger.info("register filter '{}' {} for URLs: {}", registrationBean.getName(), filter.getClass().getName(), String.join(", ", urlPatterns));
             var filterReg = servletContext.addFilter(registrationBean.getName(), filter);
+            // 异步请求经过的过滤器也必须支持异步
+            filterReg.setAsyncSupported(true);
             // java.util.EnumSet<jakarta.servlet.DispatcherType>enumSet, 请求调度时应用过滤器
             // boolean b, 过滤器在所有子请求前应用
             // string...strings, 将URL转为字符串数组并添加
@@ -0,0 +1,280 @@
+package cn.xu.spring;
+
+import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.web.CompressionFilterRegistrationBean;
+import cn.xu.spring.web.ResourceHandler;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionFilterTest {
+
+    static final String LARGE_JSON = "[" + "{\"name\":\"Bob\",\"email\":\"bob@example.com\"},".repeat(200) + "{}]";
+
+    Filter filter = new CompressionFilterRegistrationBean(true, 1024, 6, 4).getFilter();
+
+    @Test
+    void gzipLargeResponse() throws ServletException, IOException {
+        var resp = doFilter("gzip, deflate", "application/json", LARGE_JSON);
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        assertTrue(resp.getContentAsByteArray().length < LARGE_JSON.length());
+        byte[] data = new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())).readAllBytes();
+        assertEquals(LARGE_JSON, new String(data, StandardCharsets.UTF_8));
+        // Deflater 被归还后可以复用:
+        var resp2 = doFilter("gzip", "application/json", LARGE_JSON);
+        byte[] data2 = new GZIPInputStream(new ByteArrayInputStream(resp2.getContentAsByteArray())).readAllBytes();
+        assertEquals(LARGE_JSON, new String(data2, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deflateLargeResponse() throws ServletException, IOException {
+        var resp = doFilter("deflate", "text/html", LARGE_JSON);
+        assertEquals("deflate", resp.getHeader("Content-Encoding"));
+        byte[] data = new InflaterInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())).readAllBytes();
+        assertEquals(LARGE_JSON, new String(data, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void smallResponse() throws ServletException, IOException {
+        var resp = doFilter("gzip", "application/json", "{\"name\":\"Bob\"}");
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(14, resp.getContentLength());
+        assertEquals("{\"name\":\"Bob\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void skipCompressedType() throws ServletException, IOException {
+        var resp = doFilter("gzip", "image/png", LARGE_JSON);
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(LARGE_JSON, resp.getContentAsString());
+    }
+
+    @Test
+    void notAccepted() throws ServletException, IOException {
+        var resp = doFilter("gzip;q=0, identity", "application/json", LARGE_JSON);
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(LARGE_JSON, resp.getContentAsString());
+    }
+
+    @Test
+    void handlerFailed() {
+        var req = new MockHttpServletRequest("GET", "/api/data");
+        req.addHeader("Accept-Encoding", "gzip");
+        var resp = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"partial\":");
+                throw new IllegalStateException("write json failed");
+            }
+        };
+        // 异常抛给容器，不输出部分响应:
+        assertThrows(IllegalStateException.class, () -> new MockFilterChain(servlet, this.filter).doFilter(req, resp));
+        assertFalse(resp.isCommitted());
+        assertEquals(0, resp.getContentAsByteArray().length);
+        assertNull(resp.getHeader("Content-Length"));
+    }
+
+    @Test
+    void contentLengthWithoutBody() throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/download");
+        var resp = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                // 响应体由容器输出（例如 sendfile），只设置长度:
+                resp.setContentType("text/plain");
+                resp.setContentLengthLong(3360);
+            }
+        };
+        new MockFilterChain(servlet, this.filter).doFilter(req, resp);
+        assertEquals(3360, resp.getContentLengthLong());
+    }
+
+    @Test
+    void largeStaticFile() throws ServletException, IOException {
+        Path path = Path.of("./src/test/resources/static/large.txt");
+        byte[] file = Files.readAllBytes(path);
+        // 不接受压缩时不包装响应，仍然使用 sendfile:
+        var req = staticRequest(path.getParent().getParent(), "/static/large.txt", null);
+        var resp = doStaticFilter(req, "/static/large.txt");
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(file.length, resp.getContentLengthLong());
+        assertEquals(path.toAbsolutePath().normalize(), Path.of((String) req.getAttribute("org.apache.tomcat.sendfile.filename")).normalize());
+        // 接受压缩时压缩输出，被包装的响应不能使用 sendfile:
+        var req2 = staticRequest(path.getParent().getParent(), "/static/large.txt", "gzip");
+        var resp2 = doStaticFilter(req2, "/static/large.txt");
+        assertNull(req2.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals("gzip", resp2.getHeader("Content-Encoding"));
+        assertArrayEquals(file, new GZIPInputStream(new ByteArrayInputStream(resp2.getContentAsByteArray())).readAllBytes());
+    }
+
+    @Test
+    void incompressibleStaticFile() throws ServletException, IOException {
+        Path root = Files.createTempDirectory("static-");
+        Path image = Files.createDirectories(root.resolve("static")).resolve("photo.png");
+        Files.write(image, new byte[4096]);
+        try {
+            // 接受压缩，但图片不会被压缩，不包装响应，仍然使用 sendfile:
+            var req = staticRequest(root, "/static/photo.png", "gzip");
+            var resp = doStaticFilter(req, "/static/photo.png");
+            assertNull(resp.getHeader("Content-Encoding"));
+            assertEquals(4096, resp.getContentLengthLong());
+            assertNotNull(req.getAttribute("org.apache.tomcat.sendfile.filename"));
+        } finally {
+            Files.delete(image);
+            Files.delete(image.getParent());
+            Files.delete(root);
+        }
+    }
+
+    @Test
+    void writeSingleBytes() throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/api/data");
+        req.addHeader("Accept-Encoding", "gzip");
+        var resp = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                // 逐字节写入，超过阈值后切换为压缩:
+                var output = resp.getOutputStream();
+                for (byte b : LARGE_JSON.getBytes(StandardCharsets.UTF_8)) {
+                    output.write(b);
+                }
+            }
+        };
+        new MockFilterChain(servlet, this.filter).doFilter(req, resp);
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        byte[] data = new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())).readAllBytes();
+        assertEquals(LARGE_JSON, new String(data, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeListener() throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/api/data");
+        req.addHeader("Accept-Encoding", "gzip");
+        var mock = new MockHttpServletResponse();
+        // 记录交给原始输出流的 WriteListener:
+        var registered = new ArrayList<WriteListener>();
+        var resp = new HttpServletResponseWrapper(mock) {
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                ServletOutputStream output = mock.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        output.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        registered.add(listener);
+                    }
+                };
+            }
+        };
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                var output = resp.getOutputStream();
+                output.write("[".getBytes(StandardCharsets.UTF_8));
+                // 注册 WriteListener 后不再压缩:
+                output.setWriteListener(listener);
+                output.write(LARGE_JSON.substring(1).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        new MockFilterChain(servlet, this.filter).doFilter(req, resp);
+        assertEquals(List.of(listener), registered);
+        assertNull(mock.getHeader("Content-Encoding"));
+        assertEquals(LARGE_JSON, mock.getContentAsString());
+    }
+
+    MockHttpServletRequest staticRequest(Path root, String path, String acceptEncoding) {
+        var ctx = new MockServletContext("file://" + root.toAbsolutePath().normalize());
+        var req = new MockHttpServletRequest(ctx, "GET", path);
+        // 容器支持 sendfile，只有没被包装的响应才能使用:
+        req.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        if (acceptEncoding != null) {
+            req.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return req;
+    }
+
+    MockHttpServletResponse doStaticFilter(MockHttpServletRequest req, String path) throws ServletException, IOException {
+        var ps = new Properties();
+        ps.put("xu-spring.web.static-cache-max-file-size", "1024");
+        var handler = new ResourceHandler(new PropertyResolver(ps));
+        var resp = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                handler.handle(path, req, resp);
+            }
+        };
+        new MockFilterChain(servlet, this.filter).doFilter(req, resp);
+        return resp;
+    }
+
+    MockHttpServletResponse doFilter(String acceptEncoding, String contentType, String body) throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/api/data");
+        req.addHeader("Accept-Encoding", acceptEncoding);
+        var resp = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                resp.setCharacterEncoding("UTF-8");
+                // 分多次写入并 flush，模拟流式输出:
+                byte[] data = body.getBytes(StandardCharsets.UTF_8);
+                var output = resp.getOutputStream();
+                for (int i = 0; i < data.length; i += 100) {
+                    output.write(data, i, Math.min(100, data.length - i));
+                    output.flush();
+                }
+            }
+        };
+        new MockFilterChain(servlet, this.filter).doFilter(req, resp);
+        return resp;
+    }
+}
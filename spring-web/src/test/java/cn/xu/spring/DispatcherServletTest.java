@@ -3,7 +3,9 @@ package cn.xu.spring;
 import cn.xu.spring.context.AnnotationConfigApplicationContext;
 import cn.xu.spring.controller.ApiController;
 import cn.xu.spring.controller.ControllerConfiguration;
+import cn.xu.spring.controller.RequestTraceImpl;
 import cn.xu.spring.io.PropertyResolver;
+import cn.xu.spring.metrics.MetricRegistry;
 import cn.xu.spring.web.DispatcherServlet;
 import cn.xu.spring.web.WebMvcConfiguration;
 import cn.xu.spring.web.utils.JsonUtils;
@@ -15,11 +17,15 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.mock.web.MockServletContext;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -190,6 +196,191 @@ public class DispatcherServletTest {
         assertEquals(Boolean.TRUE, req.getSession().getAttribute("signout"));
     }
 
+    @Test
+    void getApiAsyncFuture() throws Exception {
+        var req = createMockRequest("GET", "/api/async/future/Bob", null, null);
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(200, resp.getStatus());
+        assertEquals("application/json", resp.getContentType());
+        assertEquals("{\"name\":\"Bob\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void getApiAsyncCallable() throws Exception {
+        var req = createMockRequest("GET", "/api/async/callable/Alice", null, null);
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(200, resp.getStatus());
+        assertEquals("{\"name\":\"Alice\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void getApiAsyncError() throws Exception {
+        var req = createMockRequest("GET", "/api/async/error", null, null);
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(400, resp.getStatus());
+    }
+
+    @Test
+    void getStaticResource() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/app.js", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("max-age=60", resp.getHeader("Cache-Control"));
+        assertNull(resp.getHeader("Content-Encoding"));
+        String etag = resp.getHeader("ETag");
+        assertNotNull(etag);
+        assertTrue(resp.getContentAsString().startsWith("// test script"));
+        // 相同的 ETag 返回 304:
+        var req2 = createMockRequest("GET", "/static/app.js", null, null);
+        req2.addHeader("If-None-Match", etag);
+        var resp2 = createMockResponse();
+        this.dispatcherServlet.service(req2, resp2);
+        assertEquals(304, resp2.getStatus());
+        assertEquals(0, resp2.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getStaticResourceGzip() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Accept-Encoding", "br;q=0, gzip, deflate");
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        byte[] data = new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())).readAllBytes();
+        assertTrue(new String(data, StandardCharsets.UTF_8).startsWith("// test script"));
+    }
+
+    @Test
+    void getStaticResourceRange() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Range", "bytes=3-8");
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(206, resp.getStatus());
+        assertEquals("test s", resp.getContentAsString());
+        assertTrue(resp.getHeader("Content-Range").startsWith("bytes 3-8/"));
+
+        var req2 = createMockRequest("GET", "/static/app.js", null, null);
+        req2.addHeader("Range", "bytes=100000-");
+        var resp2 = createMockResponse();
+        this.dispatcherServlet.service(req2, resp2);
+        assertEquals(416, resp2.getStatus());
+    }
+
+    @Test
+    void getLargeStaticResource() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/large.txt", null, null);
+        req.addHeader("Accept-Encoding", "gzip");
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertTrue(resp.getHeader("ETag").startsWith("W/"));
+        assertEquals(3360, resp.getContentAsByteArray().length);
+
+        var req2 = createMockRequest("GET", "/static/large.txt", null, null);
+        req2.addHeader("Range", "bytes=-56");
+        var resp2 = createMockResponse();
+        this.dispatcherServlet.service(req2, resp2);
+        assertEquals(206, resp2.getStatus());
+        assertEquals("0059 large static file content, streamed without cache.\n", resp2.getContentAsString());
+    }
+
+    @Test
+    void getStaticResourceNotFound() throws ServletException, IOException {
+        for (String path : List.of("/static/missing.js", "/static/../WEB-INF/templates/product.html", "/static/%2e%2e/WEB-INF/templates/product.html")) {
+            var req = createMockRequest("GET", path, null, null);
+            var resp = createMockResponse();
+            this.dispatcherServlet.service(req, resp);
+            assertEquals(404, resp.getStatus());
+        }
+    }
+
+    @Test
+    void routeMetrics() throws Exception {
+        var registry = MetricRegistry.getInstance();
+        var latency = registry.histogram("http.server.requests", "method", "GET", "route", "/api/hello/{name}");
+        var badRequest = registry.counter("http.server.errors", "method", "GET", "route", "/api/greeting", "status", "400");
+        var notFound = registry.histogram("http.server.requests", "method", "GET", "route", "NOT_FOUND");
+        long latencyCount = latency.snapshot().count();
+        long badRequestCount = badRequest.getCount();
+        long notFoundCount = notFound.snapshot().count();
+        // 按路由模板而不是原始 URL 统计:
+        for (String name : new String[] { "Bob", "Alice" }) {
+            this.dispatcherServlet.service(createMockRequest("GET", "/api/hello/" + name, null, null), createMockResponse());
+        }
+        this.dispatcherServlet.service(createMockRequest("GET", "/api/greeting", null, null), createMockResponse());
+        this.dispatcherServlet.service(createMockRequest("GET", "/no-such-page", null, null), createMockResponse());
+        assertEquals(latencyCount + 2, latency.snapshot().count());
+        assertTrue(latency.snapshot().percentile(0.99) > 0);
+        assertEquals(badRequestCount + 1, badRequest.getCount());
+        assertEquals(notFoundCount + 1, notFound.snapshot().count());
+
+        var async = registry.histogram("http.server.requests", "method", "GET", "route", "/api/async/future/{name}");
+        long asyncCount = async.snapshot().count();
+        var req = createMockRequest("GET", "/api/async/future/Bob", null, null);
+        req.setAsyncSupported(true);
+        this.dispatcherServlet.service(req, createMockResponse());
+        awaitAsync(req);
+        assertEquals(asyncCount + 1, async.snapshot().count());
+    }
+
+    @Test
+    void requestScope() throws ServletException, IOException {
+        int destroyed = RequestTraceImpl.DESTROYED.get();
+        var resp1 = createMockResponse();
+        this.dispatcherServlet.service(createMockRequest("GET", "/api/trace", null, null), resp1);
+        var resp2 = createMockResponse();
+        this.dispatcherServlet.service(createMockRequest("GET", "/api/trace", null, null), resp2);
+        Map<?, ?> trace1 = JsonUtils.readJson(resp1.getContentAsString(), Map.class);
+        Map<?, ?> trace2 = JsonUtils.readJson(resp2.getContentAsString(), Map.class);
+        // 同一个请求中是同一个实例，不同请求是不同实例，请求结束后销毁
+        assertEquals(2, trace1.get("marks"));
+        assertEquals(2, trace2.get("marks"));
+        assertNotEquals(trace1.get("id"), trace2.get("id"));
+        assertEquals(destroyed + 2, RequestTraceImpl.DESTROYED.get());
+    }
+
+    @Test
+    void asyncRequestScope() throws Exception {
+        int destroyed = RequestTraceImpl.DESTROYED.get();
+        ApiController.asyncTraceGate = new CountDownLatch(1);
+        var req = createMockRequest("GET", "/api/async/trace", null, null);
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        // 容器线程返回后，异步处理仍在进行，request 作用域的 bean 不能销毁:
+        assertTrue(req.isAsyncStarted());
+        assertEquals(destroyed, RequestTraceImpl.DESTROYED.get());
+        ApiController.asyncTraceGate.countDown();
+        awaitAsync(req);
+        assertTrue(resp.getContentAsString().startsWith("{\"id\":\"trace-"), resp.getContentAsString());
+        // 完成监听器在结束异步状态之后调用:
+        for (int i = 0; i < 100 && RequestTraceImpl.DESTROYED.get() == destroyed; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(destroyed + 1, RequestTraceImpl.DESTROYED.get());
+    }
+
+    void awaitAsync(MockHttpServletRequest req) throws InterruptedException {
+        for (int i = 0; i < 100 && req.isAsyncStarted(); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(req.isAsyncStarted());
+    }
+
     @BeforeEach
     void init() throws ServletException {
         this.ctx = createMockServletContext();
@@ -205,6 +396,8 @@ public class DispatcherServletTest {
         ps.put("app.title", "Scan App");
         ps.put("app.version", "v1.0");
         ps.put("xu-spring.web.favicon-path", "/icon/favicon.ico");
+        ps.put("xu-spring.web.static-cache-control", "max-age=60");
+        ps.put("xu-spring.web.static-cache-max-file-size", "2048");
         ps.put("xu-spring.web.freemarker.template-path", "/WEB-INF/templates");
         ps.put("jdbc.username", "sa");
         ps.put("jdbc.password", "");
@@ -1,6 +1,7 @@
 package cn.xu.spring.controller;
 
 import cn.xu.spring.annotation.*;
+import cn.xu.spring.exception.ServerWebInputException;
 import cn.xu.spring.web.utils.JsonUtils;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
@@ -10,18 +11,34 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 public class ApiController {
 
     final Logger logger = LoggerFactory.getLogger(getClass());
 
+    // 异步处理等待测试放行:
+    public static volatile CountDownLatch asyncTraceGate = new CountDownLatch(0);
+
+    @Autowired
+    RequestTrace requestTrace;
+
     @GetMapping("/api/hello/{name}")
     @ResponseBody
     String hello(@PathVariable("name") String name) {
         return JsonUtils.writeJson(Map.of("name", name));
     }
 
+    @GetMapping("/api/trace")
+    Map<String, Object> trace() {
+        requestTrace.mark();
+        return Map.of("id", requestTrace.id(), "marks", requestTrace.mark());
+    }
+
     @GetMapping("/api/greeting")
     Map<String, Object> greeting(@RequestParam(value = "action", defaultValue = "Hello") String action, @RequestParam("name") String name) {
         return Map.of("action", Map.of("name", name));
@@ -54,6 +71,35 @@ public class ApiController {
         pw.flush();
     }
 
+    @GetMapping("/api/async/future/{name}")
+    CompletableFuture<Map<String, Object>> asyncFuture(@PathVariable("name") String name) {
+        return CompletableFuture.supplyAsync(() -> Map.of("name", name));
+    }
+
+    @GetMapping("/api/async/callable/{name}")
+    Callable<Map<String, Object>> asyncCallable(@PathVariable("name") String name) {
+        return () -> Map.of("name", name);
+    }
+
+    @GetMapping("/api/async/trace")
+    CompletableFuture<Map<String, Object>> asyncTrace() {
+        String id = requestTrace.id();
+        CountDownLatch gate = asyncTraceGate;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("id", id);
+        });
+    }
+
+    @GetMapping("/api/async/error")
+    CompletableFuture<String> asyncError() {
+        return CompletableFuture.failedFuture(new ServerWebInputException("Bad async request."));
+    }
+
     @PostMapping("/api/register")
     void register(@RequestBody SigninObj signin, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
@@ -0,0 +1,8 @@
+package cn.xu.spring.controller;
+
+public interface RequestTrace {
+
+    int mark();
+
+    String id();
+}
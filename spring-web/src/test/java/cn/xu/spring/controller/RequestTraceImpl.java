@@ -0,0 +1,34 @@
+package cn.xu.spring.controller;
+
+import cn.xu.spring.annotation.Component;
+import cn.xu.spring.annotation.Scope;
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Scope(Scope.REQUEST)
+public class RequestTraceImpl implements RequestTrace {
+
+    static final AtomicInteger CREATED = new AtomicInteger();
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    final String id = "trace-" + CREATED.incrementAndGet();
+
+    int marks;
+
+    @Override
+    public int mark() {
+        return ++marks;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @PreDestroy
+    void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+}
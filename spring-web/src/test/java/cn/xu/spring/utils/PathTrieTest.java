@@ -0,0 +1,81 @@
+package cn.xu.spring.utils;
+
+import cn.xu.spring.web.utils.PathTrie;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathTrieTest {
+
+    @Test
+    void staticPath() throws Exception {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.add("/", "root");
+        trie.add("/hello", "hello");
+        trie.add("/favicon.ico", "favicon");
+        assertEquals("root", trie.match("/").handler());
+        assertEquals("hello", trie.match("/hello").handler());
+        assertEquals("favicon", trie.match("/favicon.ico").handler());
+        // '.' 不再是正则中的任意字符:
+        assertNull(trie.match("/faviconxico"));
+        assertNull(trie.match("/hello/"));
+        assertNull(trie.match("/world"));
+    }
+
+    @Test
+    void variablePath() throws Exception {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.add("/test/{userId}/{postId}", "post");
+        PathTrie.Match<String> m1 = trie.match("/test/12345/a123");
+        assertEquals("post", m1.handler());
+        assertEquals("12345", m1.getVariable("userId"));
+        assertEquals("a123", m1.getVariable("postId"));
+        assertArrayEquals(new String[] { "12345", "a123" }, m1.values());
+
+        assertNull(trie.match("/test/12345/a/123"));
+        assertNull(trie.match("/test/12345"));
+    }
+
+    @Test
+    void staticBeforeVariable() throws Exception {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.add("/user/{id}/profile", "profile");
+        trie.add("/user/me/profile", "me");
+        trie.add("/user/{id}/posts", "posts");
+        trie.add("/file/{name}.json", "json");
+        trie.add("/file/{name}", "file");
+        assertEquals("me", trie.match("/user/me/profile").handler());
+        assertEquals("profile", trie.match("/user/bob/profile").handler());
+        // 静态段匹配失败时回溯到变量段:
+        assertEquals("posts", trie.match("/user/me/posts").handler());
+        assertEquals("me", trie.match("/user/me/posts").getVariable("id"));
+
+        PathTrie.Match<String> json = trie.match("/file/data.json");
+        assertEquals("json", json.handler());
+        assertEquals("data", json.getVariable("name"));
+        assertEquals("file", trie.match("/file/data.xml").handler());
+    }
+
+    @Test
+    void duplicatePath() throws Exception {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.add("/a/{x}", "x");
+        trie.add("/a", "a");
+        assertThrows(ServletException.class, () -> trie.add("/a/{y}", "y"));
+        assertThrows(ServletException.class, () -> trie.add("/a", "a"));
+    }
+
+    @Test
+    void invalidPath() throws Exception {
+        PathTrie<String> trie = new PathTrie<>();
+        assertThrows(ServletException.class, () -> trie.add("no-slash", ""));
+        assertThrows(ServletException.class, () -> trie.add("/no-name/{}", ""));
+        assertThrows(ServletException.class, () -> trie.add("/starts-with-digit/{123}", ""));
+        assertThrows(ServletException.class, () -> trie.add("/invalid-name/{user-id}", ""));
+        assertThrows(ServletException.class, () -> trie.add("/invalid-name/{user_id}", ""));
+        assertThrows(ServletException.class, () -> trie.add("/missing-right/{user/", ""));
+        assertThrows(ServletException.class, () -> trie.add("/missing-left/user}/", ""));
+        assertThrows(ServletException.class, () -> trie.add("/two-variables/{a}-{b}", ""));
+    }
+}
@@ -0,0 +1,21 @@
+// test script
+console.log('line 0: hello static resource');
+console.log('line 1: hello static resource');
+console.log('line 2: hello static resource');
+console.log('line 3: hello static resource');
+console.log('line 4: hello static resource');
+console.log('line 5: hello static resource');
+console.log('line 6: hello static resource');
+console.log('line 7: hello static resource');
+console.log('line 8: hello static resource');
+console.log('line 9: hello static resource');
+console.log('line 10: hello static resource');
+console.log('line 11: hello static resource');
+console.log('line 12: hello static resource');
+console.log('line 13: hello static resource');
+console.log('line 14: hello static resource');
+console.log('line 15: hello static resource');
+console.log('line 16: hello static resource');
+console.log('line 17: hello static resource');
+console.log('line 18: hello static resource');
+console.log('line 19: hello static resource');